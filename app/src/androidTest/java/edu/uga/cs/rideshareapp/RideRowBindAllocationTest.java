@@ -0,0 +1,160 @@
+package edu.uga.cs.rideshareapp;
+
+import android.content.Context;
+import android.os.Debug;
+import android.util.Log;
+import android.view.ContextThemeWrapper;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Counts the objects allocated while binding ride rows, on the device's main thread.
+ *
+ * The views allocate inside setText() however they are bound, so each adapter's binds are
+ * compared with the same view calls made directly with the row's prepared values. Anything
+ * onBindViewHolder allocates beyond those is the adapter's own, and must be nothing. The
+ * counts per bind are logged under the RideRowBind tag.
+ *
+ * Run with: ./gradlew :app:connectedAndroidTest
+ * -Pandroid.testInstrumentationRunnerArguments.class=edu.uga.cs.rideshareapp.RideRowBindAllocationTest
+ */
+@RunWith(AndroidJUnit4.class)
+public class RideRowBindAllocationTest {
+
+    private static final String TAG = "RideRowBind";
+    private static final String UID = "user-1";
+    private static final int ROWS = 40;
+    private static final int PASSES = 10;
+
+    private Context context;
+    private RecyclerView parent;
+
+    @Before
+    public void setUp() {
+        Context appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context = new ContextThemeWrapper(appContext, R.style.Theme_RideShareApp);
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            parent = new RecyclerView(context);
+            parent.setLayoutManager(new LinearLayoutManager(context));
+        });
+        Debug.startAllocCounting();
+    }
+
+    @After
+    public void tearDown() {
+        Debug.stopAllocCounting();
+    }
+
+    @Test
+    public void activeRideBind_allocatesNothingOfItsOwn() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            ActiveRideAdapter adapter = new ActiveRideAdapter(new InMemoryRideRepository());
+            adapter.submitList(rows(true));
+            ActiveRideAdapter.RideViewHolder holder =
+                    adapter.onCreateViewHolder(parent, adapter.getItemViewType(0));
+
+            Consumer<Integer> bind = position -> adapter.onBindViewHolder(holder, position);
+            Consumer<Integer> viewCalls = position -> {
+                RideRow row = adapter.getCurrentList().get(position);
+                holder.dateTimeTextView.setText(row.ride.dateTime);
+                if (row.roleText != null) {
+                    holder.roleTextView.setText(row.roleText);
+                    holder.pointsTextView.setText(row.pointsText);
+                    holder.pointsTextView.setTextColor(row.pointsColor);
+                }
+                holder.fromTextView.setText(row.fromText);
+                holder.toTextView.setText(row.toText);
+                holder.confirmButton.setText(row.confirmedByUser
+                        ? ActiveRideAdapter.WAITING_TEXT : ActiveRideAdapter.CONFIRM_TEXT);
+                holder.confirmButton.setEnabled(!row.confirmedByUser);
+            };
+
+            assertNoOwnAllocations("active ride", bind, viewCalls);
+        });
+    }
+
+    @Test
+    public void ridePostBind_allocatesNothingOfItsOwn() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            RidePostAdapter adapter = new RidePostAdapter("OTHERS_POSTS", new InMemoryRideRepository());
+            adapter.submitList(rows(false));
+            RidePostAdapter.RideViewHolder holder =
+                    adapter.onCreateViewHolder(parent, adapter.getItemViewType(0));
+
+            Consumer<Integer> bind = position -> adapter.onBindViewHolder(holder, position);
+            Consumer<Integer> viewCalls = position -> {
+                RideRow row = adapter.getCurrentList().get(position);
+                holder.fromTextView.setText(row.fromText);
+                holder.toTextView.setText(row.toText);
+                holder.dateTimeTextView.setText(row.ride.dateTime);
+                holder.actionButton.setEnabled(true);
+            };
+
+            assertNoOwnAllocations("ride post", bind, viewCalls);
+        });
+    }
+
+    /**
+     * Binds every row a few times each way, after a warm-up pass of both, and compares the
+     * objects the main thread allocated. Every pass starts with the holder showing the last row.
+     */
+    private static void assertNoOwnAllocations(String name, Consumer<Integer> bind,
+                                               Consumer<Integer> viewCalls) {
+        bindAll(bind, 1);
+        bindAll(viewCalls, 1);
+
+        int bindAllocations = bindAll(bind, PASSES);
+        int viewCallAllocations = bindAll(viewCalls, PASSES);
+        Log.i(TAG, String.format("%s: %.2f objects per bind, %.2f from the view calls", name,
+                bindAllocations / (double) (ROWS * PASSES),
+                viewCallAllocations / (double) (ROWS * PASSES)));
+
+        assertTrue(name + " bind allocated " + bindAllocations + " objects, the view calls alone "
+                + viewCallAllocations, bindAllocations <= viewCallAllocations);
+    }
+
+    /**
+     * @return The objects the calling thread allocated
+     */
+    private static int bindAll(Consumer<Integer> bind, int passes) {
+        Debug.resetThreadAllocCount();
+        for (int pass = 0; pass < passes; pass++) {
+            for (int position = 0; position < ROWS; position++) {
+                bind.accept(position);
+            }
+        }
+        return Debug.getThreadAllocCount();
+    }
+
+    /**
+     * Rides alternating the viewing user's role and confirmation, so every branch is bound.
+     */
+    private static List<RideRow> rows(boolean involvingUser) {
+        List<RideRow> rows = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            boolean driving = i % 2 == 0;
+            String driverId = involvingUser && driving ? UID : "driver-" + i;
+            String riderId = involvingUser && !driving ? UID : "rider-" + i;
+            Ride ride = new Ride(driving ? "offer" : "request", driverId, riderId,
+                    "Athens " + i, "Atlanta Airport", "04-25-2025 03:30 PM",
+                    involvingUser, i % 4 < 2, false);
+            ride.setKey("ride-" + i);
+            rows.add(new RideRow(ride, UID));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,31 @@
+package edu.uga.cs.rideshareapp;
+
+import android.app.Application;
+
+/**
+ * Application class for benchmark builds.
+ * Installs an {@link InMemoryRideRepository} seeded with a fixed dataset and a fixed
+ * signed-in user, so benchmarks measure the app itself rather than the network.
+ */
+public class BenchmarkApplication extends Application {
+
+    /** The signed-in user every benchmark screen runs as */
+    static final String BENCHMARK_UID = "benchmark-user";
+    static final String BENCHMARK_EMAIL = "benchmark@example.com";
+
+    /** Accepted rides on the dashboard, and open rides posted by other users */
+    private static final int ACTIVE_RIDES = 200;
+    private static final int OPEN_RIDES = 2000;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        InMemoryRideRepository repository = new InMemoryRideRepository();
+        BenchmarkRides.seed(repository, BENCHMARK_UID, ACTIVE_RIDES, OPEN_RIDES);
+        repository.setPoints(BENCHMARK_UID, 150);
+
+        RideRepositories.set(repository);
+        UserSession.setOverride(new UserSession(BENCHMARK_UID, BENCHMARK_EMAIL));
+    }
+}
@@ -0,0 +1,66 @@
+package edu.uga.cs.rideshareapp;
+
+/**
+ * Builds the deterministic ride dataset used by benchmark builds.
+ */
+final class BenchmarkRides {
+
+    private static final String[] PLACES = {
+            "Tate Center", "Ramsey Center", "Boyd Hall", "Science Library",
+            "Five Points", "Downtown Athens", "Atlanta Airport", "Stegeman Coliseum"
+    };
+
+    /** Gap between consecutive departures */
+    private static final long DEPARTURE_STEP_MILLIS = 15 * 60 * 1000L;
+
+    private BenchmarkRides() {}
+
+    /**
+     * Adds accepted rides involving the user and open rides posted by other users.
+     *
+     * @param repository  The repository to fill
+     * @param uid         The signed-in user
+     * @param activeRides Number of accepted, unconfirmed rides the user drives or rides in
+     * @param openRides   Number of open offers and requests posted by other users
+     */
+    static void seed(InMemoryRideRepository repository, String uid, int activeRides, int openRides) {
+        long firstDeparture = System.currentTimeMillis() + 60 * 60 * 1000L;
+
+        for (int i = 0; i < activeRides; i++) {
+            boolean userDrives = i % 2 == 0;
+            String other = "active-partner-" + i;
+            Ride ride = ride(i, userDrives ? "offer" : "request",
+                    userDrives ? uid : other, userDrives ? other : uid,
+                    firstDeparture + i * DEPARTURE_STEP_MILLIS);
+            ride.accepted = true;
+            ride.riderConfirmed = i % 3 == 0;
+            ride.updateQueryKeys();
+            repository.addRide(ride);
+        }
+
+        for (int i = 0; i < openRides; i++) {
+            boolean offer = i % 2 == 0;
+            String poster = "poster-" + (i % 50);
+            Ride ride = ride(i, offer ? "offer" : "request",
+                    offer ? poster : null, offer ? null : poster,
+                    firstDeparture + (i / 2) * DEPARTURE_STEP_MILLIS);
+            ride.updateQueryKeys();
+            repository.addRide(ride);
+        }
+    }
+
+    private static Ride ride(int index, String rideType, String driverId, String riderId, long departure) {
+        Ride ride = new Ride(
+                rideType,
+                driverId,
+                riderId,
+                PLACES[index % PLACES.length],
+                PLACES[(index * 3 + 1) % PLACES.length],
+                RideDates.formatDateTime(departure),
+                false,
+                false,
+                false);
+        ride.departureEpochMillis = departure;
+        return ride;
+    }
+}
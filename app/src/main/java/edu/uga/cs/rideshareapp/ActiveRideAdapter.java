@@ -1,7 +1,6 @@
 package edu.uga.cs.rideshareapp;
 
-import android.graphics.Color;
-import android.view.LayoutInflater;
+import android.content.Context;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
@@ -9,38 +8,80 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ServerValue;
-
 import java.util.List;
 
 /**
- * RecyclerView.Adapter implementation for displaying a list of active rides.
- * Allows users to confirm ride completion and updates Firebase accordingly.
+ * ListAdapter implementation for displaying a list of active rides.
+ * Allows users to confirm ride completion and records it through the {@link RideRepository}.
+ * Submitted lists are diffed on a background thread by ride key and field content.
+ * Rows arrive with their display state already derived, and the confirm listener is attached
+ * once per view holder, so binding a row allocates nothing of its own. Items have stable ids
+ * and holders come from the {@link RideViewPool} shared with the other ride lists. The time
+ * from submitting a list until its diff is applied is recorded in {@link RideMetrics}.
  */
-public class ActiveRideAdapter extends RecyclerView.Adapter<ActiveRideAdapter.RideViewHolder> {
+public class ActiveRideAdapter extends ListAdapter<RideRow, ActiveRideAdapter.RideViewHolder> {
+
+    static final String CONFIRM_TEXT = "Confirm Ride\n Completed";
+    static final String WAITING_TEXT = "Waiting for\n other user\n to confirm";
 
-    private List<Ride> rideList;
-    private List<String> rideKeys; // Firebase keys matching each ride
+    private final RideRepository repository;
+    private Context context;   // The attached list's activity; pooled holders may come from another
 
     /**
      * Constructs a new ActiveRideAdapter.
      *
-     * @param rideList  The list of active Ride objects to display
-     * @param rideKeys  The list of Firebase keys corresponding to each ride
+     * @param repository Repository used to confirm and finalize rides
+     */
+    public ActiveRideAdapter(RideRepository repository) {
+        super(RideRowDiffCallback.INSTANCE);
+        this.repository = repository;
+        setHasStableIds(true);
+    }
+
+    /**
+     * Returns the row's stable id, derived from the ride key.
      */
-    public ActiveRideAdapter(List<Ride> rideList, List<String> rideKeys) {
-        this.rideList = rideList;
-        this.rideKeys = rideKeys;
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).id;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return RideViewPool.TYPE_ACTIVE_RIDE;
+    }
+
+    @Override
+    public void submitList(@Nullable List<RideRow> rows) {
+        submitList(rows, null);
+    }
+
+    @Override
+    public void submitList(@Nullable List<RideRow> rows, @Nullable Runnable commitCallback) {
+        super.submitList(rows, RideMetrics.get().timeCommit("diff.activeRides", commitCallback));
+    }
+
+    /**
+     * Remembers the list's context for toasts, since a pooled holder's views
+     * may have been inflated by another screen.
+     */
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        context = recyclerView.getContext();
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        context = null;
     }
 
     /**
-     * Called when RecyclerView needs a new ViewHolder of the given type.
+     * Called when RecyclerView needs a new ViewHolder of the given type and the shared pool
+     * has none left.
      *
      * @param parent   The parent ViewGroup into which the new view will be added
      * @param viewType The view type of the new view
@@ -49,8 +90,7 @@ public class ActiveRideAdapter extends RecyclerView.Adapter<ActiveRideAdapter.Ri
     @NonNull
     @Override
     public RideViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View itemView = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.active_ride_item, parent, false);
+        View itemView = RideViewPool.inflate(parent, R.layout.active_ride_item);
         return new RideViewHolder(itemView);
     }
 
@@ -62,106 +102,69 @@ public class ActiveRideAdapter extends RecyclerView.Adapter<ActiveRideAdapter.Ri
      */
     @Override
     public void onBindViewHolder(@NonNull RideViewHolder holder, int position) {
-        Ride ride = rideList.get(position);
-        FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
-        if (currentUser == null) return;
-
-        boolean isDriver = ride.driverId != null && ride.driverId.equals(currentUser.getUid());
-        boolean isRider = ride.riderId != null && ride.riderId.equals(currentUser.getUid());
+        RideRow row = getItem(position);
+        holder.row = row;
 
         // Set Date/Time at Top
-        holder.dateTimeTextView.setText(ride.dateTime);
+        holder.dateTimeTextView.setText(row.ride.dateTime);
 
         // Set Role and Points
-        if (isDriver) {
-            holder.roleTextView.setText("Driver");
-            holder.pointsTextView.setText("+50 points");
-            holder.pointsTextView.setTextColor(Color.parseColor("#008000")); // Green
-        } else if (isRider) {
-            holder.roleTextView.setText("Rider");
-            holder.pointsTextView.setText("-50 points");
-            holder.pointsTextView.setTextColor(Color.parseColor("#FF0000")); // Red
+        if (row.roleText != null) {
+            holder.roleTextView.setText(row.roleText);
+            holder.pointsTextView.setText(row.pointsText);
+            holder.pointsTextView.setTextColor(row.pointsColor);
         }
 
-        holder.fromTextView.setText("From: " + ride.from);
-        holder.toTextView.setText("To: " + ride.to);
+        holder.fromTextView.setText(row.fromText);
+        holder.toTextView.setText(row.toText);
 
         // Determine if this user has already confirmed the ride
-        boolean userAlreadyConfirmed = (isDriver && ride.driverConfirmed) || (isRider && ride.riderConfirmed);
-
-        if (userAlreadyConfirmed) {
-            holder.confirmButton.setText("Waiting for\n other user\n to confirm");
-            holder.confirmButton.setEnabled(false);
-        } else {
-            holder.confirmButton.setText("Confirm Ride\n Completed");
-            holder.confirmButton.setEnabled(true);
-
-            // Set click listener to update confirmation status
-            holder.confirmButton.setOnClickListener(v -> {
-                int adapterPosition = holder.getAdapterPosition();
-                String rideKey = rideKeys.get(adapterPosition);
-
-                DatabaseReference rideRef = FirebaseDatabase.getInstance().getReference("rides")
-                        .child(rideKey);
-
-                // Update the correct confirmation field
-                if (isDriver) {
-                    ride.driverConfirmed = true;
-                } else if (isRider) {
-                    ride.riderConfirmed = true;
-                }
-
-                rideRef.setValue(ride)
-                        .addOnSuccessListener(aVoid -> {
-                            Toast.makeText(holder.itemView.getContext(), "Confirmation recorded!", Toast.LENGTH_SHORT).show();
-                            notifyItemChanged(holder.getAdapterPosition());
-
-                            // If both users confirmed, finalize the ride
-                            if (ride.driverConfirmed && ride.riderConfirmed) {
-                                finalizeCompletedRide(ride, adapterPosition);
-                            }
-                        });
-            });
-        }
+        holder.confirmButton.setText(row.confirmedByUser ? WAITING_TEXT : CONFIRM_TEXT);
+        holder.confirmButton.setEnabled(!row.confirmedByUser);
     }
 
     /**
-     * Returns the total number of items in the adapter.
+     * Drops the row of a holder going back to the pool.
      *
-     * @return Number of rides in the list
+     * @param holder The recycled view holder
      */
     @Override
-    public int getItemCount() {
-        return rideList.size();
+    public void onViewRecycled(@NonNull RideViewHolder holder) {
+        holder.row = null;
     }
 
     /**
-     * Finalizes a completed ride by updating user points and removing the ride from Firebase.
+     * Records the current user's confirmation of a ride.
      *
-     * @param ride     The Ride object that has been confirmed by both parties
-     * @param rideKey The index of the ride in the adapter/rideKeys list
+     * @param row The row whose confirm button was clicked
      */
-    private void finalizeCompletedRide(Ride ride, int rideKey) {
-        int ridePoints = 50;
-
-        // Add driver points
-        DatabaseReference driverPointsRef = FirebaseDatabase.getInstance().getReference("users")
-                .child(ride.driverId)
-                .child("points");
-
-        // Remove rider points
-        DatabaseReference riderPointsRef = FirebaseDatabase.getInstance().getReference("users")
-                .child(ride.riderId)
-                .child("points");
-
-        driverPointsRef.setValue(ServerValue.increment(ridePoints));
-        riderPointsRef.setValue(ServerValue.increment(-ridePoints));
-
-        // Remove from Active Rides
-        DatabaseReference rideRef = FirebaseDatabase.getInstance().getReference("rides")
-                .child(String.valueOf(rideKey));
-        rideRef.removeValue();
+    private void confirmRide(RideRow row) {
+        Context context = this.context;
+        if (context == null || row.confirmedByUser || !(row.isDriver || row.isRider)) return;
+
+        // Set only this user's confirmation flag; the ride comes back as committed, so the
+        // user whose confirmation completed it finalizes it, even when both confirm at once
+        repository.confirmRide(row.ride.getKey(), row.isDriver)
+                .addOnSuccessListener(confirmed -> {
+                    Toast.makeText(context, "Confirmation recorded!", Toast.LENGTH_SHORT).show();
+                    if (confirmed != null && confirmed.driverConfirmed && confirmed.riderConfirmed) {
+                        finalizeCompletedRide(confirmed, context);
+                    }
+                });
+    }
 
+    /**
+     * Finalizes a completed ride in one atomic update: adjusts both users' points,
+     * archives the ride and clears it from both users' ride indexes.
+     *
+     * @param ride    The Ride object that has been confirmed by both parties
+     * @param context Context used to report a failure
+     */
+    private void finalizeCompletedRide(Ride ride, Context context) {
+        repository.finalizeRide(ride)
+                .addOnFailureListener(e ->
+                        Toast.makeText(context, "Failed to finalize ride.", Toast.LENGTH_SHORT).show()
+                );
     }
 
     /**
@@ -170,9 +173,13 @@ public class ActiveRideAdapter extends RecyclerView.Adapter<ActiveRideAdapter.Ri
     static class RideViewHolder extends RecyclerView.ViewHolder {
         TextView dateTimeTextView, roleTextView, fromTextView, toTextView, pointsTextView;
         Button confirmButton;
+        RideRow row;
 
         /**
-         * Constructs a RideViewHolder and binds UI elements.
+         * Constructs a RideViewHolder, binds UI elements and attaches the confirm listener.
+         *
+         * Clicks go to whichever adapter last bound the holder, since pooled holders move
+         * between lists.
          *
          * @param itemView The item view layout inflated from XML
          */
@@ -184,6 +191,12 @@ public class ActiveRideAdapter extends RecyclerView.Adapter<ActiveRideAdapter.Ri
             toTextView = itemView.findViewById(R.id.toTextView);
             pointsTextView = itemView.findViewById(R.id.pointsTextView);
             confirmButton = itemView.findViewById(R.id.confirmButton);
+
+            // Set click listener to update confirmation status
+            confirmButton.setOnClickListener(v -> {
+                ActiveRideAdapter adapter = (ActiveRideAdapter) getBindingAdapter();
+                if (row != null && adapter != null) adapter.confirmRide(row);
+            });
         }
     }
 }
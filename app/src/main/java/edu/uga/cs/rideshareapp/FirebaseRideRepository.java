@@ -0,0 +1,685 @@
+package edu.uga.cs.rideshareapp;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.Transaction;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link RideRepository} backed by the Firebase Realtime Database.
+ *
+ * Each distinct {@link RideQuery} is served by one shared subscription holding the
+ * Firebase listeners and the last known rides. Further subscribers to an equal query
+ * are attached to it and immediately replayed the cached rides; the Firebase listeners
+ * are removed when the last subscriber cancels. All callbacks run on the main thread.
+ *
+ * Firebase delivers snapshots on the main thread, so each query hands them to its own serial
+ * queue on {@link RideExecutors}: decoding and dropping unchanged rides happens there, in the
+ * order the snapshots arrived, and only the decoded rides are posted back to the main thread.
+ *
+ * Every write, query load and snapshot parse is recorded in {@link RideMetrics}.
+ */
+public class FirebaseRideRepository implements RideRepository {
+
+    private static final String TAG = "FirebaseRideRepository";
+
+    /** Times an accept is read and written before it is reported failed */
+    private static final int ACCEPT_ATTEMPTS = 3;
+
+    private final DatabaseReference rootRef;
+    private final DatabaseReference ridesRef;
+    private final Map<RideQuery, SharedQuery> sharedQueries = new HashMap<>();
+    private final RideMetrics metrics = RideMetrics.get();
+
+    /**
+     * Creates a repository on the given database.
+     *
+     * @param database The Firebase database instance
+     */
+    public FirebaseRideRepository(FirebaseDatabase database) {
+        this.rootRef = database.getReference();
+        this.ridesRef = rootRef.child(RideIndex.RIDES);
+    }
+
+    @Override
+    public Subscription subscribe(RideQuery query, RideSubscriber subscriber) {
+        SharedQuery shared = sharedQueries.get(query);
+        if (shared == null) {
+            shared = query.kind == RideQuery.Kind.USER_RIDES
+                    ? new UserRidesQuery(query)
+                    : new ChildQuery(query);
+            sharedQueries.put(query, shared);
+        }
+        shared.addSubscriber(subscriber);
+
+        SharedQuery subscribed = shared;
+        return new Subscription() {
+            private boolean cancelled;
+
+            @Override
+            public void cancel() {
+                if (cancelled) return;
+                cancelled = true;
+                subscribed.removeSubscriber(subscriber);
+            }
+        };
+    }
+
+    @Override
+    public Subscription observePoints(String uid, PointsListener listener) {
+        DatabaseReference pointsRef = rootRef.child(RideIndex.userPointsPath(uid));
+        pointsRef.keepSynced(true);
+
+        ValueEventListener valueListener = pointsRef.addValueEventListener(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                Long points = snapshot.getValue(Long.class);
+                listener.onPointsChanged(points != null ? points : 0);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                metrics.count("query.points.errors");
+                Log.w(TAG, "Points listener cancelled: " + error.getMessage());
+                listener.onError(error.getMessage());
+            }
+        });
+        return () -> pointsRef.removeEventListener(valueListener);
+    }
+
+    @Override
+    public Task<Void> setPoints(String uid, long points) {
+        return metrics.time("write.setPoints", rootRef.child(RideIndex.userPointsPath(uid)).setValue(points));
+    }
+
+    @Override
+    public Task<Void> saveProfile(String uid, String email) {
+        return metrics.time("write.saveProfile", rootRef.child(RideIndex.userEmailPath(uid)).setValue(email));
+    }
+
+    @Override
+    public Task<Void> saveRide(String rideKey, String posterUid, Ride ride) {
+        if (rideKey == null) {
+            return metrics.time("write.saveRide",
+                    rootRef.updateChildren(saveUpdates(ridesRef.push().getKey(), posterUid, ride, null)));
+        }
+
+        // An edit can move the ride to another day, so find the partition it is copied into now;
+        // without it the old copy would be left behind, so the edit fails instead
+        return readRide(rideKey).continueWithTask(stored -> {
+            if (!stored.isSuccessful()) return Tasks.forException(stored.getException());
+            return metrics.time("write.saveRide",
+                    rootRef.updateChildren(saveUpdates(rideKey, posterUid, ride, stored.getResult())));
+        });
+    }
+
+    /**
+     * Builds the update writing a ride, its copy in its day's partition and the poster's
+     * index entry together, and removing the copy in the day it departed on before.
+     *
+     * @param stored The ride as stored before, or null for a new ride
+     */
+    private Map<String, Object> saveUpdates(String rideKey, String posterUid, Ride ride, Ride stored) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(RideIndex.ridePath(rideKey), RideCodec.encode(ride));
+        updates.put(RideIndex.userRidePath(posterUid, rideKey), true);
+        if (stored != null) {
+            updates.put(RideIndex.openRidePath(stored.departureEpochMillis, rideKey), null);
+        }
+        if (!ride.accepted) {
+            updates.put(RideIndex.openRidePath(ride.departureEpochMillis, rideKey), RideCodec.encodeOpenCopy(ride));
+        }
+        return updates;
+    }
+
+    @Override
+    public Task<Void> deleteRide(String rideKey, String posterUid) {
+        return readRide(rideKey).continueWithTask(stored -> {
+            // The copy's day comes from the stored ride; without it the copy would be left behind
+            if (!stored.isSuccessful()) return Tasks.forException(stored.getException());
+
+            // Remove the ride together with the poster's index entry and its partition copy
+            Map<String, Object> updates = new HashMap<>();
+            updates.put(RideIndex.ridePath(rideKey), null);
+            updates.put(RideIndex.userRidePath(posterUid, rideKey), null);
+            if (stored.getResult() != null) {
+                updates.put(RideIndex.openRidePath(stored.getResult().departureEpochMillis, rideKey), null);
+            }
+            return metrics.time("write.deleteRide", rootRef.updateChildren(updates));
+        });
+    }
+
+    /**
+     * Reads a ride once. A user's own posts are kept synced, so editing or deleting one
+     * is usually answered from the local cache.
+     *
+     * @param rideKey The Firebase key of the ride
+     * @return Task with the ride, or null if it does not exist
+     */
+    private Task<Ride> readRide(String rideKey) {
+        TaskCompletionSource<Ride> result = new TaskCompletionSource<>();
+        ridesRef.child(rideKey).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                result.setResult(RideCodec.decode(snapshot));
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.w(TAG, "Reading ride " + rideKey + " failed: " + error.getMessage());
+                result.setException(error.toException());
+            }
+        });
+        return result.getTask();
+    }
+
+    @Override
+    public Task<AcceptResult> acceptRide(String rideKey, String uid) {
+        TaskCompletionSource<AcceptResult> result = new TaskCompletionSource<>();
+        tryAccept(rideKey, uid, ACCEPT_ATTEMPTS, result);
+        return metrics.time("write.acceptRide", result.getTask());
+    }
+
+    /**
+     * Reads the ride and accepts it with one multi-path update, built by
+     * {@link RideIndex#acceptUpdates(Ride, String)}: the ride, the user's index entry and the
+     * partition copy change together, so no accepted ride is ever left listed as open. If the
+     * rules reject the update, because someone else accepted the ride first or it changed
+     * since it was read, the ride is read again to tell which.
+     *
+     * @param attempts How many more times to read and write
+     */
+    private void tryAccept(String rideKey, String uid, int attempts,
+                           TaskCompletionSource<AcceptResult> result) {
+        readRide(rideKey).addOnCompleteListener(read -> {
+            if (!read.isSuccessful()) {
+                result.setException(read.getException());
+                return;
+            }
+
+            Ride current = read.getResult();
+            if (current == null || current.accepted) {
+                // An earlier attempt may have been applied without its reply arriving
+                String acceptedBy = current == null ? null
+                        : "offer".equals(current.rideType) ? current.riderId : current.driverId;
+                if (uid.equals(acceptedBy)) {
+                    result.setResult(AcceptResult.ACCEPTED);
+                } else {
+                    metrics.count("write.acceptRide.taken");
+                    result.setResult(AcceptResult.ALREADY_TAKEN);
+                }
+                return;
+            }
+
+            rootRef.updateChildren(RideIndex.acceptUpdates(current, uid)).addOnCompleteListener(written -> {
+                if (written.isSuccessful()) {
+                    result.setResult(AcceptResult.ACCEPTED);
+                } else if (attempts > 1) {
+                    metrics.count("write.acceptRide.retry");
+                    tryAccept(rideKey, uid, attempts - 1, result);
+                } else {
+                    result.setException(written.getException());
+                }
+            });
+        });
+    }
+
+    @Override
+    public Task<Ride> confirmRide(String rideKey, boolean asDriver) {
+        TaskCompletionSource<Ride> result = new TaskCompletionSource<>();
+
+        ridesRef.child(rideKey).runTransaction(new Transaction.Handler() {
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData currentData) {
+                Ride current = RideCodec.decode(rideKey, currentData.getValue());
+
+                // Nothing cached locally yet, or the ride is gone: never write a bare flag
+                if (current == null) return Transaction.success(currentData);
+
+                // Sets this user's flag on the ride as it is now, so the other user's flag is
+                // kept; the transaction reruns if the ride changed meanwhile
+                if (asDriver) {
+                    current.driverConfirmed = true;
+                } else {
+                    current.riderConfirmed = true;
+                }
+
+                // Rewrites the whole ride, which also drops the children of an old schema
+                currentData.setValue(RideCodec.encode(current));
+                return Transaction.success(currentData);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot currentData) {
+                if (error != null) {
+                    result.setException(error.toException());
+                    return;
+                }
+                result.setResult(committed && currentData != null ? RideCodec.decode(currentData) : null);
+            }
+        }, false);
+
+        return metrics.time("write.confirmRide", result.getTask());
+    }
+
+    @Override
+    public Task<Void> finalizeRide(Ride ride) {
+        String rideKey = ride.getKey();
+        Map<String, Object> updates = new HashMap<>();
+
+        // Add driver points, remove rider points
+        updates.put(RideIndex.userPointsPath(ride.driverId), ServerValue.increment(RIDE_POINTS));
+        updates.put(RideIndex.userPointsPath(ride.riderId), ServerValue.increment(-RIDE_POINTS));
+
+        // Move from Active Rides to the archive
+        updates.put(RideIndex.completedRidePath(rideKey), RideCodec.encode(ride));
+        updates.put(RideIndex.ridePath(rideKey), null);
+
+        // Drop the ride from both users' indexes so it leaves their dashboards
+        updates.put(RideIndex.userRidePath(ride.driverId, rideKey), null);
+        updates.put(RideIndex.userRidePath(ride.riderId, rideKey), null);
+
+        return metrics.time("write.finalizeRide", rootRef.updateChildren(updates));
+    }
+
+    /**
+     * One database subscription shared by every subscriber to an equal query.
+     * Keeps the rides currently matching the query so late subscribers can be replayed.
+     *
+     * The listeners call {@link #putSnapshot}, {@link #removeRide} and {@link #markLoaded} on
+     * the main thread; each queues its work on the decoder, and what reaches the subscribers
+     * is posted back in the same order. Once the last subscriber leaves, queued work is
+     * dropped.
+     */
+    private abstract class SharedQuery {
+
+        final RideQuery query;
+
+        /** Prefix of this query's metrics, e.g. "query.USER_RIDES" */
+        final String metricName;
+        private final Map<String, Ride> rides = new LinkedHashMap<>();
+        private final List<RideSubscriber> subscribers = new ArrayList<>();
+        private boolean loaded;
+        private long startNanos;
+        private volatile boolean stopped;
+
+        // Used on the decoder only: the last ride delivered per key, to drop unchanged updates
+        private final Executor decoder = RideExecutors.serial();
+        private final Map<String, Ride> decodedRides = new HashMap<>();
+        private final Ride scratch = new Ride();   // Decode target reused for every snapshot
+        private boolean decoderLoaded;
+        private long loadBytes;
+
+        SharedQuery(RideQuery query) {
+            this.query = query;
+            this.metricName = "query." + query.kind;
+        }
+
+        /** Attaches the database listeners */
+        abstract void start();
+
+        /** Removes the database listeners */
+        abstract void stop();
+
+        void addSubscriber(RideSubscriber subscriber) {
+            subscribers.add(subscriber);
+            if (subscribers.size() == 1) {
+                startNanos = System.nanoTime();
+                start();
+                return;
+            }
+
+            // Replay what the shared listener already knows
+            for (Ride ride : rides.values()) {
+                subscriber.onRidePut(ride);
+            }
+            if (loaded) subscriber.onInitialLoadComplete();
+        }
+
+        void removeSubscriber(RideSubscriber subscriber) {
+            subscribers.remove(subscriber);
+            if (subscribers.isEmpty()) {
+                stopped = true;
+                stop();
+                sharedQueries.remove(query);
+            }
+        }
+
+        /**
+         * Decodes a ride snapshot on the decoder and delivers the ride, or its removal if the
+         * snapshot is empty. Updates that leave the ride's content unchanged are dropped
+         * before a new Ride is allocated.
+         *
+         * @param snapshot The ride snapshot
+         */
+        void putSnapshot(DataSnapshot snapshot) {
+            decoder.execute(() -> {
+                if (stopped) return;
+                metrics.count(metricName + ".snapshots");
+                if (metrics.recordsPayloads()) {
+                    long bytes = RideMetrics.sizeOf(snapshot);
+                    metrics.record(metricName + ".bytes", bytes);
+                    if (!decoderLoaded) loadBytes += bytes;
+                }
+
+                long parseStart = System.nanoTime();
+                boolean decoded = RideCodec.decodeInto(snapshot, scratch);
+                metrics.stopTimer("parse.ride", parseStart);
+                if (!decoded) {
+                    dropDecoded(snapshot.getKey());
+                    return;
+                }
+
+                Ride cached = decodedRides.get(scratch.getKey());
+                if (cached != null && cached.hasSameContent(scratch)) return;
+                Ride ride = new Ride(scratch);
+                decodedRides.put(ride.getKey(), ride);
+                postToSubscribers(() -> deliverPut(ride));
+            });
+        }
+
+        /**
+         * Delivers a ride's removal once the snapshots queued before it are decoded.
+         *
+         * @param rideKey The Firebase key of the ride
+         */
+        void removeRide(String rideKey) {
+            decoder.execute(() -> dropDecoded(rideKey));
+        }
+
+        /**
+         * Delivers the end of the initial load once the snapshots queued before it are decoded.
+         */
+        void markLoaded() {
+            decoder.execute(() -> {
+                if (decoderLoaded) return;
+                decoderLoaded = true;
+                long bytes = loadBytes;
+                postToSubscribers(() -> deliverLoaded(bytes));
+            });
+        }
+
+        /** Runs on the decoder */
+        private void dropDecoded(String rideKey) {
+            if (decodedRides.remove(rideKey) == null) return;
+            postToSubscribers(() -> deliverRemoval(rideKey));
+        }
+
+        /** Posts a delivery to the main thread, unless the query has stopped by then */
+        private void postToSubscribers(Runnable delivery) {
+            RideExecutors.postToMain(() -> {
+                if (!stopped) delivery.run();
+            });
+        }
+
+        private void deliverPut(Ride ride) {
+            rides.put(ride.getKey(), ride);
+            for (RideSubscriber subscriber : new ArrayList<>(subscribers)) {
+                subscriber.onRidePut(ride);
+            }
+        }
+
+        private void deliverRemoval(String rideKey) {
+            if (rides.remove(rideKey) == null) return;
+            for (RideSubscriber subscriber : new ArrayList<>(subscribers)) {
+                subscriber.onRideRemoved(rideKey);
+            }
+        }
+
+        private void deliverLoaded(long loadBytes) {
+            if (loaded) return;
+            loaded = true;
+            metrics.stopTimer(metricName + ".load", startNanos);
+            metrics.record(metricName + ".loadRides", rides.size());
+            if (metrics.recordsPayloads()) metrics.record(metricName + ".loadBytes", loadBytes);
+            for (RideSubscriber subscriber : new ArrayList<>(subscribers)) {
+                subscriber.onInitialLoadComplete();
+            }
+        }
+
+        void reportError(DatabaseError error) {
+            recordCancelled(error);
+            for (RideSubscriber subscriber : new ArrayList<>(subscribers)) {
+                subscriber.onError(error.getMessage());
+            }
+        }
+
+        /**
+         * Counts and logs a cancelled listener of this query.
+         */
+        void recordCancelled(DatabaseError error) {
+            metrics.count(metricName + ".errors");
+            Log.w(TAG, metricName + " cancelled: " + error.getMessage());
+        }
+    }
+
+    /**
+     * Shared subscription for queries answered directly by one Firebase query.
+     */
+    private class ChildQuery extends SharedQuery {
+
+        private final Query firebaseQuery;
+        private ChildEventListener childListener;
+
+        ChildQuery(RideQuery query) {
+            super(query);
+            if (query.kind == RideQuery.Kind.POSTED_BY) {
+                firebaseQuery = ridesRef.orderByChild(RideCodec.FIELD_POSTER_STATUS_TYPE).equalTo(query.value);
+            } else if (query.kind == RideQuery.Kind.STATUS_TYPE_CELL) {
+                // A prefix range in one day's partition, so only the rides starting in the
+                // cell on that day are downloaded
+                firebaseQuery = rootRef.child(RideIndex.OPEN_RIDES).child(query.day)
+                        .orderByChild(RideCodec.FIELD_STATUS_TYPE_CELL)
+                        .startAt(query.value).endAt(query.endAt());
+            } else {
+                Query window = ridesRef.orderByChild(RideCodec.FIELD_STATUS_TYPE_DEPARTURE);
+                window = query.startKey == null
+                        ? window.startAt(query.startAt)
+                        : window.startAt(query.startAt, query.startKey);
+                firebaseQuery = window.endAt(query.endAt()).limitToFirst(query.limit);
+            }
+        }
+
+        @Override
+        void start() {
+            // A user's own posts are small, so keep them synced to disk for an instant cold start
+            if (query.kind == RideQuery.Kind.POSTED_BY) {
+                firebaseQuery.keepSynced(true);
+            }
+
+            childListener = firebaseQuery.addChildEventListener(new ChildEventListener() {
+                @Override
+                public void onChildAdded(@NonNull DataSnapshot snapshot, String previousChildName) {
+                    putSnapshot(snapshot);
+                }
+
+                @Override
+                public void onChildChanged(@NonNull DataSnapshot snapshot, String previousChildName) {
+                    putSnapshot(snapshot);
+                }
+
+                @Override
+                public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+                    removeRide(snapshot.getKey());
+                }
+
+                @Override
+                public void onChildMoved(@NonNull DataSnapshot snapshot, String previousChildName) { }
+
+                @Override
+                public void onCancelled(@NonNull DatabaseError error) {
+                    reportError(error);
+                }
+            });
+
+            // Value events fire after the child events for the same data, marking the initial load
+            firebaseQuery.addListenerForSingleValueEvent(new ValueEventListener() {
+                @Override
+                public void onDataChange(@NonNull DataSnapshot snapshot) {
+                    if (childListener != null) markLoaded();
+                }
+
+                @Override
+                public void onCancelled(@NonNull DatabaseError error) {
+                    recordCancelled(error);
+                }
+            });
+        }
+
+        @Override
+        void stop() {
+            if (childListener != null) {
+                firebaseQuery.removeEventListener(childListener);
+                childListener = null;
+            }
+        }
+    }
+
+    /**
+     * Shared subscription for a user's ride index: listens to userRides/{uid} and
+     * attaches one listener per indexed ride, so only that user's rides are downloaded.
+     */
+    private class UserRidesQuery extends SharedQuery {
+
+        private final DatabaseReference indexRef;
+        private final Map<String, ValueEventListener> rideListeners = new HashMap<>();
+        private final Set<String> pendingRides = new HashSet<>();
+        private ChildEventListener indexListener;
+        private boolean indexLoaded;
+
+        UserRidesQuery(RideQuery query) {
+            super(query);
+            indexRef = rootRef.child(RideIndex.USER_RIDES).child(query.value);
+        }
+
+        @Override
+        void start() {
+            // Keep the user's index fresh on disk so the next cold start renders from the cache
+            indexRef.keepSynced(true);
+
+            indexListener = indexRef.addChildEventListener(new ChildEventListener() {
+                @Override
+                public void onChildAdded(@NonNull DataSnapshot snapshot, String previousChildName) {
+                    watchRide(snapshot.getKey());
+                }
+
+                @Override
+                public void onChildChanged(@NonNull DataSnapshot snapshot, String previousChildName) { }
+
+                @Override
+                public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+                    unwatchRide(snapshot.getKey());
+                }
+
+                @Override
+                public void onChildMoved(@NonNull DataSnapshot snapshot, String previousChildName) { }
+
+                @Override
+                public void onCancelled(@NonNull DatabaseError error) {
+                    reportError(error);
+                }
+            });
+
+            indexRef.addListenerForSingleValueEvent(new ValueEventListener() {
+                @Override
+                public void onDataChange(@NonNull DataSnapshot snapshot) {
+                    if (indexListener == null) return;
+                    indexLoaded = true;
+                    markLoadedIfComplete();
+                }
+
+                @Override
+                public void onCancelled(@NonNull DatabaseError error) {
+                    recordCancelled(error);
+                }
+            });
+        }
+
+        @Override
+        void stop() {
+            if (indexListener != null) {
+                indexRef.removeEventListener(indexListener);
+                indexListener = null;
+            }
+            indexLoaded = false;
+            pendingRides.clear();
+            for (Map.Entry<String, ValueEventListener> entry : rideListeners.entrySet()) {
+                ridesRef.child(entry.getKey()).removeEventListener(entry.getValue());
+            }
+            rideListeners.clear();
+        }
+
+        /**
+         * Attaches a listener to a single indexed ride.
+         *
+         * @param rideKey The Firebase key of the ride to watch
+         */
+        private void watchRide(String rideKey) {
+            if (rideListeners.containsKey(rideKey)) return;
+
+            DatabaseReference rideRef = ridesRef.child(rideKey);
+            rideRef.keepSynced(true);
+            pendingRides.add(rideKey);
+
+            ValueEventListener listener = rideRef.addValueEventListener(new ValueEventListener() {
+                @Override
+                public void onDataChange(@NonNull DataSnapshot snapshot) {
+                    putSnapshot(snapshot);
+                    if (pendingRides.remove(rideKey)) markLoadedIfComplete();
+                }
+
+                @Override
+                public void onCancelled(@NonNull DatabaseError error) {
+                    reportError(error);
+                }
+            });
+            rideListeners.put(rideKey, listener);
+        }
+
+        /**
+         * Detaches the listener for a ride that left the user's index.
+         *
+         * @param rideKey The Firebase key of the ride to stop watching
+         */
+        private void unwatchRide(String rideKey) {
+            ValueEventListener listener = rideListeners.remove(rideKey);
+            if (listener != null) {
+                DatabaseReference rideRef = ridesRef.child(rideKey);
+                rideRef.removeEventListener(listener);
+                rideRef.keepSynced(false);
+            }
+            removeRide(rideKey);
+            if (pendingRides.remove(rideKey)) markLoadedIfComplete();
+        }
+
+        /**
+         * The initial load is complete once the index and every ride it listed have arrived.
+         */
+        private void markLoadedIfComplete() {
+            if (indexLoaded && pendingRides.isEmpty()) markLoaded();
+        }
+    }
+}
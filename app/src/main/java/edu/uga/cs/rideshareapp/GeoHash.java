@@ -0,0 +1,202 @@
+package edu.uga.cs.rideshareapp;
+
+/**
+ * Geohash cells: the world split into a grid by alternately halving longitude and latitude,
+ * so a cell is identified by the bits of the halves chosen, longitude first. Points in the
+ * same cell share every bit, and a longer hash is a smaller cell inside the shorter one.
+ *
+ * Cells are handled as bits, packed into a long, where speed matters, and as the usual
+ * base-32 strings, five bits per character, for database keys.
+ */
+public final class GeoHash {
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    /** Mean radius of the earth */
+    static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    private static final double METERS_PER_DEGREE = Math.PI * EARTH_RADIUS_METERS / 180;
+
+    private GeoHash() {}
+
+    /**
+     * Returns the cell containing a point.
+     *
+     * @param lat  Latitude in degrees
+     * @param lng  Longitude in degrees
+     * @param bits Length of the hash in bits, at most 62
+     * @return The cell's bits, the first bit highest
+     */
+    public static long encode(double lat, double lng, int bits) {
+        double minLat = -90, maxLat = 90;
+        double minLng = -180, maxLng = 180;
+        lng = wrapLongitude(lng);
+        lat = Math.max(-90, Math.min(90, lat));
+
+        long hash = 0;
+        for (int bit = 0; bit < bits; bit++) {
+            hash <<= 1;
+            if (bit % 2 == 0) {
+                double mid = (minLng + maxLng) / 2;
+                if (lng >= mid) {
+                    hash |= 1;
+                    minLng = mid;
+                } else {
+                    maxLng = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (lat >= mid) {
+                    hash |= 1;
+                    minLat = mid;
+                } else {
+                    maxLat = mid;
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the base-32 geohash of the cell containing a point.
+     *
+     * @param lat    Latitude in degrees
+     * @param lng    Longitude in degrees
+     * @param length Number of characters, at most 12
+     * @return The geohash, e.g. "dnh9" for a cell containing Athens, Georgia
+     */
+    public static String encodeBase32(double lat, double lng, int length) {
+        return toBase32(encode(lat, lng, length * 5), length);
+    }
+
+    /**
+     * Formats a cell as a base-32 geohash.
+     *
+     * @param hash   The cell's bits, as returned by {@link #encode(double, double, int)}
+     * @param length Number of characters; the hash must have five bits per character
+     * @return The geohash
+     */
+    public static String toBase32(long hash, int length) {
+        char[] chars = new char[length];
+        for (int i = length - 1; i >= 0; i--) {
+            chars[i] = BASE32[(int) (hash & 31)];
+            hash >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Returns the cells of a hash length that together cover a circle: every cell that
+     * overlaps the circle's bounding box. Longitudes wrap around the antimeridian.
+     *
+     * @param lat          Latitude of the center in degrees
+     * @param lng          Longitude of the center in degrees
+     * @param radiusMeters Radius of the circle
+     * @param bits         Length of the hash in bits
+     * @return The cells' bits, without duplicates
+     */
+    public static long[] cellsCovering(double lat, double lng, double radiusMeters, int bits) {
+        int latBits = bits / 2;
+        int lngBits = bits - latBits;
+        long lngCells = 1L << lngBits;
+
+        double latRadius = metersToLatDegrees(radiusMeters);
+        double lngRadius = metersToLngDegrees(radiusMeters, Math.abs(lat) + latRadius);
+
+        // Rows and columns of the cells at the bounding box's corners
+        long south = encode(lat - latRadius, lng - lngRadius, bits);
+        long north = encode(lat + latRadius, lng + lngRadius, bits);
+        long firstRow = deinterleave(south >>> (bits % 2), latBits);
+        long lastRow = deinterleave(north >>> (bits % 2), latBits);
+        long firstColumn = deinterleave(south >>> ((bits + 1) % 2), lngBits);
+        long columns = deinterleave(north >>> ((bits + 1) % 2), lngBits) - firstColumn;
+        if (columns < 0) columns += lngCells;     // The box crosses the antimeridian
+        columns = lngRadius >= 180 ? lngCells : Math.min(columns + 1, lngCells);
+
+        long[] cells = new long[(int) ((lastRow - firstRow + 1) * columns)];
+        int count = 0;
+        for (long row = firstRow; row <= lastRow; row++) {
+            for (long column = 0; column < columns; column++) {
+                cells[count++] = interleave((firstColumn + column) % lngCells, lngBits, row, latBits);
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Returns the height of the cells of a hash length.
+     *
+     * @param bits Length of the hash in bits
+     * @return Height in degrees of latitude
+     */
+    public static double cellHeightDegrees(int bits) {
+        return 180.0 / (1L << (bits / 2));
+    }
+
+    /**
+     * Returns the width of the cells of a hash length.
+     *
+     * @param bits Length of the hash in bits
+     * @return Width in degrees of longitude
+     */
+    public static double cellWidthDegrees(int bits) {
+        return 360.0 / (1L << ((bits + 1) / 2));
+    }
+
+    /**
+     * Returns the distance between two points, treating the earth as flat around them. At
+     * the scale of a city the error is far below a meter.
+     *
+     * @return The distance in meters
+     */
+    public static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double x = wrapLongitude(lng2 - lng1) * Math.cos(Math.toRadians((lat1 + lat2) / 2));
+        double y = lat2 - lat1;
+        return Math.sqrt(x * x + y * y) * METERS_PER_DEGREE;
+    }
+
+    /**
+     * Converts a distance to degrees of latitude.
+     */
+    static double metersToLatDegrees(double meters) {
+        return meters / METERS_PER_DEGREE;
+    }
+
+    /**
+     * Converts a distance to degrees of longitude at a latitude, capped at half the world.
+     */
+    static double metersToLngDegrees(double meters, double lat) {
+        double cos = Math.cos(Math.toRadians(Math.min(Math.abs(lat), 89.9)));
+        return Math.min(180, meters / (METERS_PER_DEGREE * cos));
+    }
+
+    /**
+     * Builds a hash from a cell's column and row, longitude bit first.
+     */
+    private static long interleave(long column, int lngBits, long row, int latBits) {
+        long hash = 0;
+        for (int bit = 0; bit < lngBits + latBits; bit++) {
+            hash <<= 1;
+            hash |= bit % 2 == 0
+                    ? (column >>> (lngBits - 1 - bit / 2)) & 1
+                    : (row >>> (latBits - 1 - bit / 2)) & 1;
+        }
+        return hash;
+    }
+
+    /**
+     * Collects every other bit of a hash, starting with the lowest, into a row or column.
+     */
+    private static long deinterleave(long hash, int bits) {
+        long value = 0;
+        for (int bit = 0; bit < bits; bit++) {
+            value |= ((hash >>> (2 * bit)) & 1) << bit;
+        }
+        return value;
+    }
+
+    static double wrapLongitude(double lng) {
+        if (lng >= -180 && lng < 180) return lng;
+        return ((lng + 180) % 360 + 360) % 360 - 180;
+    }
+}
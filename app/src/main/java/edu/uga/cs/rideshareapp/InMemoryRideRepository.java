@@ -0,0 +1,256 @@
+package edu.uga.cs.rideshareapp;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link RideRepository} that keeps every ride in memory.
+ *
+ * Used for tests and benchmarks that must not depend on the network. Every write is applied
+ * immediately and each subscribed query is re-evaluated against the stored rides; subscribers
+ * only hear about rides that entered, changed in or left their query. Like the Firebase
+ * implementation, subscriptions to equal queries share one result set. Not thread-safe:
+ * call it from the main thread only.
+ */
+public class InMemoryRideRepository implements RideRepository {
+
+    /** Order of a STATUS_TYPE_WINDOW, matching orderByChild(RideCodec.FIELD_STATUS_TYPE_DEPARTURE) */
+    private static final Comparator<Ride> WINDOW_ORDER = Comparator
+            .comparing((Ride ride) -> ride.statusTypeDeparture)
+            .thenComparing(Ride::getKey);
+
+    private final Map<String, Ride> rides = new HashMap<>();
+    private final Map<String, Long> points = new HashMap<>();
+    private final Map<String, String> emails = new HashMap<>();
+    private final Map<RideQuery, MemoryQuery> queries = new HashMap<>();
+    private final Map<String, List<PointsListener>> pointsListeners = new HashMap<>();
+    private long nextKey;
+
+    /**
+     * Stores a ride without touching any index, e.g. to seed a benchmark dataset.
+     *
+     * @param ride The ride to store; a key is generated if it has none
+     * @return The key of the stored ride
+     */
+    public String addRide(Ride ride) {
+        String key = ride.getKey() != null ? ride.getKey() : nextKey();
+        Ride stored = new Ride(ride);
+        stored.setKey(key);
+        rides.put(key, stored);
+        refreshQueries();
+        return key;
+    }
+
+    @Override
+    public Subscription subscribe(RideQuery query, RideSubscriber subscriber) {
+        MemoryQuery memoryQuery = queries.get(query);
+        if (memoryQuery == null) {
+            memoryQuery = new MemoryQuery(query);
+            memoryQuery.results.putAll(evaluate(query));
+            queries.put(query, memoryQuery);
+        }
+        memoryQuery.subscribers.add(subscriber);
+
+        for (Ride ride : memoryQuery.results.values()) {
+            subscriber.onRidePut(ride);
+        }
+        subscriber.onInitialLoadComplete();
+
+        MemoryQuery subscribed = memoryQuery;
+        return new Subscription() {
+            private boolean cancelled;
+
+            @Override
+            public void cancel() {
+                if (cancelled) return;
+                cancelled = true;
+                subscribed.subscribers.remove(subscriber);
+                if (subscribed.subscribers.isEmpty()) {
+                    queries.remove(query);
+                }
+            }
+        };
+    }
+
+    @Override
+    public Subscription observePoints(String uid, PointsListener listener) {
+        List<PointsListener> listeners = pointsListeners.get(uid);
+        if (listeners == null) {
+            listeners = new ArrayList<>();
+            pointsListeners.put(uid, listeners);
+        }
+        listeners.add(listener);
+        listener.onPointsChanged(getPoints(uid));
+
+        List<PointsListener> subscribed = listeners;
+        return () -> subscribed.remove(listener);
+    }
+
+    @Override
+    public Task<Void> setPoints(String uid, long amount) {
+        points.put(uid, amount);
+        notifyPoints(uid);
+        return Tasks.forResult(null);
+    }
+
+    @Override
+    public Task<Void> saveProfile(String uid, String email) {
+        emails.put(uid, email);
+        return Tasks.forResult(null);
+    }
+
+    @Override
+    public Task<Void> saveRide(String rideKey, String posterUid, Ride ride) {
+        Ride stored = new Ride(ride);
+        stored.setKey(rideKey != null ? rideKey : nextKey());
+        rides.put(stored.getKey(), stored);
+        refreshQueries();
+        return Tasks.forResult(null);
+    }
+
+    @Override
+    public Task<Void> deleteRide(String rideKey, String posterUid) {
+        rides.remove(rideKey);
+        refreshQueries();
+        return Tasks.forResult(null);
+    }
+
+    @Override
+    public Task<AcceptResult> acceptRide(String rideKey, String uid) {
+        Ride current = rides.get(rideKey);
+        if (current == null || current.accepted) {
+            return Tasks.forResult(AcceptResult.ALREADY_TAKEN);
+        }
+
+        Ride accepted = new Ride(current);
+        if ("offer".equals(current.rideType)) {
+            accepted.riderId = uid;
+        } else {
+            accepted.driverId = uid;
+        }
+        accepted.accepted = true;
+        accepted.updateQueryKeys();
+        rides.put(rideKey, accepted);
+        refreshQueries();
+        return Tasks.forResult(AcceptResult.ACCEPTED);
+    }
+
+    @Override
+    public Task<Ride> confirmRide(String rideKey, boolean asDriver) {
+        Ride current = rides.get(rideKey);
+        if (current == null) return Tasks.forResult(null);
+
+        Ride confirmed = new Ride(current);
+        if (asDriver) {
+            confirmed.driverConfirmed = true;
+        } else {
+            confirmed.riderConfirmed = true;
+        }
+        rides.put(rideKey, confirmed);
+        refreshQueries();
+        return Tasks.forResult(new Ride(confirmed));
+    }
+
+    @Override
+    public Task<Void> finalizeRide(Ride ride) {
+        if (rides.remove(ride.getKey()) == null) {
+            // Already finalized by the other user
+            return Tasks.forException(new IllegalStateException("Ride already completed"));
+        }
+
+        points.put(ride.driverId, getPoints(ride.driverId) + RIDE_POINTS);
+        points.put(ride.riderId, getPoints(ride.riderId) - RIDE_POINTS);
+        refreshQueries();
+        notifyPoints(ride.driverId);
+        notifyPoints(ride.riderId);
+        return Tasks.forResult(null);
+    }
+
+    private String nextKey() {
+        return String.format("mem-%019d", nextKey++);
+    }
+
+    private long getPoints(String uid) {
+        Long amount = points.get(uid);
+        return amount != null ? amount : 0;
+    }
+
+    private void notifyPoints(String uid) {
+        List<PointsListener> listeners = pointsListeners.get(uid);
+        if (listeners == null) return;
+        for (PointsListener listener : new ArrayList<>(listeners)) {
+            listener.onPointsChanged(getPoints(uid));
+        }
+    }
+
+    /**
+     * Returns the rides currently matching a query, in window order and limited for windows.
+     *
+     * @param query The query to evaluate
+     * @return Matching rides by key
+     */
+    private Map<String, Ride> evaluate(RideQuery query) {
+        List<Ride> matching = new ArrayList<>();
+        for (Ride ride : rides.values()) {
+            if (query.matches(ride)) matching.add(ride);
+        }
+
+        if (query.kind == RideQuery.Kind.STATUS_TYPE_WINDOW) {
+            matching.sort(WINDOW_ORDER);
+            if (matching.size() > query.limit) {
+                matching = matching.subList(0, query.limit);
+            }
+        }
+
+        Map<String, Ride> result = new LinkedHashMap<>();
+        for (Ride ride : matching) {
+            result.put(ride.getKey(), ride);
+        }
+        return result;
+    }
+
+    /**
+     * Re-evaluates every subscribed query and sends each subscriber only the differences.
+     */
+    private void refreshQueries() {
+        for (MemoryQuery memoryQuery : new ArrayList<>(queries.values())) {
+            Map<String, Ride> previous = memoryQuery.results;
+            Map<String, Ride> current = evaluate(memoryQuery.query);
+            memoryQuery.results = current;
+
+            for (String key : previous.keySet()) {
+                if (current.containsKey(key)) continue;
+                for (RideSubscriber subscriber : new ArrayList<>(memoryQuery.subscribers)) {
+                    subscriber.onRideRemoved(key);
+                }
+            }
+            for (Ride ride : current.values()) {
+                Ride before = previous.get(ride.getKey());
+                if (before != null && before.hasSameContent(ride)) continue;
+                for (RideSubscriber subscriber : new ArrayList<>(memoryQuery.subscribers)) {
+                    subscriber.onRidePut(ride);
+                }
+            }
+        }
+    }
+
+    /**
+     * Result set shared by every subscriber to an equal query.
+     */
+    private static class MemoryQuery {
+        final RideQuery query;
+        final List<RideSubscriber> subscribers = new ArrayList<>();
+        Map<String, Ride> results = new LinkedHashMap<>();
+
+        MemoryQuery(RideQuery query) {
+            this.query = query;
+        }
+    }
+}
@@ -27,6 +27,7 @@ import com.google.firebase.auth.FirebaseAuthUserCollisionException;
 /**
  * Activity for user login using Firebase Authentication.
  * Provides input validation, login logic, and links to registration.
+ * Users who are still signed in go straight to the dashboard.
  */
 public class LoginActivity extends AppCompatActivity {
 
@@ -43,6 +44,14 @@ public class LoginActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+
+        // A persisted session skips the login form, so a cold start inflates only the dashboard
+        if (UserSession.current() != null) {
+            startActivity(new Intent(this, MainActivity.class));
+            finish();
+            return;
+        }
+
         EdgeToEdge.enable(this);
         setContentView(R.layout.activity_login);
         ViewCompat.setOnApplyWindowInsetsListener(findViewById(R.id.main), (v, insets) -> {
@@ -102,6 +111,9 @@ public class LoginActivity extends AppCompatActivity {
                     public void onComplete(@NonNull Task<AuthResult> task) {
                         if (task.isSuccessful()) {
                             Log.d( TAG, "Login successful" );
+
+                            // Accounts created before profiles held the email get it on login
+                            RideRepositories.get().saveProfile(mAuth.getCurrentUser().getUid(), email);
                             startActivity(new Intent(LoginActivity.this, MainActivity.class));
                             finish();
                         }
@@ -14,20 +14,11 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
-
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
 
 /**
  * The main dashboard activity for the RideShare app.
@@ -38,16 +29,14 @@ public class MainActivity extends AppCompatActivity {
     private FirebaseAuth mAuth;
     private RecyclerView activeRidesRecyclerView;
     private ActiveRideAdapter activeRideAdapter;
-    private List<Ride> activeRideList;
-    private List<String> activeRideKeys;
-    private DatabaseReference databaseRef;
-    private FirebaseUser currentUser;
+    private MainViewModel viewModel;
+    private UserSession currentUser;
 
     private TextView pointsTextView;
 
-    private DatabaseReference userRef;
-    private ValueEventListener pointsListener;
     private int scrollPosition = 0;
+    private boolean fullyDrawnReported;
+    private long loadStartNanos;
 
     /**
      * Called when the activity is first created. Initializes UI and listeners.
@@ -74,26 +63,26 @@ public class MainActivity extends AppCompatActivity {
         activeRidesRecyclerView = findViewById(R.id.activeRidesRecyclerView);
         activeRidesRecyclerView.setHasFixedSize(true);
         activeRidesRecyclerView.setLayoutManager(new LinearLayoutManager(this));
+        activeRidesRecyclerView.setRecycledViewPool(RideViewPool.get());
 
-        activeRideList = new ArrayList<>();
-        activeRideKeys = new ArrayList<>();
-
-        activeRideAdapter = new ActiveRideAdapter(activeRideList, activeRideKeys);
+        // The view model keeps the rides and points subscriptions across rotations
+        viewModel = new ViewModelProvider(this).get(MainViewModel.class);
+        activeRideAdapter = new ActiveRideAdapter(viewModel.getRepository());
         activeRidesRecyclerView.setAdapter(activeRideAdapter);
 
-        currentUser = FirebaseAuth.getInstance().getCurrentUser();
-        databaseRef = FirebaseDatabase.getInstance().getReference("rides");
+        // Inflate rows for this list and the posts screens while the dashboard sits idle
+        RideViewPool.get().preInflate(activeRidesRecyclerView, R.layout.active_ride_item, 4);
+        RideViewPool.get().preInflate(activeRidesRecyclerView, R.layout.ride_item_layout, 8);
 
         pointsTextView = findViewById(R.id.pointsTextView);
-        currentUser = FirebaseAuth.getInstance().getCurrentUser();
+        currentUser = UserSession.current();
 
         if (currentUser != null) {
-            userRef = FirebaseDatabase.getInstance().getReference("users").child(currentUser.getUid()).child("points");
+            viewModel.start(currentUser.uid);
             setupPointsListener();
+            loadActiveRides();
         }
 
-        loadActiveRides();
-
         // Navigates to logout confirmation dialog
         logoutButton.setOnClickListener(new View.OnClickListener() {
             @Override
@@ -131,68 +120,36 @@ public class MainActivity extends AppCompatActivity {
     }
 
     /**
-     * Loads all active rides from Firebase where the current user is a driver or rider.
-     * Only unconfirmed rides are shown.
+     * Shows the current user's active rides, loaded through their ride index.
+     * Only accepted, unconfirmed rides are shown.
      */
     private void loadActiveRides() {
-        if (currentUser == null) return;
-
-        databaseRef.orderByChild("accepted").equalTo(true)
-                .addValueEventListener(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        activeRideList.clear();
-                        activeRideKeys.clear();
-
-                        for (DataSnapshot postSnapshot : snapshot.getChildren()) {
-                            Ride ride = postSnapshot.getValue(Ride.class);
-
-                            if (ride != null) {
-                                // Only show rides where current user is involved
-                                if ((ride.driverId != null && ride.driverId.equals(currentUser.getUid())) ||
-                                        (ride.riderId != null && ride.riderId.equals(currentUser.getUid()))) {
-
-                                    if (!(ride.driverConfirmed && ride.riderConfirmed)) {
-                                        ride.setKey(postSnapshot.getKey());
-                                        activeRideList.add(ride);
-                                        activeRideKeys.add(postSnapshot.getKey());
-                                    }
-                                }
-                            }
-                        }
-
-                        // Sort rides chronologically
-                        Collections.sort(activeRideList, (ride1, ride2) -> ride1.dateTime.compareTo(ride2.dateTime));
-
-                        activeRideAdapter.notifyDataSetChanged();
-                    }
+        loadStartNanos = System.nanoTime();
+        RideStream activeRides = viewModel.getActiveRides();
+        viewModel.getActiveRideRows().observe(this, rows ->
+                activeRideAdapter.submitList(rows, this::onActiveRidesShown));
+        activeRides.getErrors().observe(this, message ->
+                Toast.makeText(MainActivity.this, "Failed to load active rides.", Toast.LENGTH_SHORT).show());
+    }
 
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {
-                        Toast.makeText(MainActivity.this, "Failed to load active rides.", Toast.LENGTH_SHORT).show();
-                    }
-                });
+    /**
+     * Reports the dashboard fully drawn once the complete list of active rides is on screen,
+     * which is where startup benchmarks stop the clock, and records how long that took.
+     */
+    private void onActiveRidesShown() {
+        if (fullyDrawnReported || !viewModel.getActiveRides().isLoaded()) return;
+        fullyDrawnReported = true;
+        RideMetrics.get().stopTimer("screen.activeRides.load", loadStartNanos);
+        reportFullyDrawn();
     }
 
     /**
-     * Sets up a listener to update the user's point display in real-time.
+     * Updates the user's point display in real-time.
      */
     private void setupPointsListener() {
-        pointsListener = userRef.addValueEventListener(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                if (snapshot.exists()) {
-                    Long points = snapshot.getValue(Long.class);
-                    pointsTextView.setText("Points: " + (points != null ? points : 0));
-                } else {
-                    pointsTextView.setText("Points: 0");
-                }
-            }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                pointsTextView.setText("Points: Error");
-            }
+        viewModel.getPoints().observe(this, points -> pointsTextView.setText("Points: " + points));
+        viewModel.getPointsError().observe(this, error -> {
+            if (error) pointsTextView.setText("Points: Error");
         });
     }
 
@@ -230,8 +187,7 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onStart() {
         super.onStart();
-        FirebaseAuth mAuth = FirebaseAuth.getInstance();
-        if (mAuth.getCurrentUser() == null) {
+        if (UserSession.current() == null) {
             // User is not logged in, redirect to login page
             Intent intent = new Intent(MainActivity.this, LoginActivity.class);
             intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_NEW_TASK);
@@ -265,14 +221,12 @@ public class MainActivity extends AppCompatActivity {
     }
 
     /**
-     * Cleans up Firebase listeners to avoid memory leaks.
+     * Drops the list item views this screen left in the shared pool.
      */
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (userRef != null && pointsListener != null) {
-            userRef.removeEventListener(pointsListener);
-        }
+        RideViewPool.get().release(this);
     }
 
-}
\ No newline at end of file
+}
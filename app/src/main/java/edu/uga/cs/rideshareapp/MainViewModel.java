@@ -0,0 +1,98 @@
+package edu.uga.cs.rideshareapp;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.ViewModel;
+
+import java.util.List;
+
+/**
+ * Holds the dashboard's active rides and point balance across configuration changes.
+ */
+public class MainViewModel extends ViewModel {
+
+    private final RideRepository repository = RideRepositories.get();
+    private final MutableLiveData<Long> points = new MutableLiveData<>();
+    private final MutableLiveData<Boolean> pointsError = new MutableLiveData<>();
+
+    // Only accepted rides that have not been confirmed by both users, in chronological order
+    private final RideStream activeRides = new RideStream(
+            new RideFeed(RideFeeds.BY_DEPARTURE, RideFeeds.ACTIVE), null);
+    private final RideRow.Mapper rowMapper = new RideRow.Mapper();
+    private final LiveData<List<RideRow>> activeRideRows = rowMapper.map(activeRides);
+
+    private String uid;
+    private RideRepository.Subscription pointsSubscription;
+
+    /**
+     * Starts loading the given user's data. Later calls for the same user do nothing,
+     * so a recreated activity attaches to the streams that are already running.
+     *
+     * @param uid The Firebase UID of the signed-in user
+     */
+    public void start(String uid) {
+        if (uid.equals(this.uid)) return;
+        this.uid = uid;
+        rowMapper.setUid(uid);
+
+        activeRides.setSource(subscriber ->
+                repository.subscribe(RideQuery.userRides(uid), subscriber));
+
+        if (pointsSubscription != null) pointsSubscription.cancel();
+        pointsSubscription = repository.observePoints(uid, new RideRepository.PointsListener() {
+            @Override
+            public void onPointsChanged(long balance) {
+                pointsError.setValue(false);
+                points.setValue(balance);
+            }
+
+            @Override
+            public void onError(String message) {
+                pointsError.setValue(true);
+            }
+        });
+    }
+
+    /**
+     * @return The user's active rides
+     */
+    public RideStream getActiveRides() {
+        return activeRides;
+    }
+
+    /**
+     * @return The user's active rides as rows with roles and point deltas already derived
+     */
+    public LiveData<List<RideRow>> getActiveRideRows() {
+        return activeRideRows;
+    }
+
+    /**
+     * @return The user's point balance
+     */
+    public LiveData<Long> getPoints() {
+        return points;
+    }
+
+    /**
+     * @return True while the point balance cannot be read
+     */
+    public LiveData<Boolean> getPointsError() {
+        return pointsError;
+    }
+
+    /**
+     * @return The repository the dashboard's adapter writes through
+     */
+    public RideRepository getRepository() {
+        return repository;
+    }
+
+    @Override
+    protected void onCleared() {
+        activeRides.close();
+        if (pointsSubscription != null) {
+            pointsSubscription.cancel();
+        }
+    }
+}
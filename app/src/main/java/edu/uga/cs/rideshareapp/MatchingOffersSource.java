@@ -0,0 +1,242 @@
+package edu.uga.cs.rideshareapp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Source of the open offers that best suit the user's own open requests, for a
+ * {@link RideStream}.
+ *
+ * The source subscribes to the user's open requests and, for each request with coordinates,
+ * to the open offers starting near its pickup on the days its time window spans, through a
+ * {@link NearbyRideSource}. Those offers are indexed in a {@link RideMatcher}, and only the
+ * few best matches of each request reach the feed; they are recomputed whenever a request or
+ * one of its offers changes. Callbacks are expected on the main thread, as every repository
+ * delivers them.
+ */
+public class MatchingOffersSource implements RideStream.Source {
+
+    private final RideRepository repository;
+    private final String uid;
+    private final double radiusMeters;
+    private final long windowMillis;
+    private final int matchesPerRequest;
+
+    /**
+     * Creates a source for the offers matching a user's requests.
+     *
+     * @param repository        Repository serving the requests and the offers
+     * @param uid               The Firebase UID of the user whose requests are matched
+     * @param radiusMeters      How far an offer's pickup and drop-off may be from the request's
+     * @param windowMillis      How far an offer's departure may be from the request's, either way
+     * @param matchesPerRequest The most offers shown for each request
+     */
+    public MatchingOffersSource(RideRepository repository, String uid, double radiusMeters,
+                                long windowMillis, int matchesPerRequest) {
+        this.repository = repository;
+        this.uid = uid;
+        this.radiusMeters = radiusMeters;
+        this.windowMillis = windowMillis;
+        this.matchesPerRequest = matchesPerRequest;
+    }
+
+    @Override
+    public RideRepository.Subscription start(RideRepository.RideSubscriber subscriber) {
+        Matching matching = new Matching(subscriber);
+        RideRepository.Subscription requests = repository.subscribe(
+                RideQuery.postedBy(uid, Ride.statusType(false, "request")), matching);
+
+        return () -> {
+            requests.cancel();
+            matching.cancel();
+        };
+    }
+
+    /**
+     * Follows the user's requests, opening and closing the offer subscriptions of each, and
+     * passes the best matches on to the stream's subscriber.
+     */
+    private class Matching implements RideRepository.RideSubscriber {
+
+        private final RideRepository.RideSubscriber subscriber;
+        private final RideMatcher matcher = new RideMatcher(radiusMeters, windowMillis);
+        private final Map<String, Ride> requests = new HashMap<>();
+        private final Map<String, OfferSubscriber> requestOffers = new HashMap<>();
+
+        // How many requests' subscriptions hold each offer, so an offer leaving one request's
+        // area stays indexed while another's still has it
+        private final Map<String, Integer> offerHolders = new HashMap<>();
+
+        private final Map<String, Ride> shown = new HashMap<>();
+        private boolean requestsLoaded;
+        private boolean loaded;
+        private boolean cancelled;
+
+        Matching(RideRepository.RideSubscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void onRidePut(Ride request) {
+            Ride previous = requests.put(request.getKey(), request);
+            if (previous == null || !sameArea(previous, request)) {
+                stopOffers(request.getKey());
+                startOffers(request);
+            }
+            refresh();
+        }
+
+        @Override
+        public void onRideRemoved(String rideKey) {
+            requests.remove(rideKey);
+            stopOffers(rideKey);
+            refresh();
+        }
+
+        @Override
+        public void onInitialLoadComplete() {
+            requestsLoaded = true;
+            checkLoaded();
+        }
+
+        @Override
+        public void onError(String message) {
+            subscriber.onError(message);
+        }
+
+        void cancel() {
+            cancelled = true;
+            for (OfferSubscriber offers : requestOffers.values()) {
+                offers.subscription.cancel();
+            }
+            requestOffers.clear();
+        }
+
+        /**
+         * Subscribes to the offers that can match a request: those starting within the radius
+         * of its pickup, on the days from now or the start of its window to the end of it.
+         */
+        private void startOffers(Ride request) {
+            if (!request.hasCoordinates()) return;
+            long fromMillis = Math.max(System.currentTimeMillis(), request.departureEpochMillis - windowMillis);
+            long toMillis = request.departureEpochMillis + windowMillis;
+            if (toMillis < fromMillis) return;
+            int days = (int) (toMillis / RideDates.DAY_MILLIS - fromMillis / RideDates.DAY_MILLIS) + 1;
+
+            OfferSubscriber offers = new OfferSubscriber();
+            requestOffers.put(request.getKey(), offers);
+            offers.subscription = new NearbyRideSource(repository, Ride.statusType(false, "offer"),
+                    request.fromLat, request.fromLng, radiusMeters, fromMillis, days).start(offers);
+        }
+
+        private void stopOffers(String requestKey) {
+            OfferSubscriber offers = requestOffers.remove(requestKey);
+            if (offers == null) return;
+            offers.subscription.cancel();
+            for (String offerKey : offers.held) release(offerKey);
+            checkLoaded();
+        }
+
+        private void release(String offerKey) {
+            int holders = offerHolders.get(offerKey) - 1;
+            if (holders > 0) {
+                offerHolders.put(offerKey, holders);
+            } else {
+                offerHolders.remove(offerKey);
+                matcher.remove(offerKey);
+            }
+        }
+
+        /**
+         * Completes the initial load once the requests and the offers of each have loaded.
+         */
+        private void checkLoaded() {
+            if (loaded || !requestsLoaded) return;
+            for (OfferSubscriber offers : requestOffers.values()) {
+                if (!offers.loaded) return;
+            }
+            loaded = true;
+            refresh();
+            subscriber.onInitialLoadComplete();
+        }
+
+        /**
+         * Matches every request again and passes on the offers entering, changing in or
+         * leaving the best matches.
+         */
+        private void refresh() {
+            if (cancelled || !requestsLoaded) return;
+
+            Map<String, Ride> best = new HashMap<>();
+            for (Ride request : requests.values()) {
+                for (RideMatcher.Match match : matcher.match(request, matchesPerRequest)) {
+                    best.put(match.offer.getKey(), match.offer);
+                }
+            }
+
+            for (String offerKey : new ArrayList<>(shown.keySet())) {
+                if (best.containsKey(offerKey)) continue;
+                shown.remove(offerKey);
+                subscriber.onRideRemoved(offerKey);
+            }
+            for (Ride offer : best.values()) {
+                if (shown.put(offer.getKey(), offer) != offer) subscriber.onRidePut(offer);
+            }
+        }
+
+        /**
+         * Tells whether two versions of a request need the same offers, i.e. only fields the
+         * match scores changed, not where and when offers are looked for.
+         */
+        private boolean sameArea(Ride previous, Ride request) {
+            return previous.fromLat == request.fromLat && previous.fromLng == request.fromLng
+                    && previous.departureEpochMillis == request.departureEpochMillis;
+        }
+
+        /**
+         * Indexes the offers around one request. Rides the area source reports removed that
+         * it never put, e.g. offers outside the radius in a covering cell, are ignored.
+         */
+        private class OfferSubscriber implements RideRepository.RideSubscriber {
+
+            final Set<String> held = new HashSet<>();
+            RideRepository.Subscription subscription;
+            boolean loaded;
+
+            @Override
+            public void onRidePut(Ride offer) {
+                if (cancelled) return;
+                if (held.add(offer.getKey())) offerHolders.merge(offer.getKey(), 1, Integer::sum);
+                matcher.put(offer);
+                // The initial load is matched once, when complete
+                if (loaded) refresh();
+            }
+
+            @Override
+            public void onRideRemoved(String rideKey) {
+                if (cancelled || !held.remove(rideKey)) return;
+                release(rideKey);
+                refresh();
+            }
+
+            @Override
+            public void onInitialLoadComplete() {
+                if (cancelled || loaded) return;
+                loaded = true;
+                if (Matching.this.loaded) {
+                    refresh();
+                } else {
+                    checkLoaded();
+                }
+            }
+
+            @Override
+            public void onError(String message) {
+                subscriber.onError(message);
+            }
+        }
+    }
+}
@@ -12,20 +12,10 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
-
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Activity to display a user's own ride posts (either offers or requests) that haven't been accepted yet.
  * Allows toggling between offer/request views and returning to the main dashboard.
@@ -34,13 +24,11 @@ public class MyPostsActivity extends AppCompatActivity {
 
     private RecyclerView myPostsRecyclerView;
     private RidePostAdapter adapter;
-    private List<Ride> rideList;
-    private List<String> rideKeys;
+    private MyPostsViewModel viewModel;
 
     private TextView currentListHeader;
 
-    private DatabaseReference databaseRef;
-    private FirebaseUser currentUser;
+    private UserSession currentUser;
     private int scrollPosition = 0;
 
     // Tracks whether the user is viewing their offers or requests
@@ -69,16 +57,20 @@ public class MyPostsActivity extends AppCompatActivity {
         currentListHeader       = findViewById(R.id.currentListHeader);
         Button homeButton       = findViewById(R.id.homeButton);
 
+        viewModel   = new ViewModelProvider(this).get(MyPostsViewModel.class);
+        currentUser = UserSession.current();
+
+        // The view model keeps the posts and their subscription across rotations
         myPostsRecyclerView.setLayoutManager(new LinearLayoutManager(this));
-        rideList = new ArrayList<>();
-        rideKeys = new ArrayList<>();
-        adapter = new RidePostAdapter(rideList, rideKeys, "MY_POSTS");
+        myPostsRecyclerView.setRecycledViewPool(RideViewPool.get());
+        adapter = new RidePostAdapter("MY_POSTS", viewModel.getRepository());
         myPostsRecyclerView.setAdapter(adapter);
 
-        databaseRef = FirebaseDatabase.getInstance().getReference("rides");
-        currentUser = FirebaseAuth.getInstance().getCurrentUser();
-
+        if (viewModel.getMode() != null) {
+            currentMode = viewModel.getMode();
+        }
         loadMyPosts();
+        viewModel.getPostRows().observe(this, adapter::submitList);
 
         // Show user's unaccepted ride offers
         myOffersButton.setOnClickListener(v -> {
@@ -100,56 +92,14 @@ public class MyPostsActivity extends AppCompatActivity {
         });
     }
 
-    /**
-     * Reloads the current list of unaccepted posts when returning to the activity.
-     */
-    @Override
-    protected void onResume() {
-        super.onResume();
-        loadMyPosts();  // refresh whenever the user returns
-    }
-
     /**
      * Loads unaccepted ride offers or requests (based on currentMode) created by the current user.
-     * Populates the adapter with results from Firebase.
+     * Switching mode replaces the subscription; reloading the mode already shown
+     * (e.g. after a rotation) keeps the running one.
      */
     private void loadMyPosts() {
         if (currentUser == null) return;
-
-        // clear both lists before re-fetching
-        rideList.clear();
-        rideKeys.clear();
-
-        databaseRef
-                .orderByChild("accepted")
-                .equalTo(false)
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        for (DataSnapshot postSnapshot : snapshot.getChildren()) {
-                            Ride ride = postSnapshot.getValue(Ride.class);
-                            if (ride == null) continue;
-
-                            String uid = currentUser.getUid();
-                            if (currentMode.equals("offer")
-                                    && ride.driverId != null
-                                    && ride.driverId.equals(uid)) {
-                                rideList.add(ride);
-                                rideKeys.add(postSnapshot.getKey());
-                            }
-                            if (currentMode.equals("request")
-                                    && ride.riderId != null
-                                    && ride.riderId.equals(uid)) {
-                                rideList.add(ride);
-                                rideKeys.add(postSnapshot.getKey());
-                            }
-                        }
-                        adapter.notifyDataSetChanged();
-                    }
-
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) { }
-                });
+        viewModel.show(currentUser.uid, currentMode);
     }
 
     /**
@@ -188,4 +138,13 @@ public class MyPostsActivity extends AppCompatActivity {
         scrollPosition = savedInstanceState.getInt("scrollPosition", 0);
         myPostsRecyclerView.scrollToPosition(scrollPosition);
     }
+
+    /**
+     * Drops the list item views this screen left in the shared pool.
+     */
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        RideViewPool.get().release(this);
+    }
 }
@@ -0,0 +1,72 @@
+package edu.uga.cs.rideshareapp;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.ViewModel;
+
+import java.util.List;
+
+/**
+ * Holds the user's own open offers or requests across configuration changes, so rotating
+ * the screen keeps the running subscription instead of loading the posts again.
+ */
+public class MyPostsViewModel extends ViewModel {
+
+    private final RideRepository repository = RideRepositories.get();
+
+    // The query already selects exactly the rides shown, in departure order
+    private final RideStream posts = new RideStream(
+            new RideFeed(RideFeeds.BY_DEPARTURE, RideFeeds.ALL), null);
+    private final LiveData<List<RideRow>> postRows = new RideRow.Mapper().map(posts);
+
+    private String uid;
+    private String mode;
+
+    /**
+     * Shows the given user's open rides of one type. Switching to the mode already shown does nothing.
+     *
+     * @param uid  The Firebase UID of the signed-in user
+     * @param mode "offer" or "request"
+     */
+    public void show(String uid, String mode) {
+        if (uid.equals(this.uid) && mode.equals(this.mode)) return;
+        this.uid = uid;
+        this.mode = mode;
+
+        // Only this user's open offers or requests, e.g. "{uid}_open_offer"
+        RideQuery query = RideQuery.postedBy(uid, Ride.statusType(false, mode));
+        posts.setSource(subscriber -> repository.subscribe(query, subscriber));
+    }
+
+    /**
+     * @return The mode currently shown, or null before {@link #show(String, String)}
+     */
+    public String getMode() {
+        return mode;
+    }
+
+    /**
+     * @return The user's open rides in the current mode
+     */
+    public RideStream getPosts() {
+        return posts;
+    }
+
+    /**
+     * @return The user's open rides in the current mode, as display rows
+     */
+    public LiveData<List<RideRow>> getPostRows() {
+        return postRows;
+    }
+
+    /**
+     * @return The repository the screen's adapter writes through
+     */
+    public RideRepository getRepository() {
+        return repository;
+    }
+
+    @Override
+    protected void onCleared() {
+        posts.close();
+    }
+}
@@ -0,0 +1,152 @@
+package edu.uga.cs.rideshareapp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Source of the open rides starting within a radius of a point in the next few days, for a
+ * {@link RideStream}.
+ *
+ * Rides are selected on the server by the geohash cell in their statusTypeCell key, within
+ * the openRides partitions of the days shown: the source subscribes to one STATUS_TYPE_CELL
+ * query per cell covering the radius and day, so what is downloaded grows with the number
+ * of upcoming rides nearby, not with the whole marketplace or its history. Cells reach past
+ * the radius and days past the start time, so rides outside either are dropped before they
+ * reach the feed, and so is any copy that reads as accepted. Callbacks are expected on the
+ * main thread, as every repository delivers them.
+ */
+public class NearbyRideSource implements RideStream.Source {
+
+    /** Most cells subscribed to per day; the finest cells that stay under this are used */
+    private static final int MAX_CELLS = 9;
+
+    private final RideRepository repository;
+    private final double lat;
+    private final double lng;
+    private final double radiusMeters;
+    private final long fromMillis;
+    private final List<RideQuery> queries = new ArrayList<>();
+
+    /**
+     * Creates a source for rides around a point.
+     *
+     * @param repository   Repository serving the cell queries
+     * @param statusType   The status_type key, e.g. "open_offer"
+     * @param lat          Latitude of the point in degrees
+     * @param lng          Longitude of the point in degrees
+     * @param radiusMeters How far from the point a ride may start
+     * @param days         How many day partitions to read, starting with today's
+     */
+    public NearbyRideSource(RideRepository repository, String statusType,
+                            double lat, double lng, double radiusMeters, int days) {
+        this(repository, statusType, lat, lng, radiusMeters, System.currentTimeMillis(), days);
+    }
+
+    /**
+     * Creates a source for rides around a point departing from a given time on.
+     *
+     * @param repository   Repository serving the cell queries
+     * @param statusType   The status_type key, e.g. "open_offer"
+     * @param lat          Latitude of the point in degrees
+     * @param lng          Longitude of the point in degrees
+     * @param radiusMeters How far from the point a ride may start
+     * @param fromMillis   Earliest departure, in epoch millis
+     * @param days         How many day partitions to read, starting with the one holding fromMillis
+     */
+    public NearbyRideSource(RideRepository repository, String statusType,
+                            double lat, double lng, double radiusMeters, long fromMillis, int days) {
+        this.repository = repository;
+        this.lat = lat;
+        this.lng = lng;
+        this.radiusMeters = radiusMeters;
+        this.fromMillis = fromMillis;
+
+        long[] cells;
+        int length = Ride.CELL_LENGTH;
+        while (true) {
+            cells = GeoHash.cellsCovering(lat, lng, radiusMeters, length * 5);
+            if (cells.length <= MAX_CELLS || length == 1) break;
+            length--;
+        }
+
+        for (String day : RideDates.dayKeys(fromMillis, days)) {
+            for (long cell : cells) {
+                queries.add(RideQuery.statusTypeCell(statusType, GeoHash.toBase32(cell, length), day));
+            }
+        }
+    }
+
+    @Override
+    public RideRepository.Subscription start(RideRepository.RideSubscriber subscriber) {
+        Map<String, RideQuery> rideCells = new HashMap<>();
+        int[] pendingCells = { queries.size() };
+        List<RideRepository.Subscription> subscriptions = new ArrayList<>();
+        for (RideQuery query : queries) {
+            subscriptions.add(repository.subscribe(query,
+                    new CellSubscriber(query, subscriber, rideCells, pendingCells)));
+        }
+
+        return () -> {
+            for (RideRepository.Subscription subscription : subscriptions) {
+                subscription.cancel();
+            }
+        };
+    }
+
+    /**
+     * Passes one cell's rides on to the stream's subscriber. The cells share the map of
+     * which cell each ride was last put by, so when a ride moves between cells the old
+     * cell's removal is ignored whichever of the two queries reports first, and a count of
+     * the cells still loading, so the initial load completes once every cell has loaded.
+     */
+    private class CellSubscriber implements RideRepository.RideSubscriber {
+
+        private final RideQuery cell;
+        private final RideRepository.RideSubscriber subscriber;
+        private final Map<String, RideQuery> rideCells;
+        private final int[] pendingCells;
+        private boolean loaded;
+
+        CellSubscriber(RideQuery cell, RideRepository.RideSubscriber subscriber,
+                       Map<String, RideQuery> rideCells, int[] pendingCells) {
+            this.cell = cell;
+            this.subscriber = subscriber;
+            this.rideCells = rideCells;
+            this.pendingCells = pendingCells;
+        }
+
+        @Override
+        public void onRidePut(Ride ride) {
+            rideCells.put(ride.getKey(), cell);
+            if (!ride.accepted && ride.departureEpochMillis >= fromMillis
+                    && GeoHash.distanceMeters(lat, lng, ride.fromLat, ride.fromLng) <= radiusMeters) {
+                subscriber.onRidePut(ride);
+            } else {
+                // The ride may have moved out of the radius within its cell, departed earlier
+                // today, or been accepted
+                subscriber.onRideRemoved(ride.getKey());
+            }
+        }
+
+        @Override
+        public void onRideRemoved(String rideKey) {
+            if (rideCells.get(rideKey) != cell) return;
+            rideCells.remove(rideKey);
+            subscriber.onRideRemoved(rideKey);
+        }
+
+        @Override
+        public void onInitialLoadComplete() {
+            if (loaded) return;
+            loaded = true;
+            if (--pendingCells[0] == 0) subscriber.onInitialLoadComplete();
+        }
+
+        @Override
+        public void onError(String message) {
+            subscriber.onError(message);
+        }
+    }
+}
@@ -1,47 +1,54 @@
 package edu.uga.cs.rideshareapp;
 
+import android.Manifest;
+import android.annotation.SuppressLint;
 import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.location.Location;
+import android.location.LocationManager;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.View;
 import android.widget.Button;
+import android.widget.CheckBox;
+import android.widget.EditText;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.activity.EdgeToEdge;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.app.ActivityCompat;
+import androidx.core.content.ContextCompat;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
-
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Activity that allows the user to view unaccepted ride offers and requests
  * posted by other users. The user can toggle between viewing offers and requests,
- * and navigate back to the home screen.
+ * and navigate back to the home screen. Rides can be limited to those starting near the
+ * user, which loads only the rides around them instead of paging through all of them,
+ * and searched by the places they go from and to. Offers can also be limited to those
+ * matching the user's own requests.
  */
 public class OthersPostsActivity extends AppCompatActivity {
 
+    private static final int LOCATION_PERMISSION_REQUEST = 1;
+
     private RecyclerView othersPostsRecyclerView;
     private RidePostAdapter adapter;
-    private List<Ride> rideList;
-    private List<String> rideKeys;
+    private OthersPostsViewModel viewModel;
 
     private TextView currentListHeader;
+    private CheckBox nearbyCheckBox;
+    private CheckBox matchCheckBox;
 
-    private DatabaseReference databaseRef;
-    private FirebaseUser currentUser;
+    private UserSession currentUser;
 
     // Current mode: "offer" shows others' offers, "request" shows others' requests
     private String currentMode = "offer"; // "offer" or "request"
@@ -68,17 +75,64 @@ public class OthersPostsActivity extends AppCompatActivity {
         Button othersRequestsButton = findViewById(R.id.othersRequestsButton);
         currentListHeader = findViewById(R.id.currentListHeader);
         Button homeButton = findViewById(R.id.homeButton);
+        nearbyCheckBox = findViewById(R.id.nearbyCheckBox);
+        matchCheckBox = findViewById(R.id.matchCheckBox);
+        EditText searchInput = findViewById(R.id.searchInput);
 
+        viewModel   = new ViewModelProvider(this).get(OthersPostsViewModel.class);
+        currentUser = UserSession.current();
+
+        // The view model keeps the rides and the pager across rotations
         othersPostsRecyclerView.setLayoutManager(new LinearLayoutManager(this));
-        rideList = new ArrayList<>();
-        rideKeys = new ArrayList<>();
-        adapter = new RidePostAdapter(rideList, rideKeys,"OTHERS_POSTS"); // mode
+        othersPostsRecyclerView.setRecycledViewPool(RideViewPool.get());
+        adapter = new RidePostAdapter("OTHERS_POSTS", viewModel.getRepository()); // mode
+
+        // Drop rides another user accepted first without reloading the list
+        adapter.setOnRideTakenListener(viewModel::onRideTaken);
         othersPostsRecyclerView.setAdapter(adapter);
 
-        databaseRef = FirebaseDatabase.getInstance().getReference("rides");
-        currentUser = FirebaseAuth.getInstance().getCurrentUser();
+        // Let the pager load or drop pages as the user scrolls
+        othersPostsRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView view, int dx, int dy) {
+                LinearLayoutManager layoutManager = (LinearLayoutManager) view.getLayoutManager();
+                viewModel.onVisibleRangeChanged(
+                        layoutManager.findFirstVisibleItemPosition(),
+                        layoutManager.findLastVisibleItemPosition());
+            }
+        });
 
+        if (viewModel.getMode() != null) {
+            currentMode = viewModel.getMode();
+            nearbyCheckBox.setChecked(viewModel.isNearby());
+            matchCheckBox.setChecked(viewModel.isMatching());
+        }
         loadOthersPosts();
+        viewModel.getRideRows().observe(this, adapter::submitList);
+
+        // Switch between the rides near the user, the offers matching their requests and every ride
+        nearbyCheckBox.setOnCheckedChangeListener((button, checked) -> {
+            if (checked) matchCheckBox.setChecked(false);
+            loadOthersPosts();
+        });
+        matchCheckBox.setOnCheckedChangeListener((button, checked) -> {
+            if (checked) nearbyCheckBox.setChecked(false);
+            loadOthersPosts();
+        });
+
+        // Narrow the list down by place on every keystroke
+        searchInput.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                viewModel.search(s.toString());
+            }
+        });
 
         // Show unaccepted ride offers posted by other users
         othersOffersButton.setOnClickListener(new View.OnClickListener() {
@@ -96,6 +150,8 @@ public class OthersPostsActivity extends AppCompatActivity {
             public void onClick(View v) {
                 currentMode = "request";
                 currentListHeader.setText("Other's Unaccepted Requests");
+                // Only offers are matched to requests
+                matchCheckBox.setChecked(false);
                 loadOthersPosts();
             }
         });
@@ -111,44 +167,74 @@ public class OthersPostsActivity extends AppCompatActivity {
     }
 
     /**
-     * Loads all unaccepted ride offers or requests posted by other users (not the current user),
-     * based on the currentMode filter.
+     * Loads upcoming unaccepted ride offers or requests posted by other users (not the current user),
+     * based on the currentMode filter. Switching mode restarts paging from the first page;
+     * reloading the mode already shown (e.g. after a rotation) keeps the current pages.
      */
     private void loadOthersPosts() {
         if (currentUser == null) return;
+        if (matchCheckBox.isChecked()) {
+            currentMode = "offer";
+            currentListHeader.setText("Offers Matching My Requests");
+            viewModel.showMatches(currentUser.uid);
+            return;
+        }
 
-        databaseRef.orderByChild("accepted").equalTo(false).addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                rideList.clear();
-                for (DataSnapshot postSnapshot : snapshot.getChildren()) {
-                    Ride ride = postSnapshot.getValue(Ride.class);
-
-                    if (ride != null) {
-                        if (currentMode.equals("offer")) {
-                            // Show ride offers from other users
-                            if (ride.rideType != null && ride.rideType.equals("offer") && ride.driverId != null && !ride.driverId.equals(currentUser.getUid())) {
-                                rideList.add(ride);
-                                rideKeys.add(postSnapshot.getKey());
-                            }
-                        }
-                        if (currentMode.equals("request")) {
-                            // Show ride requests from other users
-                            if (ride.rideType != null && ride.rideType.equals("request") && ride.riderId != null && !ride.riderId.equals(currentUser.getUid())) {
-                                rideList.add(ride);
-                                rideKeys.add(postSnapshot.getKey());
-                            }
-                        }
-                    }
-                }
-                adapter.notifyDataSetChanged();
-            }
+        currentListHeader.setText(currentMode.equals("offer")
+                ? "Other's Unaccepted Offers" : "Other's Unaccepted Requests");
+        if (!nearbyCheckBox.isChecked()) {
+            viewModel.show(currentUser.uid, currentMode);
+            return;
+        }
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
+        if (ContextCompat.checkSelfPermission(this, Manifest.permission.ACCESS_COARSE_LOCATION)
+                != PackageManager.PERMISSION_GRANTED) {
+            ActivityCompat.requestPermissions(this,
+                    new String[] { Manifest.permission.ACCESS_COARSE_LOCATION },
+                    LOCATION_PERMISSION_REQUEST);
+            return;
+        }
 
-            }
-        });
+        Location location = lastKnownLocation();
+        if (location == null) {
+            Toast.makeText(this, "Your location is not available yet.", Toast.LENGTH_SHORT).show();
+            nearbyCheckBox.setChecked(false);
+            return;
+        }
+        viewModel.showNearby(currentUser.uid, currentMode, location.getLatitude(), location.getLongitude());
+    }
+
+    /**
+     * Returns the most recent location the device knows of, without waiting for a new fix;
+     * a city-level location is precise enough to pick the nearby cells.
+     *
+     * @return The location, or null if none is known
+     */
+    @SuppressLint("MissingPermission")  // Checked in loadOthersPosts()
+    private Location lastKnownLocation() {
+        LocationManager locationManager = getSystemService(LocationManager.class);
+        if (locationManager == null) return null;
+        Location location = locationManager.getLastKnownLocation(LocationManager.NETWORK_PROVIDER);
+        return location != null
+                ? location
+                : locationManager.getLastKnownLocation(LocationManager.PASSIVE_PROVIDER);
+    }
+
+    /**
+     * Loads the nearby rides once the location permission is granted, or goes back to every
+     * ride if it is denied.
+     */
+    @Override
+    public void onRequestPermissionsResult(int requestCode, @NonNull String[] permissions,
+                                           @NonNull int[] grantResults) {
+        super.onRequestPermissionsResult(requestCode, permissions, grantResults);
+        if (requestCode != LOCATION_PERMISSION_REQUEST) return;
+
+        if (grantResults.length > 0 && grantResults[0] == PackageManager.PERMISSION_GRANTED) {
+            loadOthersPosts();
+        } else {
+            nearbyCheckBox.setChecked(false);
+        }
     }
 
     /**
@@ -188,4 +274,13 @@ public class OthersPostsActivity extends AppCompatActivity {
         int scrollPosition = savedInstanceState.getInt("scrollPosition", 0);
         othersPostsRecyclerView.scrollToPosition(scrollPosition);
     }
+
+    /**
+     * Drops the list item views this screen left in the shared pool.
+     */
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        RideViewPool.get().release(this);
+    }
 }
@@ -0,0 +1,271 @@
+package edu.uga.cs.rideshareapp;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.ViewModel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Holds the paged marketplace of other users' open rides across configuration changes.
+ * The pager and its window survive rotation, so the list does not restart at page one.
+ * The rides loaded can be searched by place; the search index follows the rides as they
+ * change, so a keystroke only looks the query up instead of rescanning every ride. Rows
+ * are mapped and searched on a {@link RideWorker}, off the main thread.
+ */
+public class OthersPostsViewModel extends ViewModel {
+
+    /**
+     * What the rows shown are prepared from: a ride snapshot and the search over it.
+     */
+    private static final class RowsInput {
+        final List<Ride> rides;
+        final String query;
+
+        RowsInput(List<Ride> rides, String query) {
+            this.rides = rides;
+            this.query = query;
+        }
+    }
+
+    // Rides fetched per page, rows from the end at which the next page loads, and pages kept in memory
+    private static final int PAGE_SIZE = 20;
+    private static final int PREFETCH_DISTANCE = 5;
+    private static final int MAX_PAGES = 5;
+
+    /** How far from the user the rides shown near them may start */
+    private static final double NEARBY_RADIUS_METERS = 15_000;
+
+    /** How many days of rides are shown near the user, starting with today */
+    private static final int NEARBY_DAYS = 3;
+
+    /** How far an offer's pickup and drop-off, and its departure, may be from a request's */
+    private static final double MATCH_RADIUS_METERS = 10_000;
+    private static final long MATCH_WINDOW_MILLIS = 2 * 60 * 60 * 1000L;
+
+    /** Offers shown for each of the user's requests */
+    private static final int MATCHES_PER_REQUEST = 5;
+
+    private final RideRepository repository = RideRepositories.get();
+    private final RideFeed feed;
+    private final RidePager pager;
+    private final RideStream rides;
+    private final MediatorLiveData<List<RideRow>> rideRows = new MediatorLiveData<>();
+    private final RideWorker<RowsInput, List<RideRow>> rowWorker =
+            new RideWorker<>(this::prepareRows, this::showRows);
+
+    // Used by the row worker only
+    private final RideRow.Mapper rowMapper = new RideRow.Mapper();
+    private final RideSearchIndex searchIndex = new RideSearchIndex();
+    private List<Ride> mappedRides;
+    private List<RideRow> mappedRows;
+
+    private String uid;
+    private String mode;
+    private boolean nearby;
+    private boolean matching;
+    private String searchQuery = "";
+    private boolean searching;
+
+    // True while the rows shown are search results, whose positions are not feed positions
+    private boolean showingResults;
+
+    public OthersPostsViewModel() {
+        // Upcoming rides in departure order, excluding the user's own posts; the ride type is
+        // already filtered on the server through the status_type key
+        feed = new RideFeed(RideFeeds.BY_DEPARTURE, ride -> RideFeeds.isPostedByOther(ride, uid));
+        pager = new RidePager(repository, feed, PAGE_SIZE, PREFETCH_DISTANCE, MAX_PAGES);
+        rides = new RideStream(feed, null);
+        rideRows.addSource(rides, snapshot -> rowWorker.submit(new RowsInput(snapshot, searchQuery)));
+    }
+
+    /**
+     * Limits the rides shown to those with a place starting with each word typed. Only the
+     * rides already loaded are searched: in the paged list, the pages kept in memory (up to
+     * MAX_PAGES of PAGE_SIZE rides), and paging pauses until the search is cleared.
+     *
+     * @param query The text typed; empty shows every ride
+     */
+    public void search(String query) {
+        if (query.equals(searchQuery)) return;
+        searchQuery = query;
+        searching = !RideSearchIndex.normalize(query).isEmpty();
+        rowWorker.submit(new RowsInput(rides.getValue(), query));
+    }
+
+    /**
+     * Shows the rows prepared for the latest input, which reflect the current search.
+     */
+    private void showRows(List<RideRow> rows) {
+        showingResults = searching;
+        rideRows.setValue(rows);
+    }
+
+    /**
+     * Maps a snapshot to rows and keeps those matching the search, on the row worker. A
+     * snapshot is mapped and indexed once, when it first arrives; a new query over the same
+     * snapshot only searches the index and filters the rows. The adapter diffs the result
+     * against what it shows, so only the rows entering or leaving the results are rebound.
+     *
+     * @return The rows to show, read-only, or null if a newer input superseded this one
+     */
+    private List<RideRow> prepareRows(RowsInput input, RideWorker.Job job) {
+        if (input.rides != mappedRides) {
+            List<RideRow> mapped = rowMapper.map(input.rides, job);
+            if (mapped == null) return null;
+            searchIndex.update(input.rides);
+            mappedRides = input.rides;
+            mappedRows = mapped;
+        }
+
+        List<RideRow> rows = mappedRows;
+        Set<String> matches = searchIndex.search(input.query);
+        if (matches == null) return rows;
+
+        List<RideRow> found = new ArrayList<>(Math.min(rows.size(), matches.size()));
+        for (RideRow row : rows) {
+            if (matches.contains(row.getKey())) found.add(row);
+        }
+        return Collections.unmodifiableList(found);
+    }
+
+    /**
+     * Shows other users' open rides of one type. Switching to the mode already shown does nothing.
+     *
+     * @param uid  The Firebase UID of the signed-in user
+     * @param mode "offer" or "request"
+     */
+    public void show(String uid, String mode) {
+        if (uid.equals(this.uid) && mode.equals(this.mode) && !nearby && !matching) return;
+        this.uid = uid;
+        this.mode = mode;
+        this.nearby = false;
+        this.matching = false;
+
+        String statusType = Ride.statusType(false, mode);
+        rides.setSource(subscriber -> {
+            pager.start(statusType);
+            return pager::stop;
+        });
+    }
+
+    /**
+     * Shows other users' open rides of one type that start near the user, all at once
+     * instead of page by page. Only rides posted with coordinates are found. Switching to
+     * the mode already shown does nothing, so the rides stay centered where they were first
+     * loaded.
+     *
+     * @param uid  The Firebase UID of the signed-in user
+     * @param mode "offer" or "request"
+     * @param lat  The user's latitude in degrees
+     * @param lng  The user's longitude in degrees
+     */
+    public void showNearby(String uid, String mode, double lat, double lng) {
+        if (uid.equals(this.uid) && mode.equals(this.mode) && nearby) return;
+        this.uid = uid;
+        this.mode = mode;
+        this.nearby = true;
+        this.matching = false;
+
+        rides.setSource(new NearbyRideSource(repository, Ride.statusType(false, mode),
+                lat, lng, NEARBY_RADIUS_METERS, NEARBY_DAYS));
+    }
+
+    /**
+     * Shows the other users' open offers that best suit the user's own open requests: a few
+     * per request, going from and to near where it does around the same time. Requests
+     * posted without coordinates get no matches. Showing the matches already shown does
+     * nothing.
+     *
+     * @param uid The Firebase UID of the signed-in user
+     */
+    public void showMatches(String uid) {
+        if (uid.equals(this.uid) && matching) return;
+        this.uid = uid;
+        this.mode = "offer";
+        this.nearby = false;
+        this.matching = true;
+
+        rides.setSource(new MatchingOffersSource(repository, uid,
+                MATCH_RADIUS_METERS, MATCH_WINDOW_MILLIS, MATCHES_PER_REQUEST));
+    }
+
+    /**
+     * Forwards the visible rows to the pager so it can load or drop pages. While search
+     * results are shown the positions are not the feed's, so the pages stay as they are.
+     *
+     * @param firstVisible Position of the first visible row
+     * @param lastVisible  Position of the last visible row
+     */
+    public void onVisibleRangeChanged(int firstVisible, int lastVisible) {
+        if (showingResults) return;
+        pager.onVisibleRangeChanged(firstVisible, lastVisible);
+    }
+
+    /**
+     * Drops a ride another user accepted first, without waiting for the query to update.
+     *
+     * @param rideKey The Firebase key of the ride
+     */
+    public void onRideTaken(String rideKey) {
+        feed.remove(rideKey);
+    }
+
+    /**
+     * @return The mode currently shown, or null before {@link #show(String, String)}
+     */
+    public String getMode() {
+        return mode;
+    }
+
+    /**
+     * @return True if only rides near the user are shown
+     */
+    public boolean isNearby() {
+        return nearby;
+    }
+
+    /**
+     * @return True if the offers matching the user's requests are shown
+     */
+    public boolean isMatching() {
+        return matching;
+    }
+
+    /**
+     * @return Other users' open rides in the current mode
+     */
+    public RideStream getRides() {
+        return rides;
+    }
+
+    /**
+     * @return The text searched for, empty if none
+     */
+    public String getSearchQuery() {
+        return searchQuery;
+    }
+
+    /**
+     * @return Other users' open rides in the current mode that match the search, as display rows
+     */
+    public LiveData<List<RideRow>> getRideRows() {
+        return rideRows;
+    }
+
+    /**
+     * @return The repository the screen's adapter writes through
+     */
+    public RideRepository getRepository() {
+        return repository;
+    }
+
+    @Override
+    protected void onCleared() {
+        rowWorker.close();
+        rides.close();
+    }
+}
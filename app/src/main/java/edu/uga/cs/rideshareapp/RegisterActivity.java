@@ -23,8 +23,6 @@ import com.google.android.gms.tasks.Task;
 import com.google.firebase.auth.AuthResult;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseAuthUserCollisionException;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
 
 /**
  * Activity that handles user registration using Firebase Authentication.
@@ -96,9 +94,9 @@ public class RegisterActivity extends AppCompatActivity {
                             Log.d( TAG, "Registration Success" );
                             String userId = mAuth.getCurrentUser().getUid();
 
-                            // Set initial points for the new user
-                            DatabaseReference userRef = FirebaseDatabase.getInstance().getReference("users").child(userId);
-                            userRef.child("points").setValue(150);
+                            // Set initial points and the profile email for the new user
+                            RideRepositories.get().setPoints(userId, 150);
+                            RideRepositories.get().saveProfile(userId, email);
 
                             // Navigate to LoginActivity after successful registration
                             startActivity(new Intent(RegisterActivity.this, LoginActivity.class));
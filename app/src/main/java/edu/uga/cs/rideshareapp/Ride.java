@@ -1,11 +1,24 @@
 package edu.uga.cs.rideshareapp;
 
+import java.util.Locale;
+import java.util.Objects;
+
 /**
  * Represents a ride entry in the RideShare app, which can be either an offer or a request.
  * Contains details about the users involved, ride metadata, confirmation states, and Firebase key.
+ * Rides are stored through {@link RideCodec}; users' emails are kept in their profiles, not here.
  */
 public class Ride {
 
+    /** Status of rides nobody has accepted yet */
+    public static final String STATUS_OPEN = "open";
+
+    /** Status of accepted rides */
+    public static final String STATUS_ACCEPTED = "accepted";
+
+    /** Geohash characters in {@link #statusTypeCell}: cells of about 1.2 by 0.6 km */
+    public static final int CELL_LENGTH = 6;
+
     // Firebase key associated with this ride (set manually after retrieval)
     private String key;
 
@@ -24,9 +37,38 @@ public class Ride {
     /** Destination location of the ride */
     public String to;
 
-    /** Scheduled date and time of the ride (format: "MM-dd-yyyy hh:mm a") */
+    /** Coordinates of the starting location in degrees; both 0 if it could not be located */
+    public double fromLat;
+    public double fromLng;
+
+    /** Coordinates of the destination in degrees; both 0 if it could not be located */
+    public double toLat;
+    public double toLng;
+
+    /** Scheduled date and time of the ride (format: "MM-dd-yyyy hh:mm a"), derived from departureEpochMillis when read */
     public String dateTime;  // "MM-dd-yyyy hh:mm a"
 
+    /** Scheduled departure time in epoch milliseconds, used for ordering and range queries */
+    public long departureEpochMillis;
+
+    /** Composite "status_type" key (e.g. "open_offer"), the prefix of the keys below; not stored, as no query orders by it */
+    public String statusType;
+
+    /**
+     * Composite "status_type_departure" key (e.g. "open_offer_1745609400000"), so a single
+     * orderByChild query can select open offers or requests within a departure time range
+     */
+    public String statusTypeDeparture;
+
+    /** Composite "poster_status_type" key (e.g. "{uid}_open_offer") for querying a user's own posts */
+    public String posterStatusType;
+
+    /**
+     * Composite "status_type_cell" key (e.g. "open_offer_dnh0fv"): the geohash of the starting
+     * location, so rides near a point are selected with prefix queries. Null without coordinates.
+     */
+    public String statusTypeCell;
+
     /** True if both parties have agreed to the ride */
     public boolean accepted; // Initially false
 
@@ -36,14 +78,8 @@ public class Ride {
     /** True if the rider has confirmed ride completion */
     public boolean riderConfirmed;   // Initially false
 
-    /** Email of the driver */
-    public String driverEmail;
-
-    /** Email of the rider */
-    public String riderEmail;
-
     /**
-     * Default constructor required for Firebase deserialization.
+     * Constructs an empty ride, filled in by {@link RideCodec}.
      */
     public Ride() {}
 
@@ -59,12 +95,9 @@ public class Ride {
      * @param accepted         Whether the ride has been accepted
      * @param driverConfirmed  Whether the driver confirmed completion
      * @param riderConfirmed   Whether the rider confirmed completion
-     * @param driverEmail      Driver's email address
-     * @param riderEmail       Rider's email address
      */
     public Ride(String rideType, String driverId, String riderId, String from, String to, String dateTime,
-                 boolean accepted, boolean driverConfirmed, boolean riderConfirmed,
-                 String driverEmail, String riderEmail) {
+                 boolean accepted, boolean driverConfirmed, boolean riderConfirmed) {
         this.rideType = rideType;
         this.driverId = driverId;
         this.riderId = riderId;
@@ -74,8 +107,26 @@ public class Ride {
         this.accepted = accepted;
         this.driverConfirmed = driverConfirmed;
         this.riderConfirmed = riderConfirmed;
-        this.driverEmail = driverEmail;
-        this.riderEmail = riderEmail;
+    }
+
+    /**
+     * Constructs a copy of another ride, including its Firebase key.
+     *
+     * @param other The ride to copy
+     */
+    public Ride(Ride other) {
+        this(other.rideType, other.driverId, other.riderId, other.from, other.to, other.dateTime,
+                other.accepted, other.driverConfirmed, other.riderConfirmed);
+        this.key = other.key;
+        this.departureEpochMillis = other.departureEpochMillis;
+        this.statusType = other.statusType;
+        this.statusTypeDeparture = other.statusTypeDeparture;
+        this.posterStatusType = other.posterStatusType;
+        this.statusTypeCell = other.statusTypeCell;
+        this.fromLat = other.fromLat;
+        this.fromLng = other.fromLng;
+        this.toLat = other.toLat;
+        this.toLng = other.toLng;
     }
 
     /**
@@ -96,4 +147,91 @@ public class Ride {
         this.key = key;
     }
 
+    /**
+     * Tells whether both the starting location and the destination have coordinates.
+     *
+     * @return True if the ride can be matched by location
+     */
+    public boolean hasCoordinates() {
+        return (fromLat != 0 || fromLng != 0) && (toLat != 0 || toLng != 0);
+    }
+
+    /**
+     * Checks whether another ride has the same stored values as this one.
+     * The Firebase key is not compared.
+     *
+     * @param other The ride to compare with
+     * @return True if every stored field is equal
+     */
+    public boolean hasSameContent(Ride other) {
+        return Objects.equals(rideType, other.rideType)
+                && Objects.equals(driverId, other.driverId)
+                && Objects.equals(riderId, other.riderId)
+                && Objects.equals(from, other.from)
+                && Objects.equals(to, other.to)
+                && fromLat == other.fromLat
+                && fromLng == other.fromLng
+                && toLat == other.toLat
+                && toLng == other.toLng
+                && Objects.equals(dateTime, other.dateTime)
+                && departureEpochMillis == other.departureEpochMillis
+                && Objects.equals(statusType, other.statusType)
+                && Objects.equals(statusTypeDeparture, other.statusTypeDeparture)
+                && Objects.equals(posterStatusType, other.posterStatusType)
+                && Objects.equals(statusTypeCell, other.statusTypeCell)
+                && accepted == other.accepted
+                && driverConfirmed == other.driverConfirmed
+                && riderConfirmed == other.riderConfirmed;
+    }
+
+    /**
+     * Recomputes the composite query keys from accepted, rideType, departureEpochMillis,
+     * the starting coordinates and the poster's UID. Must be called whenever one of those
+     * fields changes.
+     */
+    public void updateQueryKeys() {
+        String poster = "offer".equals(rideType) ? driverId : riderId;
+        statusType = statusType(accepted, rideType);
+        statusTypeDeparture = statusTypeDeparture(statusType, departureEpochMillis);
+        posterStatusType = poster + "_" + statusType;
+        statusTypeCell = hasCoordinates()
+                ? statusTypeCell(statusType, GeoHash.encodeBase32(fromLat, fromLng, CELL_LENGTH))
+                : null;
+    }
+
+    /**
+     * Builds the composite key held in {@link #statusType}.
+     *
+     * @param accepted Whether the ride has been accepted
+     * @param rideType The type of ride ("offer" or "request")
+     * @return The composite key, e.g. "open_offer"
+     */
+    public static String statusType(boolean accepted, String rideType) {
+        return (accepted ? STATUS_ACCEPTED : STATUS_OPEN) + "_" + rideType;
+    }
+
+    /**
+     * Builds the composite key stored in {@link #statusTypeDeparture}.
+     * The departure time is zero-padded so string order matches time order.
+     *
+     * @param statusType           The ride's status_type key, e.g. "open_offer"
+     * @param departureEpochMillis Departure time in epoch milliseconds
+     * @return The composite key, e.g. "open_offer_1745609400000"
+     */
+    public static String statusTypeDeparture(String statusType, long departureEpochMillis) {
+        return statusType + "_" + String.format(Locale.US, "%013d", departureEpochMillis);
+    }
+
+    /**
+     * Builds the composite key stored in {@link #statusTypeCell}, or a prefix of it when
+     * given a shorter, coarser cell.
+     *
+     * @param statusType The ride's status_type key, e.g. "open_offer"
+     * @param cell       Base-32 geohash of the cell, at most {@link #CELL_LENGTH} long
+     * @return The composite key, e.g. "open_offer_dnh0fv"
+     */
+    public static String statusTypeCell(String statusType, String cell) {
+        return statusType + "_" + cell;
+    }
+
 }
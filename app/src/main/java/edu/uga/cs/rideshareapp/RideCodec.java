@@ -0,0 +1,380 @@
+package edu.uga.cs.rideshareapp;
+
+import com.google.firebase.database.DataSnapshot;
+
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Converts rides to and from their stored form under rides/{key} and completedRides/{key}.
+ *
+ * Since schema version 2 a ride is stored compactly: one- and two-letter child names, the
+ * ride type and status as small integer codes, the departure as epoch milliseconds only
+ * (the display string is derived from it) and no emails, which live once per user under
+ * users/{uid}/email. Confirmation flags, coordinates and the cell key are only written when
+ * set. Version 1 rides, stored as the plain Ride bean, can still be read;
+ * the loadgen module's RideMigrator rewrites them.
+ *
+ * A composite query key is stored only where a query orders by it, since orderByChild() can
+ * only order by a stored child: "sd" and "ps" on rides/, "sg" only on the openRides/{day}
+ * copies, written by {@link #encodeOpenCopy(Ride)}. The other keys are derived on decode.
+ *
+ * Decoding reads the snapshot's plain value map, so Firebase's reflective bean mapper
+ * (getValue(Ride.class)) is never involved, and it can fill a reused instance so unchanged
+ * updates allocate no ride at all. The map is built in one pass over the snapshot's nodes;
+ * walking getChildren() instead costs more, as every child snapshot gets its own reference.
+ */
+public final class RideCodec {
+
+    /** Schema version written by {@link #encode(Ride)} */
+    public static final int VERSION = 2;
+
+    /** Child names of the version 2 schema */
+    public static final String FIELD_VERSION = "v";
+    public static final String FIELD_TYPE = "t";
+    public static final String FIELD_STATUS = "s";
+    public static final String FIELD_DRIVER_ID = "d";
+    public static final String FIELD_RIDER_ID = "r";
+    public static final String FIELD_FROM = "f";
+    public static final String FIELD_TO = "o";
+    public static final String FIELD_DEPARTURE = "at";
+    public static final String FIELD_FROM_LAT = "fa";
+    public static final String FIELD_FROM_LNG = "fn";
+    public static final String FIELD_TO_LAT = "ta";
+    public static final String FIELD_TO_LNG = "tn";
+    public static final String FIELD_DRIVER_CONFIRMED = "dc";
+    public static final String FIELD_RIDER_CONFIRMED = "rc";
+
+    /** Ordered by the paged Open Offers/Requests lists and the sweeper's departure ranges */
+    public static final String FIELD_STATUS_TYPE_DEPARTURE = "sd";
+
+    /** Ordered by My Posts and by the matching offers' subscription to the user's requests */
+    public static final String FIELD_POSTER_STATUS_TYPE = "ps";
+
+    /** Ordered by the nearby prefix queries; written to the openRides/{day} copies only */
+    public static final String FIELD_STATUS_TYPE_CELL = "sg";
+
+    /** Ride type codes */
+    static final int TYPE_OFFER = 0;
+    static final int TYPE_REQUEST = 1;
+
+    /** Ride status codes */
+    static final int STATUS_OPEN = 0;
+    static final int STATUS_ACCEPTED = 1;
+
+    private RideCodec() {}
+
+    /**
+     * Encodes a ride in the current schema, ready for setValue() or updateChildren().
+     *
+     * @param ride The ride, with its query keys up to date
+     * @return The stored form of the ride
+     * @throws IllegalArgumentException If the ride type is neither "offer" nor "request"
+     */
+    public static Map<String, Object> encode(Ride ride) {
+        Map<String, Object> value = new HashMap<>();
+        value.put(FIELD_VERSION, VERSION);
+        value.put(FIELD_TYPE, typeCode(ride.rideType));
+        value.put(FIELD_STATUS, ride.accepted ? STATUS_ACCEPTED : STATUS_OPEN);
+        if (ride.driverId != null) value.put(FIELD_DRIVER_ID, ride.driverId);
+        if (ride.riderId != null) value.put(FIELD_RIDER_ID, ride.riderId);
+        value.put(FIELD_FROM, ride.from);
+        value.put(FIELD_TO, ride.to);
+        value.put(FIELD_DEPARTURE, ride.departureEpochMillis);
+        if (ride.hasCoordinates()) {
+            value.put(FIELD_FROM_LAT, ride.fromLat);
+            value.put(FIELD_FROM_LNG, ride.fromLng);
+            value.put(FIELD_TO_LAT, ride.toLat);
+            value.put(FIELD_TO_LNG, ride.toLng);
+        }
+        if (ride.driverConfirmed) value.put(FIELD_DRIVER_CONFIRMED, true);
+        if (ride.riderConfirmed) value.put(FIELD_RIDER_CONFIRMED, true);
+        value.put(FIELD_STATUS_TYPE_DEPARTURE, ride.statusTypeDeparture);
+        value.put(FIELD_POSTER_STATUS_TYPE, ride.posterStatusType);
+        return value;
+    }
+
+    /**
+     * Encodes a ride for its copy in its day's partition, openRides/{day}/{key}: the stored
+     * form plus the cell key the nearby queries order by.
+     *
+     * @param ride The ride, with its query keys up to date
+     * @return The stored form of the copy
+     * @throws IllegalArgumentException If the ride type is neither "offer" nor "request"
+     */
+    public static Map<String, Object> encodeOpenCopy(Ride ride) {
+        Map<String, Object> value = encode(ride);
+        if (ride.statusTypeCell != null) value.put(FIELD_STATUS_TYPE_CELL, ride.statusTypeCell);
+        return value;
+    }
+
+    /**
+     * Decodes a stored ride of any schema version from its raw value, e.g. in a transaction.
+     *
+     * @param key   The Firebase key of the ride
+     * @param value The raw snapshot value, as returned by getValue()
+     * @return The ride with its key set, or null if the value is not a ride
+     */
+    public static Ride decode(String key, Object value) {
+        if (!(value instanceof Map)) return null;
+
+        Ride ride = new Ride();
+        if (!finish(ride, readFields(ride, (Map<?, ?>) value), 0, null)) return null;
+        ride.setKey(key);
+        return ride;
+    }
+
+    /**
+     * Decodes a ride snapshot of any schema version.
+     *
+     * @param snapshot The ride snapshot
+     * @return The ride with its key set, or null if the snapshot is not a ride
+     */
+    public static Ride decode(DataSnapshot snapshot) {
+        Ride ride = new Ride();
+        return decodeInto(snapshot, ride) ? ride : null;
+    }
+
+    /**
+     * Decodes a ride snapshot into an existing instance, such as a scratch ride reused for
+     * every update of a query. If the departure time is unchanged, the target's date/time
+     * string is kept instead of being formatted again.
+     *
+     * @param snapshot The ride snapshot
+     * @param target   The ride to overwrite
+     * @return True if the snapshot held a ride; otherwise the target's content is undefined
+     */
+    public static boolean decodeInto(DataSnapshot snapshot, Ride target) {
+        long previousDeparture = target.departureEpochMillis;
+        String previousDateTime = target.dateTime;
+        clear(target);
+
+        Object value = snapshot.getValue();
+        if (!(value instanceof Map)) return false;
+        if (!finish(target, readFields(target, (Map<?, ?>) value), previousDeparture, previousDateTime)) {
+            return false;
+        }
+        target.setKey(snapshot.getKey());
+        return true;
+    }
+
+    /**
+     * Returns the schema version of a stored ride.
+     *
+     * @param value The raw snapshot value
+     * @return The version, 1 for rides written before versioning
+     */
+    public static int version(Object value) {
+        if (!(value instanceof Map)) return 1;
+        Object version = ((Map<?, ?>) value).get(FIELD_VERSION);
+        return version instanceof Number ? ((Number) version).intValue() : 1;
+    }
+
+    /**
+     * Copies every stored child into a ride.
+     *
+     * @return True if the ride is not a version 1 ride
+     */
+    private static boolean readFields(Ride ride, Map<?, ?> value) {
+        boolean compact = false;
+        for (Map.Entry<?, ?> field : value.entrySet()) {
+            compact |= readField(ride, String.valueOf(field.getKey()), field.getValue(), value);
+        }
+        return compact;
+    }
+
+    /**
+     * Copies one stored child into a ride. Version 2 and version 1 child names never clash,
+     * so one switch reads both schemas. A version 1 ride written to since, e.g. confirmed,
+     * holds both names of a field; the version 2 child is the newer one, so it wins whatever
+     * order the children come in.
+     *
+     * @param fields Every child of the ride
+     * @return True if the child is the schema version, i.e. the ride is not a version 1 ride
+     */
+    private static boolean readField(Ride ride, String name, Object value, Map<?, ?> fields) {
+        switch (name) {
+            case FIELD_VERSION:
+                return true;
+            case FIELD_TYPE:
+                ride.rideType = typeName((int) asLong(value, -1));
+                break;
+            case FIELD_STATUS:
+                ride.accepted = asLong(value, STATUS_OPEN) == STATUS_ACCEPTED;
+                break;
+            case FIELD_DRIVER_ID:
+                ride.driverId = asString(value);
+                break;
+            case "driverId":
+                if (!fields.containsKey(FIELD_DRIVER_ID)) ride.driverId = asString(value);
+                break;
+            case FIELD_RIDER_ID:
+                ride.riderId = asString(value);
+                break;
+            case "riderId":
+                if (!fields.containsKey(FIELD_RIDER_ID)) ride.riderId = asString(value);
+                break;
+            case FIELD_FROM:
+                ride.from = asString(value);
+                break;
+            case "from":
+                if (!fields.containsKey(FIELD_FROM)) ride.from = asString(value);
+                break;
+            case FIELD_TO:
+                ride.to = asString(value);
+                break;
+            case "to":
+                if (!fields.containsKey(FIELD_TO)) ride.to = asString(value);
+                break;
+            case FIELD_DEPARTURE:
+                ride.departureEpochMillis = asLong(value, 0);
+                break;
+            case "departureEpochMillis":
+                if (!fields.containsKey(FIELD_DEPARTURE)) ride.departureEpochMillis = asLong(value, 0);
+                break;
+            case FIELD_FROM_LAT:
+                ride.fromLat = asDouble(value);
+                break;
+            case FIELD_FROM_LNG:
+                ride.fromLng = asDouble(value);
+                break;
+            case FIELD_TO_LAT:
+                ride.toLat = asDouble(value);
+                break;
+            case FIELD_TO_LNG:
+                ride.toLng = asDouble(value);
+                break;
+            case FIELD_DRIVER_CONFIRMED:
+                ride.driverConfirmed = Boolean.TRUE.equals(value);
+                break;
+            case "driverConfirmed":
+                if (!fields.containsKey(FIELD_DRIVER_CONFIRMED)) ride.driverConfirmed = Boolean.TRUE.equals(value);
+                break;
+            case FIELD_RIDER_CONFIRMED:
+                ride.riderConfirmed = Boolean.TRUE.equals(value);
+                break;
+            case "riderConfirmed":
+                if (!fields.containsKey(FIELD_RIDER_CONFIRMED)) ride.riderConfirmed = Boolean.TRUE.equals(value);
+                break;
+            case FIELD_STATUS_TYPE_DEPARTURE:
+                ride.statusTypeDeparture = asString(value);
+                break;
+            case FIELD_POSTER_STATUS_TYPE:
+                ride.posterStatusType = asString(value);
+                break;
+            case FIELD_STATUS_TYPE_CELL:
+                ride.statusTypeCell = asString(value);
+                break;
+
+            // Version 1 only: the type as text, the display string and the accepted flag.
+            // Its query keys are recomputed in finish().
+            case "rideType":
+                if (fields.containsKey(FIELD_TYPE)) break;
+                String rideType = asString(value);
+                ride.rideType = typeCode(rideType, -1) >= 0 ? rideType : null;
+                break;
+            case "dateTime":
+                ride.dateTime = asString(value);
+                break;
+            case "accepted":
+                if (!fields.containsKey(FIELD_STATUS)) ride.accepted = Boolean.TRUE.equals(value);
+                break;
+            default:
+                break;
+        }
+        return false;
+    }
+
+    /**
+     * Completes a ride once all children are read. Version 2 rides get their status_type key
+     * from the type and status, their cell key from the coordinates unless read from a
+     * partition copy, and their display string from the departure time; version 1 rides that predate the departure time and query
+     * keys get them derived from dateTime.
+     *
+     * @return False if the children did not make up a ride
+     */
+    private static boolean finish(Ride ride, boolean compact, long previousDeparture,
+                                  String previousDateTime) {
+        if (ride.rideType == null) return false;
+
+        if (compact) {
+            ride.statusType = Ride.statusType(ride.accepted, ride.rideType);
+            if (ride.statusTypeCell == null && ride.hasCoordinates()) {
+                ride.statusTypeCell = Ride.statusTypeCell(ride.statusType,
+                        GeoHash.encodeBase32(ride.fromLat, ride.fromLng, Ride.CELL_LENGTH));
+            }
+            ride.dateTime = previousDateTime != null && previousDeparture == ride.departureEpochMillis
+                    ? previousDateTime
+                    : RideDates.formatDateTime(ride.departureEpochMillis);
+            return true;
+        }
+
+        if (ride.departureEpochMillis == 0 && ride.dateTime != null) {
+            try {
+                ride.departureEpochMillis = RideDates.parseDepartureMillis(ride.dateTime);
+            } catch (ParseException e) {
+                return false;
+            }
+        }
+        ride.updateQueryKeys();
+        return true;
+    }
+
+    /**
+     * Resets every stored field of a reused ride.
+     */
+    private static void clear(Ride ride) {
+        ride.setKey(null);
+        ride.rideType = null;
+        ride.driverId = null;
+        ride.riderId = null;
+        ride.from = null;
+        ride.to = null;
+        ride.dateTime = null;
+        ride.departureEpochMillis = 0;
+        ride.fromLat = 0;
+        ride.fromLng = 0;
+        ride.toLat = 0;
+        ride.toLng = 0;
+        ride.statusType = null;
+        ride.statusTypeDeparture = null;
+        ride.posterStatusType = null;
+        ride.statusTypeCell = null;
+        ride.accepted = false;
+        ride.driverConfirmed = false;
+        ride.riderConfirmed = false;
+    }
+
+    private static int typeCode(String rideType) {
+        int code = typeCode(rideType, -1);
+        if (code < 0) throw new IllegalArgumentException("Unknown ride type: " + rideType);
+        return code;
+    }
+
+    private static int typeCode(String rideType, int unknown) {
+        if ("offer".equals(rideType)) return TYPE_OFFER;
+        if ("request".equals(rideType)) return TYPE_REQUEST;
+        return unknown;
+    }
+
+    private static String typeName(int code) {
+        switch (code) {
+            case TYPE_OFFER:   return "offer";
+            case TYPE_REQUEST: return "request";
+            default:           return null;
+        }
+    }
+
+    private static String asString(Object value) {
+        return value instanceof String ? (String) value : null;
+    }
+
+    private static long asLong(Object value, long absent) {
+        return value instanceof Number ? ((Number) value).longValue() : absent;
+    }
+
+    private static double asDouble(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0;
+    }
+}
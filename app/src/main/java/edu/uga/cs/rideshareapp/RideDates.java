@@ -0,0 +1,117 @@
+package edu.uga.cs.rideshareapp;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Conversions between the ride date/time string shown to users and the numeric
+ * departure time (epoch milliseconds) used for ordering and range queries.
+ */
+public final class RideDates {
+
+    /** Format of Ride.dateTime, e.g. "04-25-2025 03:30 PM" */
+    public static final String DATE_TIME_PATTERN = "MM-dd-yyyy hh:mm a";
+
+    /** Format of the day partitions of open rides, e.g. "20250425", in UTC */
+    public static final String DAY_PATTERN = "yyyyMMdd";
+
+    public static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+
+    // Every decoded compact ride formats its departure, so each thread reuses one calendar
+    // instead of building a SimpleDateFormat per ride
+    private static final ThreadLocal<Calendar> CALENDAR =
+            ThreadLocal.withInitial(() -> Calendar.getInstance(Locale.US));
+
+    private RideDates() {}
+
+    /**
+     * Parses a ride date/time string into epoch milliseconds.
+     *
+     * @param dateTime Date/time in the "MM-dd-yyyy hh:mm a" format
+     * @return The departure time in epoch milliseconds
+     * @throws ParseException If the string is not in the expected format
+     */
+    public static long parseDepartureMillis(String dateTime) throws ParseException {
+        // SimpleDateFormat is not thread-safe, so each call gets its own instance
+        SimpleDateFormat format = new SimpleDateFormat(DATE_TIME_PATTERN, Locale.US);
+        Date date = format.parse(dateTime);
+        if (date == null) {
+            throw new ParseException("Unparseable date: " + dateTime, 0);
+        }
+        return date.getTime();
+    }
+
+    /**
+     * Formats epoch milliseconds as a ride date/time string.
+     *
+     * @param millis The departure time in epoch milliseconds
+     * @return Date/time in the "MM-dd-yyyy hh:mm a" format
+     */
+    public static String formatDateTime(long millis) {
+        Calendar calendar = CALENDAR.get();
+        calendar.setTimeZone(TimeZone.getDefault());
+        calendar.setTimeInMillis(millis);
+        int year = calendar.get(Calendar.YEAR);
+        if (calendar.get(Calendar.ERA) != GregorianCalendar.AD || year > 9999) {
+            return new SimpleDateFormat(DATE_TIME_PATTERN, Locale.US).format(new Date(millis));
+        }
+
+        int hour = calendar.get(Calendar.HOUR);
+        char[] chars = new char["04-25-2025 03:30 PM".length()];
+        putDigits(chars, 0, calendar.get(Calendar.MONTH) + 1, 2);
+        chars[2] = '-';
+        putDigits(chars, 3, calendar.get(Calendar.DAY_OF_MONTH), 2);
+        chars[5] = '-';
+        putDigits(chars, 6, year, 4);
+        chars[10] = ' ';
+        putDigits(chars, 11, hour == 0 ? 12 : hour, 2);
+        chars[13] = ':';
+        putDigits(chars, 14, calendar.get(Calendar.MINUTE), 2);
+        chars[16] = ' ';
+        chars[17] = calendar.get(Calendar.AM_PM) == Calendar.AM ? 'A' : 'P';
+        chars[18] = 'M';
+        return new String(chars);
+    }
+
+    private static void putDigits(char[] chars, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    /**
+     * Returns the UTC day a departure falls on. Days are UTC so every device and the sweeper
+     * agree on a ride's partition whatever their time zone.
+     *
+     * @param millis The departure time in epoch milliseconds
+     * @return The day in the "yyyyMMdd" format
+     */
+    public static String dayKey(long millis) {
+        SimpleDateFormat format = new SimpleDateFormat(DAY_PATTERN, Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(new Date(millis));
+    }
+
+    /**
+     * Returns consecutive UTC days, starting with the one containing a time.
+     *
+     * @param millis A time in epoch milliseconds, e.g. now
+     * @param count  Number of days
+     * @return The days in the "yyyyMMdd" format, in order
+     */
+    public static List<String> dayKeys(long millis, int count) {
+        List<String> days = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            days.add(dayKey(millis + i * DAY_MILLIS));
+        }
+        return days;
+    }
+}
@@ -0,0 +1,87 @@
+package edu.uga.cs.rideshareapp;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads ride data is processed on. Snapshots are decoded and ride lists mapped and filtered
+ * on a small fixed pool of background threads, so a large load never holds up input or
+ * drawing; only the finished results are posted to the main thread.
+ */
+final class RideExecutors {
+
+    /** Enough to keep a query decoding while a screen's list is prepared */
+    private static final int THREADS = 2;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private static final ExecutorService BACKGROUND = Executors.newFixedThreadPool(THREADS, task -> {
+        Thread thread = new Thread(task, "ride-worker-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+
+    private RideExecutors() {}
+
+    /**
+     * @return The shared background pool
+     */
+    static Executor background() {
+        return BACKGROUND;
+    }
+
+    /**
+     * Returns a new executor running its tasks one at a time, in the order they were given,
+     * on the background pool. Each task sees everything the tasks before it did, so state
+     * touched only by its tasks needs no locking.
+     *
+     * @return The executor
+     */
+    static Executor serial() {
+        return new SerialExecutor();
+    }
+
+    /**
+     * Runs a task on the main thread, after the tasks already posted there.
+     *
+     * @param task The task
+     */
+    static void postToMain(Runnable task) {
+        MAIN.post(task);
+    }
+
+    /**
+     * Queues tasks and hands them to the pool one at a time, so a busy queue never holds
+     * more than one pool thread.
+     */
+    private static final class SerialExecutor implements Executor {
+
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private Runnable active;
+
+        @Override
+        public synchronized void execute(Runnable task) {
+            tasks.add(() -> {
+                try {
+                    task.run();
+                } finally {
+                    scheduleNext();
+                }
+            });
+            if (active == null) scheduleNext();
+        }
+
+        private synchronized void scheduleNext() {
+            active = tasks.poll();
+            if (active != null) BACKGROUND.execute(active);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package edu.uga.cs.rideshareapp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ordered in-memory list of rides that is updated one ride at a time.
+ * Rides are kept sorted and filtered as they are added, changed or removed, and each
+ * change is reported to a {@link Listener} as a single-row insert, change, move or removal,
+ * so a RecyclerView only rebinds the rows that actually changed.
+ */
+public class RideFeed {
+
+    /**
+     * Receives row-level changes to the feed.
+     */
+    public interface Listener {
+        void onRideInserted(int position);
+        void onRideChanged(int position);
+        void onRideRemoved(int position);
+        void onRideMoved(int fromPosition, int toPosition);
+        void onRidesCleared(int count);
+    }
+
+    /**
+     * Decides whether a ride belongs in the feed.
+     */
+    public interface Filter {
+        boolean matches(Ride ride);
+    }
+
+    private final List<Ride> rides = new ArrayList<>();
+    private final List<Ride> readOnlyRides = Collections.unmodifiableList(rides);
+    private final Map<String, Ride> ridesByKey = new HashMap<>();
+    private final Comparator<Ride> order;
+    private final Filter filter;
+    private Listener listener;
+
+    /**
+     * Creates an empty feed.
+     *
+     * @param order  Display order of the rides; ties are broken by ride key
+     * @param filter Rides that do not match are kept out of the feed
+     */
+    public RideFeed(Comparator<Ride> order, Filter filter) {
+        this.order = (ride1, ride2) -> {
+            int result = order.compare(ride1, ride2);
+            return result != 0 ? result : ride1.getKey().compareTo(ride2.getKey());
+        };
+        this.filter = filter;
+    }
+
+    /**
+     * Sets the listener notified of row-level changes.
+     *
+     * @param listener The listener, or null to stop notifying
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Returns a read-only, always current view of the rides in display order.
+     *
+     * @return The rides in the feed
+     */
+    public List<Ride> getRides() {
+        return readOnlyRides;
+    }
+
+    /**
+     * Adds a ride, or replaces the ride with the same key.
+     * A ride that no longer matches the filter is removed.
+     *
+     * @param ride The ride to add or update; its key must be set
+     */
+    public void put(Ride ride) {
+        if (!filter.matches(ride)) {
+            remove(ride.getKey());
+            return;
+        }
+
+        Ride previous = ridesByKey.put(ride.getKey(), ride);
+        if (previous == null) {
+            int position = insertionPoint(ride);
+            rides.add(position, ride);
+            if (listener != null) listener.onRideInserted(position);
+            return;
+        }
+
+        int from = Collections.binarySearch(rides, previous, order);
+        if (previous.hasSameContent(ride)) {
+            // Re-delivered without changes (e.g. a re-attached listener): nothing to rebind
+            rides.set(from, ride);
+            return;
+        }
+        rides.remove(from);
+        int to = insertionPoint(ride);
+        rides.add(to, ride);
+        if (listener != null) {
+            if (from != to) listener.onRideMoved(from, to);
+            listener.onRideChanged(to);
+        }
+    }
+
+    /**
+     * Removes the ride with the given key, if it is in the feed.
+     *
+     * @param key The Firebase key of the ride
+     */
+    public void remove(String key) {
+        Ride previous = ridesByKey.remove(key);
+        if (previous == null) return;
+
+        int position = Collections.binarySearch(rides, previous, order);
+        rides.remove(position);
+        if (listener != null) listener.onRideRemoved(position);
+    }
+
+    /**
+     * Removes every ride from the feed.
+     */
+    public void clear() {
+        int count = rides.size();
+        rides.clear();
+        ridesByKey.clear();
+        if (listener != null && count > 0) listener.onRidesCleared(count);
+    }
+
+    /**
+     * Finds the position a ride not currently in the list should be inserted at.
+     *
+     * @param ride The ride to place
+     * @return The index that keeps the list sorted
+     */
+    private int insertionPoint(Ride ride) {
+        int index = Collections.binarySearch(rides, ride, order);
+        return index < 0 ? -(index + 1) : index;
+    }
+}
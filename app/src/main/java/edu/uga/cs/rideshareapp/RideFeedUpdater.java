@@ -0,0 +1,40 @@
+package edu.uga.cs.rideshareapp;
+
+/**
+ * RideSubscriber that applies repository updates to a {@link RideFeed} one ride at a time,
+ * instead of re-reading the whole query result on every change.
+ * Subclasses can override {@link #onError(String)} to report errors.
+ */
+public class RideFeedUpdater implements RideRepository.RideSubscriber {
+
+    private final RideFeed feed;
+
+    /**
+     * Creates an updater for the given feed.
+     *
+     * @param feed The feed that receives the ride changes
+     */
+    public RideFeedUpdater(RideFeed feed) {
+        this.feed = feed;
+    }
+
+    /**
+     * Adds a newly matching ride to the feed, or replaces a changed one.
+     *
+     * @param ride The current ride, with its key set
+     */
+    @Override
+    public void onRidePut(Ride ride) {
+        feed.put(ride);
+    }
+
+    /**
+     * Removes a ride that no longer matches the query.
+     *
+     * @param rideKey The Firebase key of the ride
+     */
+    @Override
+    public void onRideRemoved(String rideKey) {
+        feed.remove(rideKey);
+    }
+}
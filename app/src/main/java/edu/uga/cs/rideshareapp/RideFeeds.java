@@ -0,0 +1,35 @@
+package edu.uga.cs.rideshareapp;
+
+import java.util.Comparator;
+
+/**
+ * Orders and filters of the app's ride feeds. Kept free of Android types so the host
+ * benchmarks exercise exactly the rules the screens use.
+ */
+public final class RideFeeds {
+
+    /** Chronological order of every ride list */
+    public static final Comparator<Ride> BY_DEPARTURE =
+            (ride1, ride2) -> Long.compare(ride1.departureEpochMillis, ride2.departureEpochMillis);
+
+    /** Accepted rides that have not been confirmed by both users, i.e. the dashboard's rides */
+    public static final RideFeed.Filter ACTIVE =
+            ride -> ride.accepted && !(ride.driverConfirmed && ride.riderConfirmed);
+
+    /** Every ride, for feeds whose query already selects exactly the rides shown */
+    public static final RideFeed.Filter ALL = ride -> true;
+
+    private RideFeeds() {}
+
+    /**
+     * Checks whether a ride was posted by someone other than the given user.
+     *
+     * @param ride The ride to check
+     * @param uid  The Firebase UID of the viewing user
+     * @return True if the ride has a poster and it is not the viewing user
+     */
+    public static boolean isPostedByOther(Ride ride, String uid) {
+        String poster = "offer".equals(ride.rideType) ? ride.driverId : ride.riderId;
+        return poster != null && !poster.equals(uid);
+    }
+}
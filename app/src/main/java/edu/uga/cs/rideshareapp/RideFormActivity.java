@@ -20,16 +20,8 @@ import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
-import java.util.Date;
-import java.util.Locale;
 
 /**
  * Activity that allows the user to post a new ride offer or request.
@@ -136,7 +128,7 @@ public class RideFormActivity extends AppCompatActivity {
 
     /**
      * Validates form input, constructs a Ride object,
-     * and either posts a new ride or updates an existing one in Firebase.
+     * and either posts a new ride or updates an existing one.
      */
     private void submitRideForm() {
         String from = startingPointInput.getText().toString().trim();
@@ -157,10 +149,10 @@ public class RideFormActivity extends AppCompatActivity {
 
         // Ensure selected date/time is in the future
         String dtStr = date + " " + time;
-        SimpleDateFormat sdf = new SimpleDateFormat("MM-dd-yyyy hh:mm a", Locale.getDefault());
+        long departureMillis;
         try {
-            Date sel = sdf.parse(dtStr);
-            if (sel != null && sel.before(new Date())) {
+            departureMillis = RideDates.parseDepartureMillis(dtStr);
+            if (departureMillis < System.currentTimeMillis()) {
                 Toast.makeText(this,
                         "Please select a date/time in the future.",
                         Toast.LENGTH_SHORT).show();
@@ -173,11 +165,10 @@ public class RideFormActivity extends AppCompatActivity {
             return;
         }
 
-        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        UserSession user = UserSession.current();
         if (user == null) return;
 
-        String uid       = user.getUid();
-        String email     = user.getEmail();
+        String uid       = user.uid;
         String rideType  = (checked == R.id.rideOffer) ? "offer" : "request";
 
         // Create a new Ride object
@@ -190,18 +181,32 @@ public class RideFormActivity extends AppCompatActivity {
                 dtStr,
                 false,   // accepted
                 false,   // driverConfirmed
-                false,   // riderConfirmed
-                rideType.equals("offer") ? email   : null,
-                rideType.equals("request") ? email : null
+                false    // riderConfirmed
         );
+        ride.departureEpochMillis = departureMillis;
+
+        // Look up where the places are before saving, so the ride can be matched by distance;
+        // the query keys include the starting location's cell
+        postRideButton.setEnabled(false);
+        RideGeocoder.locate(this, ride).addOnCompleteListener(this, located -> {
+            postRideButton.setEnabled(true);
+            ride.updateQueryKeys();
+            saveRide(uid, ride);
+        });
+    }
 
-        DatabaseReference dbRef = FirebaseDatabase.getInstance()
-                .getReference("rides");
+    /**
+     * Posts a new ride or updates the edited one, then closes the form.
+     *
+     * @param uid  The posting user's UID
+     * @param ride The ride to save
+     */
+    private void saveRide(String uid, Ride ride) {
+        RideRepository repository = RideRepositories.get();
 
         if (isEdit) {
             // Update existing ride
-            dbRef.child(rideKey)
-                    .setValue(ride)
+            repository.saveRide(rideKey, uid, ride)
                     .addOnSuccessListener(a -> {
                         Toast.makeText(this,
                                 "Ride updated",
@@ -215,8 +220,7 @@ public class RideFormActivity extends AppCompatActivity {
                     );
         } else {
             // Push new ride
-            dbRef.push()
-                    .setValue(ride)
+            repository.saveRide(null, uid, ride)
                     .addOnSuccessListener(a -> {
                         Toast.makeText(this,
                                 "Ride posted successfully!",
@@ -0,0 +1,99 @@
+package edu.uga.cs.rideshareapp;
+
+import android.content.Context;
+import android.location.Address;
+import android.location.Geocoder;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Looks up the coordinates of a ride's places with the platform geocoder, so rides can be
+ * matched by distance. The geocoder blocks on the network, so lookups run on a background
+ * thread; recent places are cached, since users post from the same few places again and again.
+ */
+final class RideGeocoder {
+
+    private static final String TAG = "RideGeocoder";
+    private static final int CACHE_SIZE = 64;
+
+    private static final Executor EXECUTOR = Executors.newSingleThreadExecutor();
+
+    /** Most recently used places last; a cached null means the place was not found */
+    private static final Map<String, double[]> CACHE =
+            new LinkedHashMap<String, double[]>(CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, double[]> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+
+    private RideGeocoder() {}
+
+    /**
+     * Sets the coordinates of a ride's starting point and destination. If either cannot be
+     * found, e.g. offline or on a device without a geocoder, the ride is left without
+     * coordinates; it can still be posted, it just takes no part in matching.
+     *
+     * @param context Any context
+     * @param ride    The ride, with from and to set
+     * @return A task that always succeeds once the ride is updated, on the main thread
+     */
+    static Task<Void> locate(Context context, Ride ride) {
+        TaskCompletionSource<Void> done = new TaskCompletionSource<>();
+        if (!Geocoder.isPresent()) {
+            done.setResult(null);
+            return done.getTask();
+        }
+
+        Geocoder geocoder = new Geocoder(context.getApplicationContext(), Locale.US);
+        String from = ride.from;
+        String to = ride.to;
+        EXECUTOR.execute(() -> {
+            double[] fromPoint = lookUp(geocoder, from);
+            double[] toPoint = fromPoint != null ? lookUp(geocoder, to) : null;
+            if (fromPoint != null && toPoint != null) {
+                ride.fromLat = fromPoint[0];
+                ride.fromLng = fromPoint[1];
+                ride.toLat = toPoint[0];
+                ride.toLng = toPoint[1];
+            }
+            done.setResult(null);
+        });
+        return done.getTask();
+    }
+
+    private static double[] lookUp(Geocoder geocoder, String place) {
+        String key = place.trim().toLowerCase(Locale.US);
+        synchronized (CACHE) {
+            if (CACHE.containsKey(key)) return CACHE.get(key);
+        }
+
+        double[] point = null;
+        try {
+            List<Address> addresses = geocoder.getFromLocationName(place, 1);
+            if (addresses != null && !addresses.isEmpty()) {
+                Address address = addresses.get(0);
+                point = new double[] { address.getLatitude(), address.getLongitude() };
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // Not cached, so the next post tries again
+            Log.w(TAG, "Could not geocode " + place, e);
+            return null;
+        }
+
+        synchronized (CACHE) {
+            CACHE.put(key, point);
+        }
+        return point;
+    }
+}
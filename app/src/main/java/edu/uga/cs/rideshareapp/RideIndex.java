@@ -0,0 +1,133 @@
+package edu.uga.cs.rideshareapp;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Database paths for rides, the per-user ride index, the completed-ride archive and user points.
+ * Every ride a user has posted or accepted gets an entry under userRides/{uid}/{rideKey},
+ * so a user's dashboard only has to read their own rides instead of every accepted ride.
+ *
+ * Open rides are also copied into a partition per departure day, openRides/{yyyyMMdd}/{rideKey},
+ * so feeds of upcoming rides read only the days they show and expired days are deleted whole.
+ */
+public final class RideIndex {
+
+    /** Root node holding every ride */
+    public static final String RIDES = "rides";
+
+    /** Root node of the per-user ride index */
+    public static final String USER_RIDES = "userRides";
+
+    /** Root node archiving rides both users have confirmed */
+    public static final String COMPLETED_RIDES = "completedRides";
+
+    /** Root node holding user profiles and point balances */
+    public static final String USERS = "users";
+
+    /** Root node of the day partitions of open rides */
+    public static final String OPEN_RIDES = "openRides";
+
+    private RideIndex() {}
+
+    /**
+     * Returns the path of a ride relative to the database root.
+     *
+     * @param rideKey The Firebase key of the ride
+     * @return Path in the form "rides/{rideKey}"
+     */
+    public static String ridePath(String rideKey) {
+        return RIDES + "/" + rideKey;
+    }
+
+    /**
+     * Returns the path of an open ride's copy in the partition of its departure day.
+     *
+     * @param departureEpochMillis Departure time of the ride in epoch milliseconds
+     * @param rideKey              The Firebase key of the ride
+     * @return Path in the form "openRides/{yyyyMMdd}/{rideKey}"
+     */
+    public static String openRidePath(long departureEpochMillis, String rideKey) {
+        return OPEN_RIDES + "/" + RideDates.dayKey(departureEpochMillis) + "/" + rideKey;
+    }
+
+    /**
+     * Returns the path of an archived, completed ride relative to the database root.
+     *
+     * @param rideKey The Firebase key of the ride
+     * @return Path in the form "completedRides/{rideKey}"
+     */
+    public static String completedRidePath(String rideKey) {
+        return COMPLETED_RIDES + "/" + rideKey;
+    }
+
+    /**
+     * Returns the path of a user's point balance relative to the database root.
+     *
+     * @param uid The Firebase UID of the user
+     * @return Path in the form "users/{uid}/points"
+     */
+    public static String userPointsPath(String uid) {
+        return USERS + "/" + uid + "/points";
+    }
+
+    /**
+     * Returns the path of a user's email relative to the database root.
+     *
+     * @param uid The Firebase UID of the user
+     * @return Path in the form "users/{uid}/email"
+     */
+    public static String userEmailPath(String uid) {
+        return USERS + "/" + uid + "/email";
+    }
+
+    /**
+     * Returns the path of a user's index entry for a ride, relative to the database root.
+     *
+     * @param uid     The Firebase UID of the user
+     * @param rideKey The Firebase key of the ride
+     * @return Path in the form "userRides/{uid}/{rideKey}"
+     */
+    public static String userRidePath(String uid, String rideKey) {
+        return USER_RIDES + "/" + uid + "/" + rideKey;
+    }
+
+    /**
+     * Builds the multi-path update accepting an open ride: its status, the accepting user and
+     * the query keys derived from them, the user's index entry and the removal of the ride's
+     * partition copy, applied all together or not at all.
+     *
+     * The ride's type and departure, which the keys and the copy's day come from, are written
+     * unchanged along with them. The database rules reject the update if the ride was edited
+     * since it was read, as they do if it was accepted by someone else or deleted meanwhile.
+     *
+     * @param ride The open ride as read, with its key set
+     * @param uid  The Firebase UID of the accepting user
+     * @return The updates, relative to the database root
+     */
+    public static Map<String, Object> acceptUpdates(Ride ride, String uid) {
+        boolean offer = "offer".equals(ride.rideType);
+        Ride accepted = new Ride(ride);
+        if (offer) {
+            accepted.riderId = uid;
+        } else {
+            accepted.driverId = uid;
+        }
+        accepted.accepted = true;
+        accepted.updateQueryKeys();
+
+        String rideKey = ride.getKey();
+        String path = ridePath(rideKey) + "/";
+        Map<String, Object> encoded = RideCodec.encode(accepted);
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(path + RideCodec.FIELD_STATUS, encoded.get(RideCodec.FIELD_STATUS));
+        updates.put(path + (offer ? RideCodec.FIELD_RIDER_ID : RideCodec.FIELD_DRIVER_ID), uid);
+        updates.put(path + RideCodec.FIELD_TYPE, encoded.get(RideCodec.FIELD_TYPE));
+        updates.put(path + RideCodec.FIELD_DEPARTURE, ride.departureEpochMillis);
+        updates.put(path + RideCodec.FIELD_STATUS_TYPE_DEPARTURE, accepted.statusTypeDeparture);
+        updates.put(path + RideCodec.FIELD_POSTER_STATUS_TYPE, accepted.posterStatusType);
+        updates.put(userRidePath(uid, rideKey), true);
+        updates.put(openRidePath(ride.departureEpochMillis, rideKey), null);
+        return updates;
+    }
+}
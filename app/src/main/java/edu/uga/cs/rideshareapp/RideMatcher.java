@@ -0,0 +1,215 @@
+package edu.uga.cs.rideshareapp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Finds the open ride offers that suit a ride request: pickup and drop-off within a radius of
+ * the request's and departure within a time window of it.
+ *
+ * Offers are indexed by the geohash cell of their pickup and the hour of their departure.
+ * Cells are at least as tall as the radius, so the few cells covering the radius around a
+ * request's pickup and the hours of its window hold every compatible offer; a match only
+ * looks at those, not at every offer. The index is kept up to date one ride at a time,
+ * like a {@link RideFeed}. Not thread-safe.
+ */
+public final class RideMatcher {
+
+    /** Departure buckets; a window of w hours looks at about 2w + 1 of them */
+    private static final long BUCKET_MILLIS = 60 * 60 * 1000L;
+
+    /** Bits of the bucket in an index key; enough for hours since 1970 until the year 2448 */
+    private static final int BUCKET_BITS = 22;
+    private static final long BUCKET_MASK = (1L << BUCKET_BITS) - 1;
+
+    /** Largest cell precision, keeping cell and bucket in one long */
+    private static final int MAX_CELL_BITS = 40;
+
+    /**
+     * A compatible offer, with how far it is from the request.
+     */
+    public static final class Match {
+
+        public final Ride offer;
+        public final double pickupMeters;
+        public final double dropOffMeters;
+        public final long departureDeltaMillis;
+
+        /** Sum of the three distances, each relative to its limit; lower is better */
+        public final double score;
+
+        Match(Ride offer, double pickupMeters, double dropOffMeters, long departureDeltaMillis, double score) {
+            this.offer = offer;
+            this.pickupMeters = pickupMeters;
+            this.dropOffMeters = dropOffMeters;
+            this.departureDeltaMillis = departureDeltaMillis;
+            this.score = score;
+        }
+    }
+
+    /**
+     * An indexed offer, with its position in its bucket so it can be removed in constant time.
+     */
+    private static final class Entry {
+        final Ride ride;
+        final long indexKey;
+        int slot;
+
+        Entry(Ride ride, long indexKey) {
+            this.ride = ride;
+            this.indexKey = indexKey;
+        }
+    }
+
+    /** Initial capacity of the best matches kept during a lookup */
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final Comparator<Match> WORST_FIRST = (a, b) -> Double.compare(b.score, a.score);
+
+    private final double radiusMeters;
+    private final long windowMillis;
+    private final int cellBits;
+
+    private final Map<Long, ArrayList<Entry>> buckets = new HashMap<>();
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * Creates an empty matcher.
+     *
+     * @param radiusMeters How far an offer's pickup and drop-off may be from the request's
+     * @param windowMillis How far an offer's departure may be from the request's, either way
+     */
+    public RideMatcher(double radiusMeters, long windowMillis) {
+        this.radiusMeters = radiusMeters;
+        this.windowMillis = windowMillis;
+
+        // The finest cells that are still at least as tall as the radius
+        int latBits = (int) Math.floor(Math.log(180 / GeoHash.metersToLatDegrees(radiusMeters)) / Math.log(2));
+        this.cellBits = Math.max(2, Math.min(MAX_CELL_BITS, 2 * latBits));
+    }
+
+    /**
+     * Adds or replaces a ride. Rides that are not open offers with coordinates are dropped,
+     * so a feed's updates can be passed on as they are.
+     *
+     * @param ride The ride, with its key set; it must not be modified while indexed
+     */
+    public void put(Ride ride) {
+        remove(ride.getKey());
+        if (!"offer".equals(ride.rideType) || ride.accepted || !ride.hasCoordinates()) return;
+
+        Entry entry = new Entry(ride, indexKey(
+                GeoHash.encode(ride.fromLat, ride.fromLng, cellBits),
+                ride.departureEpochMillis / BUCKET_MILLIS));
+        ArrayList<Entry> bucket = buckets.get(entry.indexKey);
+        if (bucket == null) {
+            bucket = new ArrayList<>();
+            buckets.put(entry.indexKey, bucket);
+        }
+        entry.slot = bucket.size();
+        bucket.add(entry);
+        entries.put(ride.getKey(), entry);
+    }
+
+    /**
+     * Removes a ride, if indexed.
+     *
+     * @param rideKey The Firebase key of the ride
+     */
+    public void remove(String rideKey) {
+        Entry entry = entries.remove(rideKey);
+        if (entry == null) return;
+
+        // Move the bucket's last entry into the freed slot
+        ArrayList<Entry> bucket = buckets.get(entry.indexKey);
+        Entry last = bucket.remove(bucket.size() - 1);
+        if (last != entry) {
+            last.slot = entry.slot;
+            bucket.set(entry.slot, last);
+        }
+        if (bucket.isEmpty()) buckets.remove(entry.indexKey);
+    }
+
+    /**
+     * Removes every ride.
+     */
+    public void clear() {
+        buckets.clear();
+        entries.clear();
+    }
+
+    /**
+     * @return The number of indexed offers
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the offers compatible with a request, best first. Offers posted by the request's
+     * rider are skipped.
+     *
+     * @param request The request, with coordinates
+     * @param limit   The most offers to return
+     * @return Up to limit matches, lowest score first; empty if the request has no coordinates
+     */
+    public List<Match> match(Ride request, int limit) {
+        if (!request.hasCoordinates() || limit <= 0) return Collections.emptyList();
+
+        // Sized for a screenful of matches; a large limit, e.g. every match, grows it as needed
+        PriorityQueue<Match> best = new PriorityQueue<>(Math.min(limit, INITIAL_CAPACITY), WORST_FIRST);
+        long firstBucket = (request.departureEpochMillis - windowMillis) / BUCKET_MILLIS;
+        long lastBucket = (request.departureEpochMillis + windowMillis) / BUCKET_MILLIS;
+
+        for (long cell : GeoHash.cellsCovering(request.fromLat, request.fromLng, radiusMeters, cellBits)) {
+            for (long bucketIndex = firstBucket; bucketIndex <= lastBucket; bucketIndex++) {
+                ArrayList<Entry> bucket = buckets.get(indexKey(cell, bucketIndex));
+                if (bucket == null) continue;
+
+                for (int i = 0, n = bucket.size(); i < n; i++) {
+                    Match match = score(request, bucket.get(i).ride);
+                    if (match == null) continue;
+                    if (best.size() < limit) {
+                        best.add(match);
+                    } else if (match.score < best.peek().score) {
+                        best.poll();
+                        best.add(match);
+                    }
+                }
+            }
+        }
+
+        List<Match> matches = new ArrayList<>(best);
+        Collections.sort(matches, Collections.reverseOrder(WORST_FIRST));
+        return matches;
+    }
+
+    /**
+     * Checks an offer against a request.
+     *
+     * @return The match, or null if the offer is out of range or the rider's own
+     */
+    private Match score(Ride request, Ride offer) {
+        long delta = offer.departureEpochMillis - request.departureEpochMillis;
+        if (Math.abs(delta) > windowMillis) return null;
+        if (offer.driverId != null && offer.driverId.equals(request.riderId)) return null;
+
+        double pickup = GeoHash.distanceMeters(request.fromLat, request.fromLng, offer.fromLat, offer.fromLng);
+        if (pickup > radiusMeters) return null;
+        double dropOff = GeoHash.distanceMeters(request.toLat, request.toLng, offer.toLat, offer.toLng);
+        if (dropOff > radiusMeters) return null;
+
+        double score = pickup / radiusMeters + dropOff / radiusMeters
+                + (double) Math.abs(delta) / Math.max(windowMillis, 1);
+        return new Match(offer, pickup, dropOff, delta, score);
+    }
+
+    private static long indexKey(long cell, long bucket) {
+        return (cell << BUCKET_BITS) | (bucket & BUCKET_MASK);
+    }
+}
@@ -0,0 +1,291 @@
+package edu.uga.cs.rideshareapp;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DataSnapshot;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-app metrics for ride data operations: counters, and histograms of durations and sizes.
+ * The repository times every query's initial load, snapshot parse and write and estimates
+ * the bytes each query pulls; the adapters time their list diffs. Names are dot-separated,
+ * e.g. "query.USER_RIDES.load" or "write.finalizeRide.failures".
+ *
+ * Histograms keep counts in logarithmic buckets with eight linear steps each, so recording
+ * takes constant time and memory and percentiles are accurate to about 12%. Every method is
+ * thread-safe; {@link #export(File)} does file I/O and belongs off the main thread.
+ */
+public final class RideMetrics {
+
+    private static final String TAG = "RideMetrics";
+
+    /** Summary of the last export, overwritten each time */
+    static final String SUMMARY_FILE = "ride-metrics.txt";
+
+    /** History of every export, one line per metric, dropped once it grows past the cap */
+    static final String HISTORY_FILE = "ride-metrics.csv";
+    private static final long HISTORY_MAX_BYTES = 1024 * 1024;
+
+    private static final RideMetrics INSTANCE = new RideMetrics();
+
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final boolean recordPayloads = BuildConfig.DEBUG || BuildConfig.METRICS_OVERLAY;
+
+    private RideMetrics() {}
+
+    /**
+     * Returns the app's metrics.
+     *
+     * @return The metrics
+     */
+    public static RideMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Tells whether payload sizes are estimated. Estimating walks each snapshot a second time,
+     * so it is on in debug builds and with the overlay only.
+     *
+     * @return True if callers should record {@link #sizeOf(DataSnapshot)}
+     */
+    public boolean recordsPayloads() {
+        return recordPayloads;
+    }
+
+    /**
+     * Adds one to a counter.
+     *
+     * @param name The counter's name
+     */
+    public void count(String name) {
+        AtomicLong counter = counters.get(name);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(name, key -> new AtomicLong());
+        }
+        counter.incrementAndGet();
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param name       The timer's name
+     * @param startNanos When the operation started, from System.nanoTime()
+     */
+    public void stopTimer(String name, long startNanos) {
+        histogram(name, true).record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Records a size, such as a payload's bytes or a list's rows.
+     *
+     * @param name  The histogram's name
+     * @param value The value, not negative
+     */
+    public void record(String name, long value) {
+        histogram(name, false).record(value);
+    }
+
+    /**
+     * Times a database write from now until it completes. Failures are counted under
+     * "{name}.failures" and logged instead.
+     *
+     * @param name The timer's name
+     * @param task The write
+     * @return The same task, for chaining
+     */
+    public <T> Task<T> time(String name, Task<T> task) {
+        long start = System.nanoTime();
+        task.addOnCompleteListener(done -> {
+            if (done.isSuccessful()) {
+                stopTimer(name, start);
+            } else {
+                count(name + ".failures");
+                Log.w(TAG, name + " failed", done.getException());
+            }
+        });
+        return task;
+    }
+
+    /**
+     * Wraps a list's commit callback so the time from submitting the list until the diff is
+     * applied is recorded.
+     *
+     * @param name           The timer's name
+     * @param commitCallback The caller's callback, or null
+     * @return The callback to pass to submitList()
+     */
+    public Runnable timeCommit(String name, Runnable commitCallback) {
+        long start = System.nanoTime();
+        return () -> {
+            stopTimer(name, start);
+            if (commitCallback != null) commitCallback.run();
+        };
+    }
+
+    /**
+     * Estimates the bytes a snapshot took on the wire as the length of its JSON.
+     *
+     * @param snapshot The snapshot
+     * @return The estimated size in bytes
+     */
+    public static long sizeOf(DataSnapshot snapshot) {
+        long size = snapshot.getKey() != null ? snapshot.getKey().length() + 3 : 0;
+        if (!snapshot.hasChildren()) {
+            Object value = snapshot.getValue();
+            return size + (value instanceof String ? ((String) value).length() + 2 : String.valueOf(value).length());
+        }
+        size += 2;
+        for (DataSnapshot child : snapshot.getChildren()) {
+            size += sizeOf(child) + 1;
+        }
+        return size;
+    }
+
+    /**
+     * Formats every metric, sorted by name: counters with their total, histograms with their
+     * count, median, tail and maximum, durations in milliseconds.
+     *
+     * @return One line per metric
+     */
+    public List<String> report() {
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, AtomicLong> counter : new TreeMap<>(counters).entrySet()) {
+            lines.add(String.format(Locale.US, "%s n=%d", counter.getKey(), counter.getValue().get()));
+        }
+        for (Map.Entry<String, Histogram> histogram : new TreeMap<>(histograms).entrySet()) {
+            lines.add(histogram.getKey() + " " + histogram.getValue());
+        }
+        return lines;
+    }
+
+    /**
+     * Writes the report to logcat, overwrites the summary file and appends to the history
+     * file in the given directory.
+     *
+     * @param directory Directory for the metrics files, e.g. the app's files directory
+     */
+    public void export(File directory) {
+        List<String> lines = report();
+        for (String line : lines) {
+            Log.i(TAG, line);
+        }
+
+        long now = System.currentTimeMillis();
+        File summary = new File(directory, SUMMARY_FILE);
+        File history = new File(directory, HISTORY_FILE);
+        if (history.length() > HISTORY_MAX_BYTES && !history.delete()) {
+            Log.w(TAG, "Could not trim " + history);
+        }
+
+        try (Writer summaryWriter = new FileWriter(summary, false);
+             Writer historyWriter = new FileWriter(history, true)) {
+            for (String line : lines) {
+                summaryWriter.write(line);
+                summaryWriter.write('\n');
+                historyWriter.write(now + "," + line.replace(' ', ',') + '\n');
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Could not write metrics to " + directory, e);
+        }
+    }
+
+    private Histogram histogram(String name, boolean nanos) {
+        Histogram histogram = histograms.get(name);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(name, key -> new Histogram(nanos));
+        }
+        return histogram;
+    }
+
+    /**
+     * Log-linear histogram of non-negative values: values below 8 have a bucket each, larger
+     * ones are bucketed by their highest bit and the three bits below it.
+     */
+    static final class Histogram {
+
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+        private final boolean nanos;
+        private final long[] buckets = new long[(64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS];
+        private long count;
+        private long sum;
+        private long max;
+
+        Histogram(boolean nanos) {
+            this.nanos = nanos;
+        }
+
+        synchronized void record(long value) {
+            value = Math.max(value, 0);
+            buckets[bucketOf(value)]++;
+            count++;
+            sum += value;
+            max = Math.max(max, value);
+        }
+
+        synchronized long count() {
+            return count;
+        }
+
+        /**
+         * Returns the upper bound of the bucket holding the given percentile, capped at the
+         * largest value recorded.
+         *
+         * @param fraction The percentile as a fraction, e.g. 0.99
+         * @return The approximate value at that percentile, 0 if nothing was recorded
+         */
+        synchronized long percentile(double fraction) {
+            long rank = Math.max(1, (long) Math.ceil(fraction * count));
+            long seen = 0;
+            for (int bucket = 0; bucket < buckets.length; bucket++) {
+                seen += buckets[bucket];
+                if (seen >= rank) return Math.min(upperBound(bucket), max);
+            }
+            return 0;
+        }
+
+        @Override
+        public synchronized String toString() {
+            if (nanos) {
+                return String.format(Locale.US, "n=%d p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms",
+                        count, millis(percentile(0.5)), millis(percentile(0.9)),
+                        millis(percentile(0.99)), millis(max));
+            }
+            return String.format(Locale.US, "n=%d p50=%d p90=%d p99=%d max=%d sum=%d",
+                    count, percentile(0.5), percentile(0.9), percentile(0.99), max, sum);
+        }
+
+        private static int bucketOf(long value) {
+            if (value < SUB_BUCKETS) return (int) value;
+            int highestBit = 63 - Long.numberOfLeadingZeros(value);
+            int subBucket = (int) (value >>> (highestBit - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return (highestBit - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+        }
+
+        private static long upperBound(int bucket) {
+            if (bucket < SUB_BUCKETS) return bucket;
+            int highestBit = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+            long subBucket = bucket % SUB_BUCKETS;
+            long width = 1L << (highestBit - SUB_BUCKET_BITS);
+            return (1L << highestBit) + (subBucket + 1) * width - 1;
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1e6;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package edu.uga.cs.rideshareapp;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Exports {@link RideMetrics} to logcat and to the app's files directory whenever the app goes
+ * to the background, so every session leaves its numbers behind, e.g. for
+ * {@code adb shell run-as edu.uga.cs.rideshareapp cat files/metrics/ride-metrics.txt}.
+ * Also attaches the debug overlay to each screen when it is enabled.
+ */
+final class RideMetricsExporter implements Application.ActivityLifecycleCallbacks {
+
+    private final File directory;
+    private final Executor executor = Executors.newSingleThreadExecutor();
+    private int startedActivities;
+
+    /**
+     * Creates an exporter writing to files/metrics.
+     *
+     * @param application The application, which registers the exporter
+     */
+    RideMetricsExporter(Application application) {
+        this.directory = new File(application.getFilesDir(), "metrics");
+    }
+
+    @Override
+    public void onActivityStarted(@NonNull Activity activity) {
+        startedActivities++;
+    }
+
+    @Override
+    public void onActivityResumed(@NonNull Activity activity) {
+        if (BuildConfig.METRICS_OVERLAY) RideMetricsOverlay.attach(activity);
+    }
+
+    @Override
+    public void onActivityStopped(@NonNull Activity activity) {
+        startedActivities--;
+        if (startedActivities > 0 || activity.isChangingConfigurations()) return;
+
+        // The last screen left: write the numbers off the main thread
+        executor.execute(() -> {
+            if (directory.isDirectory() || directory.mkdirs()) {
+                RideMetrics.get().export(directory);
+            }
+        });
+    }
+
+    @Override
+    public void onActivityCreated(@NonNull Activity activity, @Nullable Bundle savedInstanceState) { }
+
+    @Override
+    public void onActivityPaused(@NonNull Activity activity) { }
+
+    @Override
+    public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) { }
+
+    @Override
+    public void onActivityDestroyed(@NonNull Activity activity) { }
+}
@@ -0,0 +1,81 @@
+package edu.uga.cs.rideshareapp;
+
+import android.app.Activity;
+import android.graphics.Color;
+import android.graphics.Typeface;
+import android.view.Gravity;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import java.util.List;
+
+/**
+ * Debug overlay listing the current {@link RideMetrics} at the bottom of a screen, refreshed
+ * every second while the screen is shown. It does not take touches, so the screen stays
+ * usable underneath. Enabled by building with -PmetricsOverlay=true.
+ */
+final class RideMetricsOverlay implements Runnable, View.OnAttachStateChangeListener {
+
+    private static final String TAG = "RideMetricsOverlay";
+    private static final long REFRESH_MILLIS = 1000;
+
+    /** Metrics beyond this many lines are left to the exported files */
+    private static final int MAX_LINES = 24;
+
+    private final TextView view;
+
+    private RideMetricsOverlay(TextView view) {
+        this.view = view;
+    }
+
+    /**
+     * Adds the overlay to an activity's content, unless it already has one.
+     *
+     * @param activity The activity, after setContentView()
+     */
+    static void attach(Activity activity) {
+        ViewGroup content = activity.findViewById(android.R.id.content);
+        if (content == null || content.findViewWithTag(TAG) != null) return;
+
+        TextView view = new TextView(activity);
+        view.setTag(TAG);
+        view.setTypeface(Typeface.MONOSPACE);
+        view.setTextSize(9);
+        view.setTextColor(Color.WHITE);
+        view.setBackgroundColor(0xB0000000);
+        view.setPadding(8, 8, 8, 8);
+
+        view.addOnAttachStateChangeListener(new RideMetricsOverlay(view));
+        content.addView(view, new FrameLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT,
+                ViewGroup.LayoutParams.WRAP_CONTENT,
+                Gravity.BOTTOM));
+    }
+
+    @Override
+    public void run() {
+        List<String> lines = RideMetrics.get().report();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < lines.size() && i < MAX_LINES; i++) {
+            if (i > 0) text.append('\n');
+            text.append(lines.get(i));
+        }
+        if (lines.size() > MAX_LINES) {
+            text.append("\n+").append(lines.size() - MAX_LINES).append(" more");
+        }
+        view.setText(text);
+        view.postDelayed(this, REFRESH_MILLIS);
+    }
+
+    @Override
+    public void onViewAttachedToWindow(View v) {
+        run();
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(View v) {
+        view.removeCallbacks(this);
+    }
+}
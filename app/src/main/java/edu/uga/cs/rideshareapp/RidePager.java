@@ -0,0 +1,238 @@
+package edu.uga.cs.rideshareapp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Loads open rides into a {@link RideFeed} a page at a time as the user scrolls.
+ *
+ * The pager keeps one live query over a window of open offers or requests, starting at a
+ * cursor (statusTypeDeparture + key) and limited to a number of rows. Scrolling near the end of the
+ * list grows the window by a page (keyset pagination with startAt + limitToFirst). Once the
+ * window holds more than maxPages pages, pages far above the viewport are dropped by moving
+ * the cursor forward, so memory stays bounded however large the marketplace is. Scrolling
+ * back up moves the cursor back to the page that was dropped.
+ */
+public class RidePager {
+
+    /**
+     * Position in the statusTypeDeparture ordering where a window starts.
+     */
+    private static class Cursor {
+        final String statusTypeDeparture;
+        final String key;
+        final int skippedRows;
+
+        Cursor(String statusTypeDeparture, String key, int skippedRows) {
+            this.statusTypeDeparture = statusTypeDeparture;
+            this.key = key;
+            this.skippedRows = skippedRows;
+        }
+    }
+
+    private final RideRepository repository;
+    private final RideFeed feed;
+    private final int pageSize;
+    private final int prefetchDistance;
+    private final int maxPages;
+
+    private int firstVisible;
+    private int lastVisible;
+    private String firstVisibleKey;
+    private String statusType;
+    private Cursor cursor;
+    private final Deque<Cursor> droppedCursors = new ArrayDeque<>();
+    private int windowLimit;
+    private boolean loading;
+    private boolean endReached;
+
+    private RideRepository.Subscription windowSubscription;
+
+    /**
+     * Creates a pager for open rides.
+     *
+     * @param repository       Repository serving the ride windows
+     * @param feed             Feed that receives the loaded rides
+     * @param pageSize         Number of rides fetched per page
+     * @param prefetchDistance Load the next page when the user is within this many rows of the end
+     * @param maxPages         Maximum number of pages kept in memory
+     */
+    public RidePager(RideRepository repository, RideFeed feed, int pageSize, int prefetchDistance, int maxPages) {
+        this.repository = repository;
+        this.feed = feed;
+        this.pageSize = pageSize;
+        this.prefetchDistance = prefetchDistance;
+        this.maxPages = maxPages;
+    }
+
+    /**
+     * Reports which rows of the feed are on screen, loading or dropping pages as needed.
+     * Kept free of view references so the pager can outlive the activity showing it.
+     *
+     * @param firstVisible Position of the first visible row
+     * @param lastVisible  Position of the last visible row
+     */
+    public void onVisibleRangeChanged(int firstVisible, int lastVisible) {
+        this.firstVisible = Math.max(firstVisible, 0);
+        this.lastVisible = Math.max(lastVisible, 0);
+        List<Ride> rides = feed.getRides();
+        firstVisibleKey = this.firstVisible < rides.size() ? rides.get(this.firstVisible).getKey() : null;
+        checkScrollPosition();
+    }
+
+    /**
+     * Clears the feed and loads the first page of rides with the given status_type key
+     * departing from now on.
+     *
+     * @param statusType The composite status_type key to page through, e.g. "open_offer"
+     */
+    public void start(String statusType) {
+        stop();
+        this.statusType = statusType;
+        feed.clear();
+        droppedCursors.clear();
+        endReached = false;
+        firstVisible = 0;
+        lastVisible = 0;
+        firstVisibleKey = null;
+
+        cursor = new Cursor(Ride.statusTypeDeparture(statusType, System.currentTimeMillis()), null, 0);
+        windowLimit = pageSize;
+        loadWindow();
+    }
+
+    /**
+     * Detaches the live query and stops paging until the next {@link #start(String)}.
+     * Rides already in the feed are kept.
+     */
+    public void stop() {
+        if (windowSubscription != null) {
+            windowSubscription.cancel();
+            windowSubscription = null;
+        }
+        statusType = null;
+        loading = false;
+    }
+
+    /**
+     * Grows, shifts or shrinks the window depending on which rows are visible.
+     */
+    private void checkScrollPosition() {
+        if (loading || statusType == null) return;
+
+        List<Ride> rides = feed.getRides();
+
+        if (!droppedCursors.isEmpty() && firstVisible <= prefetchDistance) {
+            // Scrolled back up to the first loaded page: restore the page above it
+            cursor = droppedCursors.pop();
+            windowLimit = Math.min(windowLimit + cursor.skippedRows, maxPages * pageSize);
+            loadWindow();
+        } else if (!endReached && lastVisible >= rides.size() - 1 - prefetchDistance) {
+            windowLimit += pageSize;
+
+            // Drop the first page once the window is full and that page is well off-screen
+            if (windowLimit > maxPages * pageSize && firstVisible > pageSize + prefetchDistance) {
+                Ride firstKept = rides.get(pageSize);
+                droppedCursors.push(cursor);
+                cursor = new Cursor(firstKept.statusTypeDeparture, firstKept.getKey(), pageSize);
+                windowLimit -= pageSize;
+            }
+            loadWindow();
+        }
+    }
+
+    /**
+     * Replaces the live subscription with one for the current window. The new subscription is
+     * made before the old one is cancelled, so rides in both windows are served from the cache.
+     */
+    private void loadWindow() {
+        loading = true;
+
+        RideQuery query = RideQuery.statusTypeWindow(statusType,
+                cursor.statusTypeDeparture, cursor.key, windowLimit);
+        RideRepository.Subscription previous = windowSubscription;
+        windowSubscription = repository.subscribe(query, new WindowSubscriber(query.limit));
+
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    /**
+     * Drops rides that fell outside the new window and checks whether more rows are needed.
+     *
+     * @param windowKeys Keys of every ride in the current window
+     * @param limit      The window's row limit
+     */
+    private void onWindowLoaded(Set<String> windowKeys, int limit) {
+        for (Ride ride : new ArrayList<>(feed.getRides())) {
+            if (!windowKeys.contains(ride.getKey())) {
+                feed.remove(ride.getKey());
+            }
+        }
+
+        endReached = windowKeys.size() < limit;
+        loading = false;
+        realignVisibleRange();
+
+        // Keep loading while filtered-out rows leave the visible list short
+        checkScrollPosition();
+    }
+
+    /**
+     * Moves the visible range along with its first row, which the pages dropped or restored
+     * above it have shifted, so the next check does not act on positions the list has left.
+     */
+    private void realignVisibleRange() {
+        if (firstVisibleKey == null) return;
+        List<Ride> rides = feed.getRides();
+        for (int i = 0; i < rides.size(); i++) {
+            if (rides.get(i).getKey().equals(firstVisibleKey)) {
+                lastVisible += i - firstVisible;
+                firstVisible = i;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Feeds one window's rides into the feed and remembers which keys the window holds,
+     * so rides left over from the previous window can be dropped once it has loaded.
+     */
+    private class WindowSubscriber extends RideFeedUpdater {
+
+        private final Set<String> windowKeys = new HashSet<>();
+        private final int limit;
+
+        WindowSubscriber(int limit) {
+            super(feed);
+            this.limit = limit;
+        }
+
+        @Override
+        public void onRidePut(Ride ride) {
+            windowKeys.add(ride.getKey());
+            super.onRidePut(ride);
+        }
+
+        @Override
+        public void onRideRemoved(String rideKey) {
+            windowKeys.remove(rideKey);
+            super.onRideRemoved(rideKey);
+        }
+
+        @Override
+        public void onInitialLoadComplete() {
+            onWindowLoaded(windowKeys, limit);
+        }
+
+        @Override
+        public void onError(String message) {
+            loading = false;
+        }
+    }
+}
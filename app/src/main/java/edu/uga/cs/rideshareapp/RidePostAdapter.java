@@ -1,7 +1,7 @@
 package edu.uga.cs.rideshareapp;
 
+import android.content.Context;
 import android.content.Intent;
-import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
@@ -9,154 +9,223 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-
 import java.util.List;
 
 /**
- * RecyclerView.Adapter for displaying rides in either "My Posts" or "Others' Posts" views.
+ * ListAdapter for displaying rides in either "My Posts" or "Others' Posts" views.
  * Supports editing and deleting rides (for user's own posts), or accepting rides (from others).
+ * Submitted lists are diffed on a background thread by ride key and field content.
+ * The mode-dependent buttons are set up and their listeners attached once per view holder,
+ * so binding a row only copies the row's prepared strings and allocates nothing of its own.
+ * Items have stable ids and holders come from the {@link RideViewPool} shared with the other
+ * ride lists.
+ * The time from submitting a list until its diff is applied is recorded in {@link RideMetrics}.
  */
-public class RidePostAdapter extends RecyclerView.Adapter<RidePostAdapter.RideViewHolder> {
+public class RidePostAdapter extends ListAdapter<RideRow, RidePostAdapter.RideViewHolder> {
+
+    /**
+     * Notified when another user accepted a ride first, so the row can be removed right away.
+     */
+    public interface OnRideTakenListener {
+        void onRideTaken(String rideKey);
+    }
 
-    private List<Ride> rideList;
-    private List<String> rideKeys;
-    private String mode;   // "MY_POSTS" or "OTHERS_POSTS"
+    private final boolean myPosts;   // true for "MY_POSTS", false for "OTHERS_POSTS"
+    private final RideRepository repository;
+    private OnRideTakenListener rideTakenListener;
+    private Context context;   // The attached list's activity; pooled holders may come from another
 
     /**
      * Constructor for RidePostAdapter.
      *
-     * @param rideList  List of Ride objects to display
-     * @param rideKeys  Corresponding Firebase keys for each ride
-     * @param mode      Display mode ("MY_POSTS" or "OTHERS_POSTS")
+     * @param mode       Display mode ("MY_POSTS" or "OTHERS_POSTS")
+     * @param repository Repository used to delete and accept rides
+     */
+    public RidePostAdapter(String mode, RideRepository repository) {
+        super(RideRowDiffCallback.INSTANCE);
+        this.myPosts    = "MY_POSTS".equals(mode);
+        this.repository = repository;
+        setHasStableIds(true);
+    }
+
+    /**
+     * Sets the listener notified when an accept loses to another user's accept.
+     *
+     * @param listener The listener, or null
+     */
+    public void setOnRideTakenListener(OnRideTakenListener listener) {
+        this.rideTakenListener = listener;
+    }
+
+    /**
+     * Returns the row's stable id, derived from the ride key.
+     */
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).id;
+    }
+
+    /**
+     * Returns the view type of the adapter's mode, so holders set up for one mode are never
+     * reused by a list in the other.
+     */
+    @Override
+    public int getItemViewType(int position) {
+        return myPosts ? RideViewPool.TYPE_MY_POST : RideViewPool.TYPE_OTHERS_POST;
+    }
+
+    @Override
+    public void submitList(@Nullable List<RideRow> rows) {
+        submitList(rows, null);
+    }
+
+    @Override
+    public void submitList(@Nullable List<RideRow> rows, @Nullable Runnable commitCallback) {
+        String timer = myPosts ? "diff.myPosts" : "diff.othersPosts";
+        super.submitList(rows, RideMetrics.get().timeCommit(timer, commitCallback));
+    }
+
+    /**
+     * Remembers the list's context for toasts and navigation, since a pooled holder's views
+     * may have been inflated by another screen.
      */
-    public RidePostAdapter(List<Ride> rideList, List<String> rideKeys, String mode) {
-        this.rideList = rideList;
-        this.rideKeys  = rideKeys;
-        this.mode      = mode;
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        context = recyclerView.getContext();
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        context = null;
     }
 
     /**
-     * Inflates the layout for each ride item in the RecyclerView.
+     * Inflates the layout for a ride item, unless a pre-inflated one is waiting, and sets up
+     * the buttons for the adapter's mode.
      *
      * @param parent   The parent ViewGroup
-     * @param viewType View type (not used here)
+     * @param viewType TYPE_MY_POST or TYPE_OTHERS_POST
      * @return RideViewHolder instance
      */
     @NonNull
     @Override
     public RideViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.ride_item_layout, parent, false);
-        return new RideViewHolder(view);
+        View view = RideViewPool.inflate(parent, R.layout.ride_item_layout);
+        return new RideViewHolder(view, viewType == RideViewPool.TYPE_MY_POST);
     }
 
     /**
-     * Binds ride data to the view holder, and sets up appropriate button actions.
+     * Binds ride data to the view holder.
      *
      * @param holder   The RideViewHolder
      * @param position The position in the data list
      */
     @Override
     public void onBindViewHolder(@NonNull RideViewHolder holder, int position) {
-        Ride ride = rideList.get(position);
-        String key = rideKeys.get(position);
+        RideRow row = getItem(position);
+        holder.row = row;
 
-        holder.fromTextView.setText("From: " + ride.from);
-        holder.toTextView.setText("To: " + ride.to);
-        holder.dateTimeTextView.setText(ride.dateTime);
+        holder.fromTextView.setText(row.fromText);
+        holder.toTextView.setText(row.toText);
+        holder.dateTimeTextView.setText(row.ride.dateTime);
+        holder.actionButton.setEnabled(true);
+    }
 
-        if ("MY_POSTS".equals(mode)) {
-            // User's own posts: show Edit and Delete
-            holder.actionButton.setText("Edit");
-            holder.actionButton.setVisibility(View.VISIBLE);
-            holder.deleteButton.setVisibility(View.VISIBLE);
+    /**
+     * Drops the row of a holder going back to the pool.
+     *
+     * @param holder The recycled view holder
+     */
+    @Override
+    public void onViewRecycled(@NonNull RideViewHolder holder) {
+        holder.row = null;
+    }
+
+    /**
+     * Handles the action button: Edit for the user's own posts, Accept for others' posts.
+     *
+     * @param holder The view holder whose button was clicked
+     */
+    private void onActionClicked(RideViewHolder holder) {
+        Context context = this.context;
+        if (context == null) return;
+        Ride ride = holder.row.ride;
+        String key = ride.getKey();
 
+        if (myPosts) {
             // Edit ride: opens RideFormActivity with prefilled data
-            holder.actionButton.setOnClickListener(v -> {
-                Intent intent = new Intent(v.getContext(), RideFormActivity.class);
-                intent.putExtra("rideKey",    key);
-                intent.putExtra("rideType",   ride.rideType);
-                intent.putExtra("from",       ride.from);
-                intent.putExtra("to",         ride.to);
-                intent.putExtra("dateTime",   ride.dateTime);
-                v.getContext().startActivity(intent);
-            });
+            Intent intent = new Intent(context, RideFormActivity.class);
+            intent.putExtra("rideKey",    key);
+            intent.putExtra("rideType",   ride.rideType);
+            intent.putExtra("from",       ride.from);
+            intent.putExtra("to",         ride.to);
+            intent.putExtra("dateTime",   ride.dateTime);
+            context.startActivity(intent);
+            return;
+        }
 
-            // Delete ride from Firebase and remove from adapter
-            holder.deleteButton.setOnClickListener(v -> {
-                DatabaseReference ref = FirebaseDatabase.getInstance()
-                        .getReference("rides")
-                        .child(key);
-                ref.removeValue()
-                        .addOnSuccessListener(a -> {
-                            rideList.remove(position);
-                            rideKeys.remove(position);
-                            notifyItemRemoved(position);
-                            notifyItemRangeChanged(position, rideList.size());
-                            Toast.makeText(v.getContext(),
-                                    "Ride deleted", Toast.LENGTH_SHORT).show();
-                        })
-                        .addOnFailureListener(e ->
-                                Toast.makeText(v.getContext(),
-                                        "Delete failed", Toast.LENGTH_SHORT).show()
-                        );
-            });
+        // Accept ride: current user becomes rider (if it's an offer) or driver (if it's a request).
+        // One update the database rules allow only for the first of several simultaneous accepts.
+        UserSession session = UserSession.current();
+        if (session == null) return;
 
-        } else {
-            // Other users' posts: show Accept button only
-            holder.actionButton.setText("Accept");
-            holder.actionButton.setVisibility(View.VISIBLE);
-            holder.deleteButton.setVisibility(View.GONE);
-
-            // Accept ride: current user becomes rider (if it's an offer) or driver (if it's a request)
-            holder.actionButton.setOnClickListener(v -> {
-                FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
-                if (currentUser == null) return;
-
-                if ("offer".equals(ride.rideType)) {
-                    ride.riderId    = currentUser.getUid();
-                    ride.riderEmail = currentUser.getEmail();
-                } else {
-                    ride.driverId    = currentUser.getUid();
-                    ride.driverEmail = currentUser.getEmail();
-                }
-                ride.accepted = true;
-
-                DatabaseReference rideRef = FirebaseDatabase.getInstance()
-                        .getReference("rides")
-                        .child(rideKeys.get(holder.getAdapterPosition()));
-                rideRef.setValue(ride)
-                        .addOnSuccessListener(a -> {
-                            int idx = holder.getAdapterPosition();
-                            rideList.remove(idx);
-                            rideKeys.remove(idx);
-                            notifyItemRemoved(idx);
-                            notifyItemRangeChanged(idx, rideList.size());
-                            Toast.makeText(v.getContext(),
-                                    "Ride accepted!", Toast.LENGTH_SHORT).show();
-                        })
-                        .addOnFailureListener(e ->
-                                Toast.makeText(v.getContext(),
-                                        "Failed to accept ride.", Toast.LENGTH_SHORT).show()
-                        );
-            });
-        }
+        holder.actionButton.setEnabled(false);
+        repository.acceptRide(key, session.uid)
+                .addOnSuccessListener(result -> {
+                    enableIfStillBound(holder, key);
+                    if (result == RideRepository.AcceptResult.ACCEPTED) {
+                        Toast.makeText(context,
+                                "Ride accepted!", Toast.LENGTH_SHORT).show();
+                    } else {
+                        Toast.makeText(context,
+                                "Sorry, this ride was already taken.", Toast.LENGTH_SHORT).show();
+                        if (rideTakenListener != null) rideTakenListener.onRideTaken(key);
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    enableIfStillBound(holder, key);
+                    Toast.makeText(context,
+                            "Failed to accept ride.", Toast.LENGTH_SHORT).show();
+                });
     }
 
     /**
-     * Returns the total number of ride items in the adapter.
+     * Re-enables a holder's action button once its accept completes, unless the holder has
+     * since been recycled or rebound to another ride, whose button is not this accept's to
+     * touch.
      *
-     * @return item count
+     * @param holder  The view holder whose button was clicked
+     * @param rideKey The key of the ride being accepted
      */
-    @Override
-    public int getItemCount() {
-        return rideList.size();
+    private void enableIfStillBound(RideViewHolder holder, String rideKey) {
+        int position = holder.getBindingAdapterPosition();
+        if (holder.getBindingAdapter() != this || position == RecyclerView.NO_POSITION) return;
+        if (rideKey.equals(getItem(position).getKey())) holder.actionButton.setEnabled(true);
+    }
+
+    /**
+     * Deletes one of the user's own rides; the feed removes the row when the deletion syncs.
+     *
+     * @param holder The view holder whose button was clicked
+     */
+    private void onDeleteClicked(RideViewHolder holder) {
+        Context context = this.context;
+        UserSession session = UserSession.current();
+        if (context == null || session == null) return;
+
+        repository.deleteRide(holder.row.getKey(), session.uid)
+                .addOnSuccessListener(a ->
+                        Toast.makeText(context,
+                                "Ride deleted", Toast.LENGTH_SHORT).show()
+                )
+                .addOnFailureListener(e ->
+                        Toast.makeText(context,
+                                "Delete failed", Toast.LENGTH_SHORT).show()
+                );
     }
 
     /**
@@ -165,19 +234,42 @@ public class RidePostAdapter extends RecyclerView.Adapter<RidePostAdapter.RideVi
     static class RideViewHolder extends RecyclerView.ViewHolder {
         TextView fromTextView, toTextView, dateTimeTextView;
         Button actionButton, deleteButton;
+        RideRow row;
 
         /**
-         * Constructs a RideViewHolder and binds UI components.
+         * Constructs a RideViewHolder, binds UI components and sets up the buttons
+         * for the adapter's mode. Clicks go to whichever adapter last bound the holder,
+         * since pooled holders move between lists.
          *
          * @param itemView The inflated item layout
+         * @param myPosts  Whether the holder shows the user's own posts
          */
-        public RideViewHolder(@NonNull View itemView) {
+        public RideViewHolder(@NonNull View itemView, boolean myPosts) {
             super(itemView);
             fromTextView     = itemView.findViewById(R.id.fromTextView);
             toTextView       = itemView.findViewById(R.id.toTextView);
             dateTimeTextView = itemView.findViewById(R.id.dateTimeTextView);
             actionButton     = itemView.findViewById(R.id.actionButton);
             deleteButton     = itemView.findViewById(R.id.deleteButton);
+
+            if (myPosts) {
+                // User's own posts: show Edit and Delete
+                actionButton.setText("Edit");
+                deleteButton.setVisibility(View.VISIBLE);
+                deleteButton.setOnClickListener(v -> {
+                    RidePostAdapter adapter = (RidePostAdapter) getBindingAdapter();
+                    if (row != null && adapter != null) adapter.onDeleteClicked(this);
+                });
+            } else {
+                // Other users' posts: show Accept button only
+                actionButton.setText("Accept");
+                deleteButton.setVisibility(View.GONE);
+            }
+            actionButton.setVisibility(View.VISIBLE);
+            actionButton.setOnClickListener(v -> {
+                RidePostAdapter adapter = (RidePostAdapter) getBindingAdapter();
+                if (row != null && adapter != null) adapter.onActionClicked(this);
+            });
         }
     }
 }
@@ -0,0 +1,156 @@
+package edu.uga.cs.rideshareapp;
+
+import java.util.Objects;
+
+/**
+ * Describes a set of rides a screen wants to observe.
+ * Queries are value objects, so equal queries from different screens can share one
+ * database subscription inside a {@link RideRepository}.
+ */
+public final class RideQuery {
+
+    /**
+     * The kinds of ride queries the app runs.
+     */
+    public enum Kind {
+        /** Every ride in a user's index (posted or accepted by them) */
+        USER_RIDES,
+        /** A user's rides with a given status and type, via posterStatusType */
+        POSTED_BY,
+        /** Rides with a given status and type, ordered by departure, from a cursor, limited */
+        STATUS_TYPE_WINDOW,
+        /** Rides with a given status and type starting in a geohash cell, in one day partition */
+        STATUS_TYPE_CELL
+    }
+
+    /** Upper bound appended to a prefix to select every string starting with it */
+    private static final String PREFIX_END = "\uf8ff";
+
+    public final Kind kind;
+
+    /**
+     * UID for USER_RIDES, posterStatusType for POSTED_BY, statusType for STATUS_TYPE_WINDOW,
+     * the statusTypeCell prefix for STATUS_TYPE_CELL
+     */
+    public final String value;
+
+    /** First statusTypeDeparture included in a STATUS_TYPE_WINDOW */
+    public final String startAt;
+
+    /** Key of the first ride at startAt, or null to start at the first ride with that value */
+    public final String startKey;
+
+    /** Maximum number of rides in a STATUS_TYPE_WINDOW */
+    public final int limit;
+
+    /** Departure day (yyyyMMdd, UTC) whose partition a STATUS_TYPE_CELL reads */
+    public final String day;
+
+    private RideQuery(Kind kind, String value, String startAt, String startKey, int limit, String day) {
+        this.kind = kind;
+        this.value = value;
+        this.startAt = startAt;
+        this.startKey = startKey;
+        this.limit = limit;
+        this.day = day;
+    }
+
+    /**
+     * Rides in a user's ride index.
+     *
+     * @param uid The Firebase UID of the user
+     * @return The query
+     */
+    public static RideQuery userRides(String uid) {
+        return new RideQuery(Kind.USER_RIDES, uid, null, null, 0, null);
+    }
+
+    /**
+     * A user's own rides with a given status and type.
+     *
+     * @param uid        The Firebase UID of the poster
+     * @param statusType The status_type key, e.g. "open_offer"
+     * @return The query
+     */
+    public static RideQuery postedBy(String uid, String statusType) {
+        return new RideQuery(Kind.POSTED_BY, uid + "_" + statusType, null, null, 0, null);
+    }
+
+    /**
+     * A window of rides with a given status and type in departure order.
+     *
+     * @param statusType The status_type key, e.g. "open_offer"
+     * @param startAt    First statusTypeDeparture value included
+     * @param startKey   Key of the first ride at startAt, or null
+     * @param limit      Maximum number of rides
+     * @return The query
+     */
+    public static RideQuery statusTypeWindow(String statusType, String startAt, String startKey, int limit) {
+        return new RideQuery(Kind.STATUS_TYPE_WINDOW, statusType, startAt, startKey, limit, null);
+    }
+
+    /**
+     * Open rides with a given type whose starting location lies in a cell and that depart on
+     * a given day. Cells shorter than {@link Ride#CELL_LENGTH} select every finer cell inside them.
+     *
+     * @param statusType The status_type key, e.g. "open_offer"
+     * @param cell       Base-32 geohash of the cell
+     * @param day        The departure day, as returned by {@link RideDates#dayKey(long)}
+     * @return The query
+     */
+    public static RideQuery statusTypeCell(String statusType, String cell, String day) {
+        return new RideQuery(Kind.STATUS_TYPE_CELL, Ride.statusTypeCell(statusType, cell), null, null, 0, day);
+    }
+
+    /**
+     * Returns the last statusTypeDeparture value a STATUS_TYPE_WINDOW can include, or the
+     * last statusTypeCell value a STATUS_TYPE_CELL can include.
+     *
+     * @return The end of the query's range
+     */
+    public String endAt() {
+        return kind == Kind.STATUS_TYPE_CELL ? value + PREFIX_END : value + "_" + PREFIX_END;
+    }
+
+    /**
+     * Checks whether a ride falls inside this query, ignoring the limit of a window.
+     * Used by repositories that evaluate queries in memory.
+     *
+     * @param ride The ride to check, with its key set
+     * @return True if the ride matches
+     */
+    public boolean matches(Ride ride) {
+        switch (kind) {
+            case USER_RIDES:
+                return value.equals(ride.driverId) || value.equals(ride.riderId);
+            case POSTED_BY:
+                return value.equals(ride.posterStatusType);
+            case STATUS_TYPE_CELL:
+                return ride.statusTypeCell != null && ride.statusTypeCell.startsWith(value)
+                        && day.equals(RideDates.dayKey(ride.departureEpochMillis));
+            default:
+                if (ride.statusTypeDeparture == null) return false;
+                int fromStart = ride.statusTypeDeparture.compareTo(startAt);
+                if (fromStart < 0 || ride.statusTypeDeparture.compareTo(endAt()) > 0) return false;
+                return fromStart > 0 || startKey == null || ride.getKey().compareTo(startKey) >= 0;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RideQuery)) return false;
+        RideQuery other = (RideQuery) o;
+        return kind == other.kind
+                && limit == other.limit
+                && Objects.equals(value, other.value)
+                && Objects.equals(startAt, other.startAt)
+                && Objects.equals(startKey, other.startKey)
+                && Objects.equals(day, other.day);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, value, startAt, startKey, limit, day);
+    }
+}
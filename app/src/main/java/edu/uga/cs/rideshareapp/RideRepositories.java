@@ -0,0 +1,36 @@
+package edu.uga.cs.rideshareapp;
+
+import com.google.firebase.database.FirebaseDatabase;
+
+/**
+ * Holds the app-wide {@link RideRepository}.
+ * {@link RideShareApplication} installs the Firebase repository at startup; tests and
+ * benchmarks can install an {@link InMemoryRideRepository} instead before any screen opens.
+ */
+public final class RideRepositories {
+
+    private static RideRepository repository;
+
+    private RideRepositories() {}
+
+    /**
+     * Returns the app-wide repository, creating the Firebase one if none was installed.
+     *
+     * @return The repository
+     */
+    public static synchronized RideRepository get() {
+        if (repository == null) {
+            repository = new FirebaseRideRepository(FirebaseDatabase.getInstance());
+        }
+        return repository;
+    }
+
+    /**
+     * Replaces the app-wide repository.
+     *
+     * @param newRepository The repository every screen should use from now on
+     */
+    public static synchronized void set(RideRepository newRepository) {
+        repository = newRepository;
+    }
+}
@@ -0,0 +1,163 @@
+package edu.uga.cs.rideshareapp;
+
+import com.google.android.gms.tasks.Task;
+
+/**
+ * Single point of access to ride data for activities and adapters.
+ * Implementations own query construction, listener lifecycle, caching and sharing of
+ * identical subscriptions, so screens never talk to the database directly.
+ */
+public interface RideRepository {
+
+    /** Points moved from the rider to the driver when a ride is completed */
+    int RIDE_POINTS = 50;
+
+    /**
+     * Outcome of {@link #acceptRide(String, String)}.
+     */
+    enum AcceptResult {
+        /** The current user now holds the ride */
+        ACCEPTED,
+        /** Someone else accepted (or the poster deleted) the ride first */
+        ALREADY_TAKEN
+    }
+
+    /**
+     * Receives the rides matching a subscribed {@link RideQuery}, one ride at a time.
+     */
+    interface RideSubscriber {
+
+        /**
+         * Called when a ride starts matching the query or one of its fields changes.
+         *
+         * @param ride The current ride, with its key set
+         */
+        void onRidePut(Ride ride);
+
+        /**
+         * Called when a ride stops matching the query.
+         *
+         * @param rideKey The Firebase key of the ride
+         */
+        void onRideRemoved(String rideKey);
+
+        /**
+         * Called once every ride matching the query at subscription time has been delivered.
+         */
+        default void onInitialLoadComplete() { }
+
+        /**
+         * Called if the subscription is rejected, e.g. because of missing permissions.
+         *
+         * @param message Description of the error
+         */
+        default void onError(String message) { }
+    }
+
+    /**
+     * Receives a user's point balance.
+     */
+    interface PointsListener {
+        void onPointsChanged(long points);
+        void onError(String message);
+    }
+
+    /**
+     * Handle to an active subscription.
+     */
+    interface Subscription {
+        /**
+         * Stops delivering updates. Calling this more than once has no effect.
+         */
+        void cancel();
+    }
+
+    /**
+     * Subscribes to the rides matching a query. Subscriptions to equal queries share
+     * one underlying database listener.
+     *
+     * @param query      The rides to observe
+     * @param subscriber Receives the matching rides
+     * @return Handle used to cancel the subscription
+     */
+    Subscription subscribe(RideQuery query, RideSubscriber subscriber);
+
+    /**
+     * Subscribes to a user's point balance.
+     *
+     * @param uid      The Firebase UID of the user
+     * @param listener Receives the balance
+     * @return Handle used to cancel the subscription
+     */
+    Subscription observePoints(String uid, PointsListener listener);
+
+    /**
+     * Sets a user's point balance, e.g. the starting balance of a new account.
+     *
+     * @param uid    The Firebase UID of the user
+     * @param points The new balance
+     * @return Task completing when the write is applied
+     */
+    Task<Void> setPoints(String uid, long points);
+
+    /**
+     * Stores a user's email in their profile, the one place rides take it from.
+     *
+     * @param uid   The Firebase UID of the user
+     * @param email The user's email
+     * @return Task completing when the write is applied
+     */
+    Task<Void> saveProfile(String uid, String email);
+
+    /**
+     * Posts a new ride, or replaces an existing one, together with the poster's index entry.
+     *
+     * @param rideKey   Key of the ride to replace, or null to post a new ride
+     * @param posterUid The Firebase UID of the user posting the ride
+     * @param ride      The ride to store
+     * @return Task completing when the write is applied; fails, writing nothing, if the ride
+     *         being replaced cannot be read
+     */
+    Task<Void> saveRide(String rideKey, String posterUid, Ride ride);
+
+    /**
+     * Deletes a ride together with the poster's index entry.
+     *
+     * @param rideKey   The Firebase key of the ride
+     * @param posterUid The Firebase UID of the user who posted the ride
+     * @return Task completing when the write is applied; fails, writing nothing, if the ride
+     *         cannot be read
+     */
+    Task<Void> deleteRide(String rideKey, String posterUid);
+
+    /**
+     * Accepts an open ride. Only the first of several simultaneous accepts succeeds. The ride,
+     * the user's index entry and the ride's removal from the open rides change together.
+     *
+     * @param rideKey The Firebase key of the ride
+     * @param uid     The Firebase UID of the accepting user
+     * @return Task with the outcome, completing once the ride is on the user's dashboard; fails
+     *         on network errors, or if the ride keeps changing while being accepted
+     */
+    Task<AcceptResult> acceptRide(String rideKey, String uid);
+
+    /**
+     * Records one user's confirmation that a ride was completed. The flag is set atomically
+     * against the ride's current state, so when both users confirm at once, exactly one of
+     * them gets back the ride with both flags set and finalizes it.
+     *
+     * @param rideKey  The Firebase key of the ride
+     * @param asDriver True to set driverConfirmed, false to set riderConfirmed
+     * @return Task with the ride as committed, or null if it no longer exists
+     */
+    Task<Ride> confirmRide(String rideKey, boolean asDriver);
+
+    /**
+     * Atomically moves points from the rider to the driver, archives the ride and
+     * removes it from the active rides and both users' indexes.
+     *
+     * @param ride The ride confirmed by both users, with its key set
+     * @return Task completing when the write is applied
+     */
+    Task<Void> finalizeRide(Ride ride);
+}
@@ -0,0 +1,177 @@
+package edu.uga.cs.rideshareapp;
+
+import androidx.lifecycle.LiveData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Display state of one ride row, derived once when the ride arrives rather than on every bind.
+ * Binding a row only copies these prepared values into the views, so it allocates nothing beyond
+ * what the views' own setText() calls do; RideRowBindAllocationTest counts it on a device.
+ */
+public final class RideRow {
+
+    /** Green for the driver's point gain, red for the rider's point loss */
+    static final int DRIVER_POINTS_COLOR = 0xFF008000;
+    static final int RIDER_POINTS_COLOR = 0xFFFF0000;
+
+    static final String DRIVER_POINTS_TEXT = "+" + RideRepository.RIDE_POINTS + " points";
+    static final String RIDER_POINTS_TEXT = "-" + RideRepository.RIDE_POINTS + " points";
+
+    /** Stable RecyclerView item id, a 64-bit FNV-1a hash of the ride key */
+    public final long id;
+
+    public final Ride ride;
+    public final String fromText;
+    public final String toText;
+
+    /** Whether the viewing user is the driver or the rider; both false for other users' rides */
+    public final boolean isDriver;
+    public final boolean isRider;
+
+    /** "Driver", "Rider" or null, with the matching point delta text and color */
+    public final String roleText;
+    public final String pointsText;
+    public final int pointsColor;
+
+    /** Whether the viewing user has already confirmed the ride */
+    public final boolean confirmedByUser;
+
+    /**
+     * Derives the row state of a ride as seen by a user.
+     *
+     * @param ride The ride, with its key set
+     * @param uid  The Firebase UID of the viewing user, or null if roles don't matter
+     */
+    public RideRow(Ride ride, String uid) {
+        this.id = stableId(ride.getKey());
+        this.ride = ride;
+        this.fromText = "From: " + ride.from;
+        this.toText = "To: " + ride.to;
+
+        this.isDriver = uid != null && uid.equals(ride.driverId);
+        this.isRider = !isDriver && uid != null && uid.equals(ride.riderId);
+
+        if (isDriver) {
+            roleText = "Driver";
+            pointsText = DRIVER_POINTS_TEXT;
+            pointsColor = DRIVER_POINTS_COLOR;
+        } else if (isRider) {
+            roleText = "Rider";
+            pointsText = RIDER_POINTS_TEXT;
+            pointsColor = RIDER_POINTS_COLOR;
+        } else {
+            roleText = null;
+            pointsText = null;
+            pointsColor = 0;
+        }
+
+        this.confirmedByUser = (isDriver && ride.driverConfirmed) || (isRider && ride.riderConfirmed);
+    }
+
+    /**
+     * @return The Firebase key of the ride
+     */
+    public String getKey() {
+        return ride.getKey();
+    }
+
+    /**
+     * Hashes a ride key into a RecyclerView item id. Ride keys never change, so neither does the
+     * id of a ride's row; at 64 bits two keys colliding in one list is not a practical concern.
+     *
+     * @param key The Firebase key of the ride
+     * @return The item id
+     */
+    static long stableId(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Maps ride snapshots to row snapshots for one viewing user. Rows are reused for rides that
+     * did not change since the previous snapshot, so only new or changed rides are derived again.
+     * Snapshots are mapped one at a time, on a {@link RideWorker} when mapped as LiveData.
+     */
+    public static final class Mapper {
+
+        // Set on the main thread, picked up by the next snapshot mapped
+        private volatile String uid;
+
+        private Map<String, RideRow> rowsByKey = new HashMap<>();
+        private String rowsUid;
+
+        /**
+         * Sets the viewing user. Changing it discards every cached row.
+         *
+         * @param uid The Firebase UID of the viewing user, or null
+         */
+        public void setUid(String uid) {
+            this.uid = uid;
+        }
+
+        /**
+         * Converts a ride snapshot into a row snapshot.
+         *
+         * @param rides The rides in display order
+         * @return The rows in the same order, read-only
+         */
+        public List<RideRow> map(List<Ride> rides) {
+            return map(rides, () -> false);
+        }
+
+        /**
+         * Converts a ride snapshot into a row snapshot, unless a newer snapshot supersedes it.
+         *
+         * @param rides The rides in display order
+         * @param job   Tells whether the rows are still wanted
+         * @return The rows in the same order, read-only, or null if the job was cancelled
+         */
+        List<RideRow> map(List<Ride> rides, RideWorker.Job job) {
+            String viewer = uid;
+            if (!Objects.equals(viewer, rowsUid)) {
+                rowsUid = viewer;
+                rowsByKey = new HashMap<>();
+            }
+
+            List<RideRow> rows = new ArrayList<>(rides.size());
+            Map<String, RideRow> nextRowsByKey = new HashMap<>(rides.size() * 2);
+
+            for (Ride ride : rides) {
+                // Keep the rows cached so far; the next snapshot is mostly the same rides
+                if (job.isCancelled()) return null;
+
+                RideRow row = rowsByKey.get(ride.getKey());
+                if (row == null || row.ride != ride) {
+                    row = new RideRow(ride, viewer);
+                }
+                rows.add(row);
+                nextRowsByKey.put(ride.getKey(), row);
+            }
+
+            rowsByKey = nextRowsByKey;
+            return Collections.unmodifiableList(rows);
+        }
+
+        /**
+         * Returns a LiveData of rows that follows a LiveData of rides while it is observed.
+         * Rows are derived in the background; a snapshot superseded before its rows are
+         * ready is never delivered.
+         *
+         * @param rides The ride snapshots
+         * @return The matching row snapshots
+         */
+        public LiveData<List<RideRow>> map(LiveData<List<Ride>> rides) {
+            return RideWorker.map(rides, this::map);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package edu.uga.cs.rideshareapp;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+
+/**
+ * Diffing rules shared by the ride adapters: rows are the same item when their ride keys match,
+ * and unchanged when every stored field of the ride is equal.
+ */
+final class RideRowDiffCallback extends DiffUtil.ItemCallback<RideRow> {
+
+    static final RideRowDiffCallback INSTANCE = new RideRowDiffCallback();
+
+    private RideRowDiffCallback() {}
+
+    @Override
+    public boolean areItemsTheSame(@NonNull RideRow oldRow, @NonNull RideRow newRow) {
+        return oldRow.getKey().equals(newRow.getKey());
+    }
+
+    @Override
+    public boolean areContentsTheSame(@NonNull RideRow oldRow, @NonNull RideRow newRow) {
+        return oldRow.ride == newRow.ride || oldRow.ride.hasSameContent(newRow.ride);
+    }
+}
@@ -0,0 +1,225 @@
+package edu.uga.cs.rideshareapp;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Prefix search over the places rides go from and to.
+ *
+ * Both places are normalized (lower case, accents stripped) and split into words, and every
+ * word is added to a trie whose nodes hold the keys of the rides with a word starting there.
+ * A query word is answered by walking down its letters, so a keystroke costs the length of
+ * the query rather than a scan of every ride; a query of several words returns the rides
+ * matching all of them. The index is kept up to date one ride at a time, like a
+ * {@link RideFeed}. Not thread-safe.
+ */
+public final class RideSearchIndex {
+
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * A trie node: its children by letter, and how many words of each ride pass through it.
+     */
+    private static final class Node {
+        char[] letters = new char[0];
+        Node[] children = new Node[0];
+        final Map<String, Integer> rideWords = new HashMap<>();
+
+        Node child(char letter) {
+            for (int i = 0; i < letters.length; i++) {
+                if (letters[i] == letter) return children[i];
+            }
+            return null;
+        }
+
+        Node addChild(char letter) {
+            Node child = new Node();
+            letters = Arrays.copyOf(letters, letters.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            letters[letters.length - 1] = letter;
+            children[children.length - 1] = child;
+            return child;
+        }
+
+        void removeChild(char letter) {
+            for (int i = 0; i < letters.length; i++) {
+                if (letters[i] != letter) continue;
+                int last = letters.length - 1;
+                letters[i] = letters[last];
+                children[i] = children[last];
+                letters = Arrays.copyOf(letters, last);
+                children = Arrays.copyOf(children, last);
+                return;
+            }
+        }
+    }
+
+    private final Node root = new Node();
+    private final Map<String, Ride> rides = new HashMap<>();
+
+    /**
+     * Adds or replaces a ride. Re-adding the same ride instance does nothing.
+     *
+     * @param ride The ride, with its key set; it must not be modified while indexed
+     */
+    public void put(Ride ride) {
+        Ride previous = rides.put(ride.getKey(), ride);
+        if (previous == ride) return;
+        if (previous != null) {
+            for (String word : words(previous)) removeWord(ride.getKey(), word);
+        }
+        for (String word : words(ride)) addWord(ride.getKey(), word);
+    }
+
+    /**
+     * Removes a ride, if indexed.
+     *
+     * @param rideKey The Firebase key of the ride
+     */
+    public void remove(String rideKey) {
+        Ride previous = rides.remove(rideKey);
+        if (previous == null) return;
+        for (String word : words(previous)) removeWord(rideKey, word);
+    }
+
+    /**
+     * Brings the index in line with a snapshot of rides: rides not seen before or changed
+     * since are indexed, rides no longer in it are removed. Rides kept from the previous
+     * snapshot are recognized by identity, so only the changes cost a trie update.
+     *
+     * @param snapshot The rides, each with its key set
+     */
+    public void update(List<Ride> snapshot) {
+        Set<String> keys = new HashSet<>(snapshot.size() * 2);
+        for (Ride ride : snapshot) {
+            keys.add(ride.getKey());
+            put(ride);
+        }
+        if (keys.size() == rides.size()) return;
+        for (String rideKey : new ArrayList<>(rides.keySet())) {
+            if (!keys.contains(rideKey)) remove(rideKey);
+        }
+    }
+
+    /**
+     * Removes every ride.
+     */
+    public void clear() {
+        root.letters = new char[0];
+        root.children = new Node[0];
+        root.rideWords.clear();
+        rides.clear();
+    }
+
+    /**
+     * @return The number of indexed rides
+     */
+    public int size() {
+        return rides.size();
+    }
+
+    /**
+     * Finds the rides whose from or to place has a word starting with each word of a query,
+     * e.g. "atl air" finds rides to "Atlanta Airport".
+     *
+     * @param query The text typed, in any case and with or without accents
+     * @return Read-only keys of the matching rides, valid until the index next changes; null
+     *         if the query has no words, i.e. every ride matches
+     */
+    public Set<String> search(String query) {
+        List<String> queryWords = normalize(query);
+        if (queryWords.isEmpty()) return null;
+
+        // Intersect starting from the rarest word, so the sets compared stay small
+        List<Set<String>> matches = new ArrayList<>(queryWords.size());
+        for (String word : queryWords) {
+            Node node = find(word);
+            if (node == null) return Collections.emptySet();
+            matches.add(node.rideWords.keySet());
+        }
+        Collections.sort(matches, (a, b) -> Integer.compare(a.size(), b.size()));
+        if (matches.size() == 1) return Collections.unmodifiableSet(matches.get(0));
+
+        Set<String> result = new HashSet<>();
+        candidates:
+        for (String rideKey : matches.get(0)) {
+            for (int i = 1; i < matches.size(); i++) {
+                if (!matches.get(i).contains(rideKey)) continue candidates;
+            }
+            result.add(rideKey);
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * Splits text into searchable words: lower case, without accents or punctuation.
+     *
+     * @param text The text, or null
+     * @return The words, possibly none
+     */
+    static List<String> normalize(String text) {
+        if (text == null) return Collections.emptyList();
+        String plain = ACCENTS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        List<String> words = new ArrayList<>();
+        for (String word : SEPARATORS.split(plain.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) words.add(word);
+        }
+        return words;
+    }
+
+    /**
+     * Returns the words a ride is found by, each once; a ride from "Atlanta" to "Atlanta
+     * Airport" counts "atlanta" once.
+     */
+    private static Set<String> words(Ride ride) {
+        Set<String> words = new HashSet<>(normalize(ride.from));
+        words.addAll(normalize(ride.to));
+        return words;
+    }
+
+    private Node find(String word) {
+        Node node = root;
+        for (int i = 0; i < word.length() && node != null; i++) {
+            node = node.child(word.charAt(i));
+        }
+        return node;
+    }
+
+    private void addWord(String rideKey, String word) {
+        Node node = root;
+        for (int i = 0; i < word.length(); i++) {
+            Node child = node.child(word.charAt(i));
+            node = child != null ? child : node.addChild(word.charAt(i));
+            node.rideWords.merge(rideKey, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Removes one word of a ride, dropping the nodes no other word passes through.
+     */
+    private void removeWord(String rideKey, String word) {
+        Node node = root;
+        for (int i = 0; i < word.length(); i++) {
+            Node child = node.child(word.charAt(i));
+            if (child == null) return;
+            if (child.rideWords.merge(rideKey, -1, Integer::sum) == 0) {
+                child.rideWords.remove(rideKey);
+            }
+            if (child.rideWords.isEmpty()) {
+                node.removeChild(word.charAt(i));
+                return;
+            }
+            node = child;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package edu.uga.cs.rideshareapp;
+
+import android.app.Application;
+
+import com.google.firebase.database.FirebaseDatabase;
+
+/**
+ * Application class for the RideShare app.
+ * Turns on Firebase disk persistence so every screen can render the last synced rides
+ * straight from disk on a cold start, then reconcile with the server as updates arrive,
+ * and installs the Firebase-backed {@link RideRepository} every screen reads through.
+ * Ride metrics are exported whenever the app goes to the background.
+ */
+public class RideShareApplication extends Application {
+
+    /**
+     * Called when the application starts, before any activity is created.
+     * Persistence must be enabled before any other use of FirebaseDatabase.
+     */
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        FirebaseDatabase database = FirebaseDatabase.getInstance();
+        database.setPersistenceEnabled(true);
+        RideRepositories.set(new FirebaseRideRepository(database));
+        registerActivityLifecycleCallbacks(new RideMetricsExporter(this));
+    }
+}
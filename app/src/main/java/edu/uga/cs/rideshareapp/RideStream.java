@@ -0,0 +1,214 @@
+package edu.uga.cs.rideshareapp;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lifecycle-aware stream of rides, held by a ViewModel so it survives configuration changes.
+ *
+ * The stream subscribes to its {@link Source} when the first observer becomes active and
+ * cancels the subscription a short while after the last observer stops, so a rotation
+ * re-attaches to the running subscription instead of starting a new query. Rides are
+ * collected into a {@link RideFeed} and published as immutable snapshots, at most once per
+ * main-thread message, however many rides changed in between. A snapshot is also published
+ * when the source finishes its initial load, so observers learn of an empty result too.
+ */
+public class RideStream extends LiveData<List<Ride>> {
+
+    /** Grace period before an unobserved stream cancels its subscription */
+    private static final long STOP_DELAY_MILLIS = 5000;
+
+    /**
+     * Opens the subscription feeding a stream.
+     */
+    public interface Source {
+        /**
+         * Starts delivering rides.
+         *
+         * @param subscriber Receives the rides and applies them to the stream's feed
+         * @return Handle used to stop delivering rides
+         */
+        RideRepository.Subscription start(RideRepository.RideSubscriber subscriber);
+    }
+
+    private final RideFeed feed;
+    private final MutableLiveData<String> errors = new MutableLiveData<>();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable publishRunnable = this::publish;
+    private final Runnable stopRunnable = this::disconnect;
+
+    private Source source;
+    private RideRepository.Subscription subscription;
+    private boolean publishPending;
+    private boolean loaded;
+
+    /**
+     * Creates a stream over the given feed.
+     *
+     * @param feed   Orders and filters the rides; the stream becomes its listener
+     * @param source Opens the subscription filling the feed, or null to set one later
+     */
+    public RideStream(RideFeed feed, Source source) {
+        this.feed = feed;
+        this.source = source;
+        setValue(Collections.emptyList());
+
+        feed.setListener(new RideFeed.Listener() {
+            @Override
+            public void onRideInserted(int position) {
+                schedulePublish();
+            }
+
+            @Override
+            public void onRideChanged(int position) {
+                schedulePublish();
+            }
+
+            @Override
+            public void onRideRemoved(int position) {
+                schedulePublish();
+            }
+
+            @Override
+            public void onRideMoved(int fromPosition, int toPosition) {
+                schedulePublish();
+            }
+
+            @Override
+            public void onRidesCleared(int count) {
+                schedulePublish();
+            }
+        });
+    }
+
+    /**
+     * Returns subscription errors, e.g. missing permissions.
+     *
+     * @return The latest error message
+     */
+    public LiveData<String> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Tells whether the current source has delivered its initial load, i.e. whether the
+     * published rides are complete rather than what was cached so far.
+     *
+     * @return True once the initial load of the current source is complete
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Replaces the source, clearing the rides of the previous one.
+     *
+     * @param newSource The subscription to switch to
+     */
+    public void setSource(Source newSource) {
+        disconnect();
+        feed.clear();
+        loaded = false;
+        source = newSource;
+        if (hasActiveObservers()) connect();
+    }
+
+    /**
+     * Cancels the subscription for good. Called from ViewModel.onCleared().
+     */
+    public void close() {
+        handler.removeCallbacks(publishRunnable);
+        disconnect();
+        source = null;
+    }
+
+    @Override
+    protected void onActive() {
+        handler.removeCallbacks(stopRunnable);
+        connect();
+    }
+
+    @Override
+    protected void onInactive() {
+        handler.postDelayed(stopRunnable, STOP_DELAY_MILLIS);
+    }
+
+    private void connect() {
+        handler.removeCallbacks(stopRunnable);
+        if (subscription == null && source != null) {
+            subscription = source.start(new StreamSubscriber());
+        }
+    }
+
+    private void disconnect() {
+        handler.removeCallbacks(stopRunnable);
+        if (subscription != null) {
+            subscription.cancel();
+            subscription = null;
+        }
+    }
+
+    private void schedulePublish() {
+        if (publishPending) return;
+        publishPending = true;
+        handler.post(publishRunnable);
+    }
+
+    private void publish() {
+        publishPending = false;
+        setValue(Collections.unmodifiableList(new ArrayList<>(feed.getRides())));
+    }
+
+    /**
+     * Applies rides to the feed. Rides kept from before a reconnect that were not delivered
+     * again by the initial load are dropped, so the list shows no rides deleted while stopped.
+     */
+    private class StreamSubscriber extends RideFeedUpdater {
+
+        private final Set<String> loadedKeys = new HashSet<>();
+        private boolean loaded;
+
+        StreamSubscriber() {
+            super(feed);
+        }
+
+        @Override
+        public void onRidePut(Ride ride) {
+            if (!loaded) loadedKeys.add(ride.getKey());
+            super.onRidePut(ride);
+        }
+
+        @Override
+        public void onRideRemoved(String rideKey) {
+            loadedKeys.remove(rideKey);
+            super.onRideRemoved(rideKey);
+        }
+
+        @Override
+        public void onInitialLoadComplete() {
+            loaded = true;
+            for (Ride ride : new ArrayList<>(feed.getRides())) {
+                if (!loadedKeys.contains(ride.getKey())) {
+                    feed.remove(ride.getKey());
+                }
+            }
+            loadedKeys.clear();
+            RideStream.this.loaded = true;
+            schedulePublish();
+        }
+
+        @Override
+        public void onError(String message) {
+            errors.setValue(message);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package edu.uga.cs.rideshareapp;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.os.Looper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RecycledViewPool shared by every ride list, so holders scrolled off one screen are reused by
+ * the next one instead of being inflated again. It also keeps a few item views inflated ahead of
+ * time while the main thread is idle, which the adapters take before inflating a view themselves.
+ *
+ * A pooled view belongs to the activity that inflated it, and a holder taken by another
+ * activity's list keeps that activity alive for as long as the list shows it. The pool itself
+ * holds no view of a finished activity: {@link #release(Activity)} drops what an activity left
+ * behind when it is destroyed, holders of a finishing or destroyed activity are refused when
+ * recycled and skipped when taken, and so are pre-inflated views. Main thread only.
+ */
+final class RideViewPool extends RecyclerView.RecycledViewPool {
+
+    /** View types of the ride lists; post rows differ by mode because their buttons do */
+    static final int TYPE_ACTIVE_RIDE = 1;
+    static final int TYPE_MY_POST = 2;
+    static final int TYPE_OTHERS_POST = 3;
+
+    private static final int[] VIEW_TYPES = {TYPE_ACTIVE_RIDE, TYPE_MY_POST, TYPE_OTHERS_POST};
+
+    /** Enough holders per type to refill a screen of rows */
+    private static final int MAX_RECYCLED_VIEWS = 12;
+
+    private static RideViewPool instance;
+
+    /** Item views inflated ahead of time, by layout id */
+    private final Map<Integer, ArrayDeque<View>> preInflated = new HashMap<>();
+
+    private RideViewPool() {
+        for (int type : VIEW_TYPES) {
+            setMaxRecycledViews(type, MAX_RECYCLED_VIEWS);
+        }
+    }
+
+    /**
+     * Returns the pool shared by every ride list.
+     *
+     * @return The pool
+     */
+    static RideViewPool get() {
+        if (instance == null) {
+            instance = new RideViewPool();
+        }
+        return instance;
+    }
+
+    /**
+     * Returns an item view for a new view holder, taking a pre-inflated one if available.
+     *
+     * @param parent   The RecyclerView the holder is created for
+     * @param layoutId The item layout
+     * @return The item view, not yet attached to the parent
+     */
+    static View inflate(ViewGroup parent, int layoutId) {
+        ArrayDeque<View> views = get().preInflated.get(layoutId);
+        View view = views != null ? views.poll() : null;
+        while (view != null && isFinishing(view.getContext())) view = views.poll();
+        if (view != null) return view;
+        return LayoutInflater.from(parent.getContext()).inflate(layoutId, parent, false);
+    }
+
+    /**
+     * Inflates item views in the background of the main thread, one per idle pass, until
+     * {@code count} of them are waiting. Inflating with the list's own inflater keeps the
+     * AppCompat widget substitution an off-thread inflater would skip.
+     *
+     * @param parent   A RecyclerView with a layout manager, used for the item layout params
+     * @param layoutId The item layout
+     * @param count    How many views to keep ready
+     */
+    void preInflate(RecyclerView parent, int layoutId, int count) {
+        ArrayDeque<View> views = preInflated.get(layoutId);
+        if (views == null) {
+            views = new ArrayDeque<>();
+            preInflated.put(layoutId, views);
+        }
+
+        ArrayDeque<View> ready = views;
+        Looper.myQueue().addIdleHandler(() -> {
+            if (isFinishing(parent.getContext()) || ready.size() >= count) return false;
+            ready.add(LayoutInflater.from(parent.getContext()).inflate(layoutId, parent, false));
+            return ready.size() < count;
+        });
+    }
+
+    /**
+     * Drops every pooled or pre-inflated view an activity inflated. Called from its onDestroy().
+     *
+     * @param activity The activity being destroyed
+     */
+    void release(Activity activity) {
+        for (int type : VIEW_TYPES) {
+            List<RecyclerView.ViewHolder> kept = new ArrayList<>();
+            RecyclerView.ViewHolder holder;
+            while ((holder = getRecycledView(type)) != null) {
+                if (activityOf(holder.itemView.getContext()) != activity) kept.add(holder);
+            }
+            for (RecyclerView.ViewHolder keptHolder : kept) {
+                super.putRecycledView(keptHolder);
+            }
+        }
+
+        for (ArrayDeque<View> views : preInflated.values()) {
+            Iterator<View> it = views.iterator();
+            while (it.hasNext()) {
+                if (activityOf(it.next().getContext()) == activity) it.remove();
+            }
+        }
+    }
+
+    @Override
+    public void putRecycledView(RecyclerView.ViewHolder scrap) {
+        // Views of a closing screen would keep its activity alive until reused. A holder another
+        // activity's list took from the pool is recycled there after its own activity is gone
+        if (isFinishing(scrap.itemView.getContext())) return;
+        super.putRecycledView(scrap);
+    }
+
+    @Override
+    public RecyclerView.ViewHolder getRecycledView(int viewType) {
+        // Holders pooled before their activity began finishing; dropping them lets it go
+        RecyclerView.ViewHolder holder = super.getRecycledView(viewType);
+        while (holder != null && isFinishing(holder.itemView.getContext())) {
+            holder = super.getRecycledView(viewType);
+        }
+        return holder;
+    }
+
+    private static boolean isFinishing(Context context) {
+        Activity activity = activityOf(context);
+        return activity != null && (activity.isFinishing() || activity.isDestroyed());
+    }
+
+    private static Activity activityOf(Context context) {
+        while (context instanceof ContextWrapper) {
+            if (context instanceof Activity) return (Activity) context;
+            context = ((ContextWrapper) context).getBaseContext();
+        }
+        return null;
+    }
+}
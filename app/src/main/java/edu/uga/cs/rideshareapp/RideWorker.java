@@ -0,0 +1,128 @@
+package edu.uga.cs.rideshareapp;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+
+/**
+ * Turns inputs into results on the background pool, delivering only the result of the
+ * latest input, on the main thread.
+ *
+ * Inputs are submitted on the main thread, typically each new ride snapshot. One input is
+ * worked on at a time, so the work can keep state between inputs, such as rows to reuse,
+ * without locking. An input superseded by a newer one before its work starts is skipped;
+ * work already running can stop early by checking {@link Job#isCancelled()}, and its
+ * result is dropped either way.
+ *
+ * @param <T> The input, which must not change once submitted
+ * @param <R> The result, which must not change once returned
+ */
+final class RideWorker<T, R> {
+
+    /**
+     * Lets work on an input find out that it was superseded.
+     */
+    interface Job {
+        /**
+         * @return True if a newer input was submitted or the worker was closed
+         */
+        boolean isCancelled();
+    }
+
+    /**
+     * The work done on each input, on a background thread.
+     */
+    interface Work<T, R> {
+        /**
+         * @param input The input
+         * @param job   Tells whether the result is still wanted
+         * @return The result, or anything if the job was cancelled meanwhile
+         */
+        R apply(T input, Job job);
+    }
+
+    /**
+     * Receives results on the main thread.
+     */
+    interface Callback<R> {
+        void onResult(R result);
+    }
+
+    private final Work<T, R> work;
+    private final Callback<R> callback;
+
+    // Written on the main thread only; read by running work to notice it was superseded
+    private volatile int generation;
+
+    private T pending;
+    private boolean hasPending;
+    private boolean running;
+    private boolean closed;
+
+    /**
+     * Creates a worker.
+     *
+     * @param work     What to do with each input
+     * @param callback Receives the result of the latest input
+     */
+    RideWorker(Work<T, R> work, Callback<R> callback) {
+        this.work = work;
+        this.callback = callback;
+    }
+
+    /**
+     * Returns a LiveData of the results of a LiveData's values, worked on in the background
+     * while the result is observed.
+     *
+     * @param source The inputs
+     * @param work   What to do with each input
+     * @return The results
+     */
+    static <T, R> LiveData<R> map(LiveData<T> source, Work<T, R> work) {
+        MediatorLiveData<R> results = new MediatorLiveData<>();
+        RideWorker<T, R> worker = new RideWorker<>(work, results::setValue);
+        results.addSource(source, worker::submit);
+        return results;
+    }
+
+    /**
+     * Submits an input, superseding any input not yet delivered. Called on the main thread.
+     *
+     * @param input The input
+     */
+    void submit(T input) {
+        if (closed) return;
+        generation++;
+        pending = input;
+        hasPending = true;
+        if (!running) runPending();
+    }
+
+    /**
+     * Cancels the work under way and drops every later input. Called on the main thread.
+     */
+    void close() {
+        closed = true;
+        generation++;
+        pending = null;
+        hasPending = false;
+    }
+
+    private void runPending() {
+        if (!hasPending || closed) return;
+        T input = pending;
+        pending = null;
+        hasPending = false;
+        running = true;
+
+        int submitted = generation;
+        Job job = () -> generation != submitted;
+        RideExecutors.background().execute(() -> {
+            R result = job.isCancelled() ? null : work.apply(input, job);
+            RideExecutors.postToMain(() -> {
+                running = false;
+                if (!job.isCancelled()) callback.onResult(result);
+                runPending();
+            });
+        });
+    }
+}
@@ -0,0 +1,43 @@
+package edu.uga.cs.rideshareapp;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+
+/**
+ * The signed-in user as seen by screens and adapters: just the UID and email.
+ * Normally read from FirebaseAuth; benchmark builds install a fixed user instead, so
+ * screens can run against a local dataset without signing in over the network.
+ */
+public final class UserSession {
+
+    private static UserSession override;
+
+    public final String uid;
+    public final String email;
+
+    public UserSession(String uid, String email) {
+        this.uid = uid;
+        this.email = email;
+    }
+
+    /**
+     * Returns the signed-in user.
+     *
+     * @return The user, or null if nobody is signed in
+     */
+    public static synchronized UserSession current() {
+        if (override != null) return override;
+
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        return user != null ? new UserSession(user.getUid(), user.getEmail()) : null;
+    }
+
+    /**
+     * Replaces FirebaseAuth as the source of the signed-in user.
+     *
+     * @param session The user every screen should see, or null to use FirebaseAuth again
+     */
+    public static synchronized void setOverride(UserSession session) {
+        override = session;
+    }
+}
@@ -0,0 +1,84 @@
+package edu.uga.cs.rideshareapp;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Cell encoding of {@link GeoHash}, and the cells covering a circle that the nearby feed
+ * subscribes to: a ride within the radius must always start in one of them.
+ */
+public class GeoHashTest {
+
+    private static final double ATHENS_LAT = 33.9519;
+    private static final double ATHENS_LNG = -83.3576;
+
+    @Test
+    public void encodeBase32_matchesKnownGeohash() {
+        assertEquals("dnh9", GeoHash.encodeBase32(ATHENS_LAT, ATHENS_LNG, 4));
+        assertEquals(GeoHash.encodeBase32(ATHENS_LAT, ATHENS_LNG, 6),
+                GeoHash.toBase32(GeoHash.encode(ATHENS_LAT, ATHENS_LNG, 30), 6));
+    }
+
+    @Test
+    public void longerHash_isCellInsideShorterOne() {
+        String coarse = GeoHash.encodeBase32(ATHENS_LAT, ATHENS_LNG, 4);
+        assertTrue(GeoHash.encodeBase32(ATHENS_LAT, ATHENS_LNG, Ride.CELL_LENGTH).startsWith(coarse));
+    }
+
+    @Test
+    public void cellsCovering_containEveryPointWithinRadius() {
+        assertCovered(ATHENS_LAT, ATHENS_LNG, 15_000, 30, new Random(1));
+        assertCovered(ATHENS_LAT, ATHENS_LNG, 15_000, 25, new Random(2));
+        assertCovered(ATHENS_LAT, ATHENS_LNG, 500, 30, new Random(3));
+
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            double lat = random.nextDouble() * 140 - 70;
+            double lng = random.nextDouble() * 360 - 180;
+            double radiusMeters = 100 + random.nextDouble() * 30_000;
+            int bits = 5 * (2 + random.nextInt(Ride.CELL_LENGTH - 1));
+            assertCovered(lat, lng, radiusMeters, bits, random);
+        }
+    }
+
+    @Test
+    public void cellsCovering_wrapAroundAntimeridian() {
+        assertCovered(10, 179.99, 20_000, 25, new Random(4));
+        assertCovered(10, -179.99, 20_000, 25, new Random(5));
+    }
+
+    @Test
+    public void cellsCovering_haveNoDuplicates() {
+        long[] cells = GeoHash.cellsCovering(ATHENS_LAT, ATHENS_LNG, 15_000, 25);
+        Set<Long> unique = new HashSet<>();
+        for (long cell : cells) unique.add(cell);
+        assertEquals(cells.length, unique.size());
+    }
+
+    /**
+     * Checks that random points within a radius, and points on its edge, fall in a covering cell.
+     */
+    private static void assertCovered(double lat, double lng, double radiusMeters, int bits, Random random) {
+        Set<Long> cells = new HashSet<>();
+        for (long cell : GeoHash.cellsCovering(lat, lng, radiusMeters, bits)) cells.add(cell);
+
+        for (int i = 0; i < 500; i++) {
+            // Half the points on the edge of the circle, where a missing cell would show first
+            double distance = radiusMeters * (i % 2 == 0 ? 0.999 : random.nextDouble());
+            double bearing = random.nextDouble() * 2 * Math.PI;
+            double pointLat = lat + GeoHash.metersToLatDegrees(distance * Math.cos(bearing));
+            double pointLng = GeoHash.wrapLongitude(
+                    lng + GeoHash.metersToLngDegrees(distance * Math.sin(bearing), lat));
+            if (GeoHash.distanceMeters(lat, lng, pointLat, pointLng) > radiusMeters) continue;
+
+            assertTrue(String.format("(%f, %f) within %.0f m of (%f, %f) not covered at %d bits",
+                            pointLat, pointLng, radiusMeters, lat, lng, bits),
+                    cells.contains(GeoHash.encode(pointLat, pointLng, bits)));
+        }
+    }
+}
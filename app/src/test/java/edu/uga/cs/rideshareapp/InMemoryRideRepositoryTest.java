@@ -0,0 +1,154 @@
+package edu.uga.cs.rideshareapp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Subscription callbacks of {@link InMemoryRideRepository}: subscribers hear about rides
+ * entering, changing in and leaving their query, and nothing else.
+ */
+public class InMemoryRideRepositoryTest {
+
+    private static final String DRIVER = "driver-1";
+    private static final String RIDER = "rider-1";
+    private static final String OPEN_OFFER = Ride.statusType(false, "offer");
+    private static final String ACCEPTED_OFFER = Ride.statusType(true, "offer");
+
+    private InMemoryRideRepository repository;
+
+    @Before
+    public void setUp() {
+        repository = new InMemoryRideRepository();
+    }
+
+    @Test
+    public void subscribe_replaysMatchingRidesThenCompletesInitialLoad() {
+        String key = repository.addRide(offer());
+        repository.addRide(request());
+
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        repository.subscribe(RideQuery.postedBy(DRIVER, OPEN_OFFER), subscriber);
+
+        assertEquals(List.of("put " + key, "loaded"), subscriber.events);
+    }
+
+    @Test
+    public void savedRide_entersAndChangesInQuery() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        repository.subscribe(RideQuery.postedBy(DRIVER, OPEN_OFFER), subscriber);
+
+        repository.saveRide(null, DRIVER, offer());
+        String key = subscriber.lastPut.getKey();
+
+        Ride edited = new Ride(subscriber.lastPut);
+        edited.to = "Savannah";
+        repository.saveRide(key, DRIVER, edited);
+
+        assertEquals(List.of("loaded", "put " + key, "put " + key), subscriber.events);
+        assertEquals("Savannah", subscriber.lastPut.to);
+    }
+
+    @Test
+    public void unchangedRide_isNotRedelivered() {
+        String key = repository.addRide(offer());
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        repository.subscribe(RideQuery.postedBy(DRIVER, OPEN_OFFER), subscriber);
+        subscriber.events.clear();
+
+        Ride same = new Ride(subscriber.lastPut);
+        repository.saveRide(key, DRIVER, same);
+
+        assertTrue(subscriber.events.isEmpty());
+    }
+
+    @Test
+    public void acceptedRide_leavesOpenQueryAndEntersAcceptedQueries() {
+        String key = repository.addRide(offer());
+        RecordingSubscriber open = new RecordingSubscriber();
+        RecordingSubscriber accepted = new RecordingSubscriber();
+        RecordingSubscriber riderRides = new RecordingSubscriber();
+        repository.subscribe(RideQuery.postedBy(DRIVER, OPEN_OFFER), open);
+        repository.subscribe(RideQuery.postedBy(DRIVER, ACCEPTED_OFFER), accepted);
+        repository.subscribe(RideQuery.userRides(RIDER), riderRides);
+
+        repository.acceptRide(key, RIDER);
+
+        assertEquals(List.of("put " + key, "loaded", "remove " + key), open.events);
+        assertEquals(List.of("loaded", "put " + key), accepted.events);
+        assertEquals(List.of("loaded", "put " + key), riderRides.events);
+        assertTrue(riderRides.lastPut.accepted);
+    }
+
+    @Test
+    public void deletedRide_leavesQuery() {
+        String key = repository.addRide(offer());
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        repository.subscribe(RideQuery.userRides(DRIVER), subscriber);
+
+        repository.deleteRide(key, DRIVER);
+
+        assertEquals(List.of("put " + key, "loaded", "remove " + key), subscriber.events);
+    }
+
+    @Test
+    public void sharedQuery_notifiesEverySubscriberUntilCancelled() {
+        RecordingSubscriber first = new RecordingSubscriber();
+        RecordingSubscriber second = new RecordingSubscriber();
+        RideRepository.Subscription firstSubscription =
+                repository.subscribe(RideQuery.userRides(DRIVER), first);
+        repository.subscribe(RideQuery.userRides(DRIVER), second);
+
+        String key = repository.addRide(offer());
+        firstSubscription.cancel();
+        firstSubscription.cancel();
+        repository.deleteRide(key, DRIVER);
+
+        assertEquals(List.of("loaded", "put " + key), first.events);
+        assertEquals(List.of("loaded", "put " + key, "remove " + key), second.events);
+    }
+
+    private static Ride offer() {
+        return ride("offer", DRIVER, null);
+    }
+
+    private static Ride request() {
+        return ride("request", null, RIDER);
+    }
+
+    private static Ride ride(String rideType, String driverId, String riderId) {
+        Ride ride = new Ride(rideType, driverId, riderId, "Athens", "Atlanta", "",
+                false, false, false);
+        ride.departureEpochMillis = 1745609400000L;
+        ride.updateQueryKeys();
+        return ride;
+    }
+
+    /**
+     * Records each callback as a short event, e.g. "put mem-...".
+     */
+    private static class RecordingSubscriber implements RideRepository.RideSubscriber {
+        final List<String> events = new ArrayList<>();
+        Ride lastPut;
+
+        @Override
+        public void onRidePut(Ride ride) {
+            events.add("put " + ride.getKey());
+            lastPut = ride;
+        }
+
+        @Override
+        public void onRideRemoved(String rideKey) {
+            events.add("remove " + rideKey);
+        }
+
+        @Override
+        public void onInitialLoadComplete() {
+            events.add("loaded");
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package edu.uga.cs.rideshareapp;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round trips of rides through {@link RideCodec}, and the version 1 to version 2 rewrite
+ * the loadgen module's RideMigrator applies, on plain value maps as getValue() returns them.
+ */
+public class RideCodecTest {
+
+    private static final long DEPARTURE = 1745609400000L;
+
+    @Test
+    public void openRide_roundTrips() {
+        Ride ride = ride("offer", "driver-1", null, false);
+        Ride decoded = RideCodec.decode("ride-1", RideCodec.encode(ride));
+
+        assertNotNull(decoded);
+        assertEquals("ride-1", decoded.getKey());
+        assertTrue(decoded.hasSameContent(ride));
+    }
+
+    @Test
+    public void acceptedConfirmedRideWithCoordinates_roundTrips() {
+        Ride ride = ride("request", "driver-1", "rider-1", true);
+        ride.fromLat = 33.9519;
+        ride.fromLng = -83.3576;
+        ride.toLat = 33.6407;
+        ride.toLng = -84.4277;
+        ride.driverConfirmed = true;
+        ride.updateQueryKeys();
+
+        Map<String, Object> value = RideCodec.encode(ride);
+        Ride decoded = RideCodec.decode("ride-2", value);
+
+        assertNotNull(decoded);
+        assertFalse(value.containsKey(RideCodec.FIELD_STATUS_TYPE_CELL));
+        assertTrue(decoded.hasSameContent(ride));
+        assertNotNull(decoded.statusTypeCell);
+    }
+
+    @Test
+    public void openCopy_storesCellKeyAndDecodesToSameRide() {
+        Ride ride = ride("offer", "driver-1", null, false);
+        ride.fromLat = 33.9519;
+        ride.fromLng = -83.3576;
+        ride.toLat = 33.6407;
+        ride.toLng = -84.4277;
+        ride.updateQueryKeys();
+
+        Map<String, Object> copy = RideCodec.encodeOpenCopy(ride);
+        Ride decoded = RideCodec.decode("ride-5", copy);
+
+        assertEquals(ride.statusTypeCell, copy.get(RideCodec.FIELD_STATUS_TYPE_CELL));
+        assertNotNull(decoded);
+        assertTrue(decoded.hasSameContent(ride));
+    }
+
+    @Test
+    public void encode_writesCurrentVersionWithoutUnsetFields() {
+        Map<String, Object> value = RideCodec.encode(ride("offer", "driver-1", null, false));
+
+        assertEquals(RideCodec.VERSION, RideCodec.version(value));
+        assertFalse(value.containsKey(RideCodec.FIELD_RIDER_ID));
+        assertFalse(value.containsKey(RideCodec.FIELD_DRIVER_CONFIRMED));
+        assertFalse(value.containsKey(RideCodec.FIELD_FROM_LAT));
+        assertFalse(value.containsKey(RideCodec.FIELD_STATUS_TYPE_CELL));
+    }
+
+    @Test
+    public void versionOneRide_decodesWithDerivedDepartureAndQueryKeys() {
+        Map<String, Object> value = versionOneRide();
+        Ride decoded = RideCodec.decode("ride-3", value);
+
+        assertNotNull(decoded);
+        assertEquals(1, RideCodec.version(value));
+        assertEquals("request", decoded.rideType);
+        assertEquals("rider-1", decoded.riderId);
+        assertTrue(decoded.accepted);
+        assertTrue(decoded.riderConfirmed);
+        assertEquals(RideDates.formatDateTime(decoded.departureEpochMillis), decoded.dateTime);
+        assertEquals(Ride.statusType(true, "request"), decoded.statusType);
+        assertEquals(Ride.statusTypeDeparture(decoded.statusType, decoded.departureEpochMillis),
+                decoded.statusTypeDeparture);
+        assertEquals("rider-1_" + decoded.statusType, decoded.posterStatusType);
+    }
+
+    @Test
+    public void versionOneRide_migratesToCurrentVersionWithoutEmails() {
+        Ride versionOne = RideCodec.decode("ride-3", versionOneRide());
+        Map<String, Object> migrated = RideCodec.encode(versionOne);
+
+        assertEquals(RideCodec.VERSION, RideCodec.version(migrated));
+        assertFalse(migrated.containsKey("riderEmail"));
+        assertFalse(migrated.containsKey("driverEmail"));
+        assertFalse(migrated.containsKey("dateTime"));
+
+        Ride decoded = RideCodec.decode("ride-3", migrated);
+        assertNotNull(decoded);
+        assertTrue(decoded.hasSameContent(versionOne));
+    }
+
+    @Test
+    public void versionOneRide_confirmedSinceKeepsConfirmationInAnyChildOrder() {
+        // A version 1 ride its driver confirmed through the version 2 child
+        Map<String, Object> confirmed = new TreeMap<>(versionOneRide());
+        confirmed.put(RideCodec.FIELD_DRIVER_CONFIRMED, true);
+
+        // Key order, as a snapshot's children come, reads "dc" before "driverConfirmed"
+        Map<String, Object> reversed = new LinkedHashMap<>();
+        for (String name : ((TreeMap<String, Object>) confirmed).descendingKeySet()) {
+            reversed.put(name, confirmed.get(name));
+        }
+
+        for (Map<String, Object> value : List.of(confirmed, reversed)) {
+            Ride decoded = RideCodec.decode("ride-3", value);
+            assertNotNull(decoded);
+            assertTrue(decoded.driverConfirmed);
+            assertTrue(decoded.riderConfirmed);
+        }
+    }
+
+    @Test
+    public void decode_rejectsValuesThatAreNotRides() {
+        assertNull(RideCodec.decode("ride-4", "not a ride"));
+        assertNull(RideCodec.decode("ride-4", new HashMap<String, Object>()));
+
+        Map<String, Object> badDate = versionOneRide();
+        badDate.put("dateTime", "tomorrow");
+        assertNull(RideCodec.decode("ride-4", badDate));
+    }
+
+    @Test
+    public void acceptUpdates_leaveTheStoredRideAsAWholeRewriteWould() {
+        Ride open = ride("offer", "driver-1", null, false);
+        open.setKey("ride-5");
+        Map<String, Object> stored = new HashMap<>(RideCodec.encode(open));
+
+        Map<String, Object> updates = RideIndex.acceptUpdates(open, "rider-2");
+        String ridePrefix = RideIndex.ridePath("ride-5") + "/";
+        for (Map.Entry<String, Object> update : updates.entrySet()) {
+            if (update.getKey().startsWith(ridePrefix)) {
+                stored.put(update.getKey().substring(ridePrefix.length()), update.getValue());
+            }
+        }
+
+        Ride accepted = ride("offer", "driver-1", "rider-2", true);
+        assertEquals(RideCodec.encode(accepted), stored);
+        assertEquals(Boolean.TRUE, updates.get(RideIndex.userRidePath("rider-2", "ride-5")));
+        assertTrue(updates.containsKey(RideIndex.openRidePath(DEPARTURE, "ride-5")));
+        assertNull(updates.get(RideIndex.openRidePath(DEPARTURE, "ride-5")));
+    }
+
+    private static Ride ride(String rideType, String driverId, String riderId, boolean accepted) {
+        Ride ride = new Ride(rideType, driverId, riderId, "Athens", "Atlanta Airport",
+                RideDates.formatDateTime(DEPARTURE), accepted, false, false);
+        ride.departureEpochMillis = DEPARTURE;
+        ride.updateQueryKeys();
+        return ride;
+    }
+
+    /**
+     * A ride as version 1 stored it: the Ride bean with emails, a date/time string and no
+     * departure time or query keys.
+     */
+    private static Map<String, Object> versionOneRide() {
+        Map<String, Object> value = new HashMap<>();
+        value.put("rideType", "request");
+        value.put("driverId", "driver-1");
+        value.put("driverEmail", "driver@uga.edu");
+        value.put("riderId", "rider-1");
+        value.put("riderEmail", "rider@uga.edu");
+        value.put("from", "Athens");
+        value.put("to", "Atlanta Airport");
+        value.put("dateTime", "04-25-2025 03:30 PM");
+        value.put("accepted", true);
+        value.put("driverConfirmed", false);
+        value.put("riderConfirmed", true);
+        return value;
+    }
+}
@@ -0,0 +1,59 @@
+package edu.uga.cs.rideshareapp;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link RideDates#formatDateTime(long)} against SimpleDateFormat, in the device's time zone
+ * whatever it is or becomes.
+ */
+public class RideDatesTest {
+
+    private final TimeZone defaultZone = TimeZone.getDefault();
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(defaultZone);
+    }
+
+    @Test
+    public void formatDateTime_matchesSimpleDateFormat() {
+        Random random = new Random(42);
+        for (String zone : new String[] {"America/New_York", "UTC", "Asia/Kolkata", "Pacific/Chatham"}) {
+            TimeZone.setDefault(TimeZone.getTimeZone(zone));
+            for (int i = 0; i < 2_000; i++) {
+                // Any minute from 1970 to about 2100
+                long millis = (random.nextLong() & Long.MAX_VALUE) % (4_100_000_000_000L) / 60_000 * 60_000;
+                assertEquals(zone + " " + millis, expected(millis), RideDates.formatDateTime(millis));
+            }
+        }
+    }
+
+    @Test
+    public void formatDateTime_handlesMidnightNoonAndFarYears() {
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+        assertEquals("01-01-1970 12:00 AM", RideDates.formatDateTime(0));
+        assertEquals("01-01-1970 12:00 PM", RideDates.formatDateTime(12 * 60 * 60 * 1000L));
+        assertEquals(expected(-62_000_000_000_000L), RideDates.formatDateTime(-62_000_000_000_000L));
+        assertEquals(expected(300_000_000_000_000L), RideDates.formatDateTime(300_000_000_000_000L));
+    }
+
+    @Test
+    public void formatDateTime_roundTripsThroughParse() throws ParseException {
+        long departure = 1745609400000L;
+        assertEquals(departure, RideDates.parseDepartureMillis(RideDates.formatDateTime(departure)));
+    }
+
+    private static String expected(long millis) {
+        return new SimpleDateFormat(RideDates.DATE_TIME_PATTERN, Locale.US).format(new Date(millis));
+    }
+}
@@ -0,0 +1,147 @@
+package edu.uga.cs.rideshareapp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Ordering, filtering and row-level change reporting of {@link RideFeed}.
+ */
+public class RideFeedTest {
+
+    private RideFeed feed;
+    private List<String> events;
+
+    @Before
+    public void setUp() {
+        feed = new RideFeed(RideFeeds.BY_DEPARTURE, RideFeeds.ACTIVE);
+        events = new ArrayList<>();
+        feed.setListener(new RideFeed.Listener() {
+            @Override
+            public void onRideInserted(int position) {
+                events.add("insert " + position);
+            }
+
+            @Override
+            public void onRideChanged(int position) {
+                events.add("change " + position);
+            }
+
+            @Override
+            public void onRideRemoved(int position) {
+                events.add("remove " + position);
+            }
+
+            @Override
+            public void onRideMoved(int fromPosition, int toPosition) {
+                events.add("move " + fromPosition + " " + toPosition);
+            }
+
+            @Override
+            public void onRidesCleared(int count) {
+                events.add("clear " + count);
+            }
+        });
+    }
+
+    @Test
+    public void put_keepsDepartureOrderWithKeyAsTieBreak() {
+        feed.put(ride("c", 300));
+        feed.put(ride("b", 100));
+        feed.put(ride("a", 300));
+        feed.put(ride("d", 200));
+
+        assertEquals(List.of("b", "d", "a", "c"), keys());
+        assertEquals(List.of("insert 0", "insert 0", "insert 1", "insert 1"), events);
+    }
+
+    @Test
+    public void put_movesChangedRideAndReportsTheChange() {
+        feed.put(ride("a", 100));
+        feed.put(ride("b", 200));
+        feed.put(ride("c", 300));
+        events.clear();
+
+        feed.put(ride("a", 400));
+
+        assertEquals(List.of("b", "c", "a"), keys());
+        assertEquals(List.of("move 0 2", "change 2"), events);
+    }
+
+    @Test
+    public void put_ignoresRideRedeliveredUnchanged() {
+        feed.put(ride("a", 100));
+        events.clear();
+
+        Ride redelivered = ride("a", 100);
+        feed.put(redelivered);
+
+        assertTrue(events.isEmpty());
+        assertSame(redelivered, feed.getRides().get(0));
+    }
+
+    @Test
+    public void put_removesRideThatNoLongerMatches() {
+        feed.put(ride("a", 100));
+        feed.put(ride("b", 200));
+        events.clear();
+
+        Ride confirmed = ride("a", 100);
+        confirmed.driverConfirmed = true;
+        confirmed.riderConfirmed = true;
+        feed.put(confirmed);
+
+        assertEquals(List.of("b"), keys());
+        assertEquals(List.of("remove 0"), events);
+    }
+
+    @Test
+    public void remove_reportsPositionAndIgnoresUnknownKeys() {
+        feed.put(ride("a", 100));
+        feed.put(ride("b", 200));
+        feed.put(ride("c", 300));
+        events.clear();
+
+        feed.remove("b");
+        feed.remove("missing");
+
+        assertEquals(List.of("a", "c"), keys());
+        assertEquals(List.of("remove 1"), events);
+    }
+
+    @Test
+    public void clear_reportsCountOnlyWhenNotEmpty() {
+        feed.clear();
+        feed.put(ride("a", 100));
+        feed.put(ride("b", 200));
+        events.clear();
+
+        feed.clear();
+
+        assertTrue(feed.getRides().isEmpty());
+        assertEquals(List.of("clear 2"), events);
+
+        // A ride put again after clearing is inserted afresh
+        feed.put(ride("a", 100));
+        assertEquals(List.of("clear 2", "insert 0"), events);
+    }
+
+    private List<String> keys() {
+        List<String> keys = new ArrayList<>();
+        for (Ride ride : feed.getRides()) keys.add(ride.getKey());
+        return keys;
+    }
+
+    private static Ride ride(String key, long departureEpochMillis) {
+        Ride ride = new Ride("offer", "driver-" + key, "rider-" + key, "Athens", "Atlanta",
+                "", true, false, false);
+        ride.departureEpochMillis = departureEpochMillis;
+        ride.updateQueryKeys();
+        ride.setKey(key);
+        return ride;
+    }
+}
@@ -0,0 +1,163 @@
+package edu.uga.cs.rideshareapp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link RideMatcher} against a brute-force scan of every offer: the indexed lookup must
+ * return exactly the best compatible offers, in the same order, as offers come and go.
+ */
+public class RideMatcherTest {
+
+    private static final double RADIUS_METERS = 5_000;
+    private static final long WINDOW_MILLIS = 2 * 60 * 60 * 1000L;
+    private static final long FIRST_DEPARTURE = 1745609400000L;
+    private static final long SPAN_MILLIS = 3 * 24 * 60 * 60 * 1000L;
+    private static final int LIMIT = 10;
+
+    private final Random random = new Random(42);
+    private final Map<String, Ride> offers = new HashMap<>();
+    private RideMatcher matcher;
+
+    @Before
+    public void setUp() {
+        matcher = new RideMatcher(RADIUS_METERS, WINDOW_MILLIS);
+        for (int i = 0; i < 5_000; i++) {
+            put(offer("offer-" + i));
+        }
+    }
+
+    @Test
+    public void match_equalsBruteForce() {
+        for (int i = 0; i < 300; i++) {
+            assertMatchesBruteForce(request("rider-" + i));
+        }
+    }
+
+    @Test
+    public void match_equalsBruteForceAfterUpdatesAndRemovals() {
+        for (int i = 0; i < 2_000; i++) {
+            String key = "offer-" + random.nextInt(5_000);
+            if (i % 3 == 0) {
+                offers.remove(key);
+                matcher.remove(key);
+            } else {
+                put(offer(key));
+            }
+        }
+        assertEquals(offers.size(), matcher.size());
+
+        for (int i = 0; i < 300; i++) {
+            assertMatchesBruteForce(request("rider-" + i));
+        }
+    }
+
+    @Test
+    public void match_skipsAcceptedOffersAndTheRidersOwn() {
+        Ride request = request("rider-1");
+
+        Ride accepted = offerAt("accepted", request);
+        accepted.accepted = true;
+        accepted.riderId = "rider-2";
+        accepted.updateQueryKeys();
+        matcher.put(accepted);
+
+        Ride own = offerAt("own", request);
+        own.driverId = request.riderId;
+        own.updateQueryKeys();
+        matcher.put(own);
+
+        matcher.put(offerAt("exact", request));
+
+        List<RideMatcher.Match> matches = matcher.match(request, Integer.MAX_VALUE);
+        assertEquals("exact", matches.get(0).offer.getKey());
+        for (RideMatcher.Match match : matches) {
+            assertNotEquals("accepted", match.offer.getKey());
+            assertNotEquals("own", match.offer.getKey());
+        }
+    }
+
+    @Test
+    public void match_returnsNothingWithoutCoordinatesOrLimit() {
+        Ride request = request("rider-1");
+        assertTrue(matcher.match(request, 0).isEmpty());
+
+        request.fromLat = 0;
+        request.fromLng = 0;
+        assertTrue(matcher.match(request, LIMIT).isEmpty());
+    }
+
+    private void put(Ride offer) {
+        offers.put(offer.getKey(), offer);
+        matcher.put(offer);
+    }
+
+    private void assertMatchesBruteForce(Ride request) {
+        List<RideMatcher.Match> expected = new ArrayList<>();
+        for (Ride offer : offers.values()) {
+            long delta = offer.departureEpochMillis - request.departureEpochMillis;
+            double pickup = GeoHash.distanceMeters(request.fromLat, request.fromLng, offer.fromLat, offer.fromLng);
+            double dropOff = GeoHash.distanceMeters(request.toLat, request.toLng, offer.toLat, offer.toLng);
+            if (Math.abs(delta) > WINDOW_MILLIS || pickup > RADIUS_METERS || dropOff > RADIUS_METERS) continue;
+            double score = pickup / RADIUS_METERS + dropOff / RADIUS_METERS + (double) Math.abs(delta) / WINDOW_MILLIS;
+            expected.add(new RideMatcher.Match(offer, pickup, dropOff, delta, score));
+        }
+        expected.sort(Comparator.comparingDouble(match -> match.score));
+
+        List<RideMatcher.Match> actual = matcher.match(request, LIMIT);
+        assertEquals(Math.min(LIMIT, expected.size()), actual.size());
+        for (int i = 0; i < actual.size(); i++) {
+            assertEquals(expected.get(i).offer.getKey(), actual.get(i).offer.getKey());
+            assertEquals(expected.get(i).score, actual.get(i).score, 1e-12);
+        }
+    }
+
+    /**
+     * An open offer between two random points around Athens, Georgia, dense enough that many
+     * requests have more compatible offers than the limit.
+     */
+    private Ride offer(String key) {
+        Ride ride = new Ride("offer", "driver-" + key, null, "From", "To", "", false, false, false);
+        ride.fromLat = 33.95 + random.nextDouble() * 0.2 - 0.1;
+        ride.fromLng = -83.38 + random.nextDouble() * 0.2 - 0.1;
+        ride.toLat = 33.75 + random.nextDouble() * 0.2 - 0.1;
+        ride.toLng = -84.39 + random.nextDouble() * 0.2 - 0.1;
+        ride.departureEpochMillis = FIRST_DEPARTURE + (long) (random.nextDouble() * SPAN_MILLIS);
+        ride.updateQueryKeys();
+        ride.setKey(key);
+        return ride;
+    }
+
+    private Ride request(String riderId) {
+        Ride ride = offer("request-" + riderId);
+        ride.rideType = "request";
+        ride.driverId = null;
+        ride.riderId = riderId;
+        ride.updateQueryKeys();
+        return ride;
+    }
+
+    /**
+     * An open offer leaving from and going to exactly where a request does, at the same time.
+     */
+    private static Ride offerAt(String key, Ride request) {
+        Ride ride = new Ride("offer", "driver-" + key, null, "From", "To", "", false, false, false);
+        ride.fromLat = request.fromLat;
+        ride.fromLng = request.fromLng;
+        ride.toLat = request.toLat;
+        ride.toLng = request.toLng;
+        ride.departureEpochMillis = request.departureEpochMillis;
+        ride.updateQueryKeys();
+        ride.setKey(key);
+        return ride;
+    }
+}
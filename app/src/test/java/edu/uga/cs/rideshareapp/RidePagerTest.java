@@ -0,0 +1,109 @@
+package edu.uga.cs.rideshareapp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Page loading, eviction and restoring of {@link RidePager} over an
+ * {@link InMemoryRideRepository}, which delivers every window synchronously.
+ */
+public class RidePagerTest {
+
+    private static final int RIDES = 100;
+    private static final int PAGE_SIZE = 10;
+    private static final int PREFETCH_DISTANCE = 2;
+    private static final int MAX_PAGES = 3;
+
+    private RideFeed feed;
+    private RidePager pager;
+
+    @Before
+    public void setUp() {
+        InMemoryRideRepository repository = new InMemoryRideRepository();
+        long firstDeparture = System.currentTimeMillis() + RideDates.DAY_MILLIS;
+        for (int i = 0; i < RIDES; i++) {
+            repository.addRide(ride(i, firstDeparture + i * 60_000L));
+        }
+
+        feed = new RideFeed(RideFeeds.BY_DEPARTURE, RideFeeds.ALL);
+        pager = new RidePager(repository, feed, PAGE_SIZE, PREFETCH_DISTANCE, MAX_PAGES);
+        pager.start(Ride.statusType(false, "offer"));
+    }
+
+    @Test
+    public void start_loadsFirstPage() {
+        assertFeed(0, PAGE_SIZE);
+    }
+
+    @Test
+    public void scrollingNearEnd_loadsNextPage() {
+        pager.onVisibleRangeChanged(0, 6);
+        assertFeed(0, PAGE_SIZE);
+
+        pager.onVisibleRangeChanged(2, 7);
+        assertFeed(0, 2 * PAGE_SIZE);
+    }
+
+    @Test
+    public void fullWindow_dropsPageFarAboveViewport() {
+        pager.onVisibleRangeChanged(0, 9);
+        pager.onVisibleRangeChanged(10, 19);
+        assertFeed(0, MAX_PAGES * PAGE_SIZE);
+
+        // Loading a fourth page drops the first, keeping at most MAX_PAGES in memory
+        pager.onVisibleRangeChanged(20, 29);
+        assertFeed(PAGE_SIZE, MAX_PAGES * PAGE_SIZE);
+    }
+
+    @Test
+    public void scrollingBackUp_restoresDroppedPage() {
+        pager.onVisibleRangeChanged(0, 9);
+        pager.onVisibleRangeChanged(10, 19);
+        pager.onVisibleRangeChanged(20, 29);
+        assertFeed(PAGE_SIZE, MAX_PAGES * PAGE_SIZE);
+
+        // The rows shown after the drop are the same rides, now PAGE_SIZE positions higher
+        pager.onVisibleRangeChanged(1, 8);
+        assertFeed(0, MAX_PAGES * PAGE_SIZE);
+    }
+
+    @Test
+    public void scrollingToEnd_keepsWindowBoundedAndStopsAtLastRide() {
+        for (int step = 0; step < RIDES; step++) {
+            List<Ride> rides = feed.getRides();
+            pager.onVisibleRangeChanged(Math.max(rides.size() - 8, 0), rides.size() - 1);
+            assertTrue(feed.getRides().size() <= MAX_PAGES * PAGE_SIZE);
+        }
+
+        List<Ride> rides = feed.getRides();
+        assertEquals(key(RIDES - 1), rides.get(rides.size() - 1).getKey());
+    }
+
+    /**
+     * Checks that the feed holds a run of consecutive rides.
+     */
+    private void assertFeed(int first, int count) {
+        List<Ride> rides = feed.getRides();
+        assertEquals(count, rides.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(key(first + i), rides.get(i).getKey());
+        }
+    }
+
+    private static String key(int index) {
+        return String.format("ride-%03d", index);
+    }
+
+    private static Ride ride(int index, long departureEpochMillis) {
+        Ride ride = new Ride("offer", "driver-" + index, null, "Athens", "Atlanta", "",
+                false, false, false);
+        ride.departureEpochMillis = departureEpochMillis;
+        ride.updateQueryKeys();
+        ride.setKey(key(index));
+        return ride;
+    }
+}
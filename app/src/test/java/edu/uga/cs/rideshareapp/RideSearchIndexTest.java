@@ -0,0 +1,99 @@
+package edu.uga.cs.rideshareapp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Prefix search of {@link RideSearchIndex}, and keeping it current as rides are replaced
+ * and removed.
+ */
+public class RideSearchIndexTest {
+
+    private RideSearchIndex index;
+
+    @Before
+    public void setUp() {
+        index = new RideSearchIndex();
+        index.put(ride("a", "Athens Downtown", "Atlanta Airport"));
+        index.put(ride("b", "Atlanta", "Savannah Harbor"));
+        index.put(ride("c", "Macon Café", "Augusta"));
+    }
+
+    @Test
+    public void search_matchesWordPrefixesInEitherPlace() {
+        assertEquals(Set.of("a", "b"), index.search("atl"));
+        assertEquals(Set.of("a", "b", "c"), index.search("a"));
+        assertEquals(Set.of("c"), index.search("au"));
+        assertEquals(Set.of("b"), index.search("harb"));
+        assertTrue(index.search("airports").isEmpty());
+    }
+
+    @Test
+    public void search_requiresEveryWordIgnoringCaseAccentsAndPunctuation() {
+        assertEquals(Set.of("a"), index.search("ATL, air"));
+        assertEquals(Set.of("c"), index.search("cafe mac"));
+        assertTrue(index.search("atlanta macon").isEmpty());
+    }
+
+    @Test
+    public void search_returnsNullForQueryWithoutWords() {
+        assertNull(index.search(""));
+        assertNull(index.search("  -, "));
+    }
+
+    @Test
+    public void put_replacesRideWithSameKey() {
+        index.put(ride("b", "Dalton", "Columbus"));
+
+        assertEquals(Set.of("a"), index.search("atlanta"));
+        assertEquals(Set.of("b"), index.search("dal"));
+        assertTrue(index.search("savannah").isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void remove_dropsRideAndKeepsOthersSharingItsWords() {
+        index.remove("b");
+        index.remove("missing");
+
+        assertEquals(Set.of("a"), index.search("atl"));
+        assertTrue(index.search("savannah").isEmpty());
+        assertEquals(2, index.size());
+
+        // A place repeated within one ride is still found until the ride goes
+        index.put(ride("d", "Atlanta", "Atlanta Airport"));
+        index.remove("a");
+        assertEquals(Set.of("d"), index.search("atlanta air"));
+    }
+
+    @Test
+    public void update_followsSnapshot() {
+        Ride kept = ride("a", "Athens Downtown", "Atlanta Airport");
+        index.update(List.of(kept, ride("d", "Gainesville", "Athens")));
+
+        assertEquals(2, index.size());
+        assertEquals(Set.of("a", "d"), index.search("athens"));
+        assertTrue(index.search("macon").isEmpty());
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertTrue(index.search("athens").isEmpty());
+    }
+
+    @Test
+    public void normalize_splitsIntoPlainLowerCaseWords() {
+        assertEquals(List.of("cafe", "du", "monde", "5"), RideSearchIndex.normalize("Café du  Monde #5"));
+        assertTrue(RideSearchIndex.normalize(null).isEmpty());
+    }
+
+    private static Ride ride(String key, String from, String to) {
+        Ride ride = new Ride("offer", "driver-" + key, null, from, to, "", false, false, false);
+        ride.setKey(key);
+        return ride;
+    }
+}
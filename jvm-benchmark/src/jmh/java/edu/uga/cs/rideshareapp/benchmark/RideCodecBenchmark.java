@@ -0,0 +1,96 @@
+package edu.uga.cs.rideshareapp.benchmark;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.InternalHelpers;
+import com.google.firebase.database.core.Path;
+import com.google.firebase.database.snapshot.IndexedNode;
+import com.google.firebase.database.snapshot.NodeUtilities;
+import com.google.firebase.database.utilities.encoding.CustomClassMapper;
+
+import edu.uga.cs.rideshareapp.Ride;
+import edu.uga.cs.rideshareapp.RideCodec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Throughput of decoding ride snapshots, each call decoding all of them:
+ * <ul>
+ *     <li>beanMapper: Firebase's reflective getValue(Ride.class) on snapshots of the plain
+ *     Ride bean, as the feeds decoded rides before RideCodec</li>
+ *     <li>codecDecode: RideCodec.decode() on snapshots of the compact schema</li>
+ *     <li>codecDecodeInto: RideCodec.decodeInto() into one reused ride, as query updates do</li>
+ * </ul>
+ *
+ * Snapshots are built offline from the same rides through the Admin SDK, whose snapshot and
+ * class mapper are the ones the Android SDK ships, with a reference that has no repo.
+ */
+@State(Scope.Thread)
+public class RideCodecBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    private DataSnapshot[] beanSnapshots;
+    private DataSnapshot[] compactSnapshots;
+    private final Ride scratch = new Ride();
+
+    @Setup
+    public void setUp() {
+        DatabaseReference ridesRef = InternalHelpers.createReference(null, new Path("rides"));
+        Ride[] rides = RideFixtures.rides(rows);
+        beanSnapshots = new DataSnapshot[rows];
+        compactSnapshots = new DataSnapshot[rows];
+
+        for (int i = 0; i < rows; i++) {
+            Ride ride = rides[i];
+            ride.updateQueryKeys();
+            DatabaseReference rideRef = ridesRef.child(ride.getKey());
+            beanSnapshots[i] = snapshot(rideRef, CustomClassMapper.convertToPlainJavaTypes(ride));
+            compactSnapshots[i] = snapshot(rideRef, CustomClassMapper.convertToPlainJavaTypes(RideCodec.encode(ride)));
+
+            // Both paths must decode to the same ride, or the comparison means nothing
+            Ride expected = beanSnapshots[i].getValue(Ride.class);
+            Ride actual = RideCodec.decode(compactSnapshots[i]);
+            if (actual == null || !expected.hasSameContent(actual)) {
+                throw new IllegalStateException("Ride " + ride.getKey() + " decodes differently");
+            }
+        }
+    }
+
+    @Benchmark
+    public long beanMapper() {
+        long sum = 0;
+        for (DataSnapshot snapshot : beanSnapshots) {
+            sum += snapshot.getValue(Ride.class).departureEpochMillis;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long codecDecode() {
+        long sum = 0;
+        for (DataSnapshot snapshot : compactSnapshots) {
+            sum += RideCodec.decode(snapshot).departureEpochMillis;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long codecDecodeInto() {
+        long sum = 0;
+        for (DataSnapshot snapshot : compactSnapshots) {
+            RideCodec.decodeInto(snapshot, scratch);
+            sum += scratch.departureEpochMillis;
+        }
+        return sum;
+    }
+
+    private static DataSnapshot snapshot(DatabaseReference ref, Object value) {
+        return InternalHelpers.createDataSnapshot(ref, IndexedNode.from(NodeUtilities.NodeFromJSON(value)));
+    }
+}
@@ -0,0 +1,44 @@
+package edu.uga.cs.rideshareapp.benchmark;
+
+import edu.uga.cs.rideshareapp.RideDates;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.text.ParseException;
+
+/**
+ * Throughput of converting between ride date/time strings and departure times, done for
+ * every posted ride, every migrated ride and every decoded compact ride.
+ */
+@State(Scope.Thread)
+public class RideDatesBenchmark {
+
+    private static final int VALUES = 1024;
+
+    private final String[] dateTimes = new String[VALUES];
+    private final long[] departures = new long[VALUES];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < VALUES; i++) {
+            departures[i] = RideFixtures.FIRST_DEPARTURE + i * 7 * RideFixtures.DEPARTURE_STEP_MILLIS;
+            dateTimes[i] = RideDates.formatDateTime(departures[i]);
+        }
+    }
+
+    @Benchmark
+    public long parseDepartureMillis() throws ParseException {
+        next = (next + 1) & (VALUES - 1);
+        return RideDates.parseDepartureMillis(dateTimes[next]);
+    }
+
+    @Benchmark
+    public String formatDateTime() {
+        next = (next + 1) & (VALUES - 1);
+        return RideDates.formatDateTime(departures[next]);
+    }
+}
@@ -0,0 +1,104 @@
+package edu.uga.cs.rideshareapp.benchmark;
+
+import edu.uga.cs.rideshareapp.Ride;
+import edu.uga.cs.rideshareapp.RideFeed;
+import edu.uga.cs.rideshareapp.RideFeeds;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Throughput of the ride feeds behind the three ride screens, over 1k to 1M rides:
+ * <ul>
+ *     <li>load*: filtering and ordering a full initial load, as loadActiveRides(),
+ *     loadMyPosts() and loadOthersPosts() do</li>
+ *     <li>redeliverUnchanged: the content diff that drops re-delivered, unchanged rides</li>
+ *     <li>applyUpdates: moving and rebinding the rows of changed rides</li>
+ *     <li>publishSnapshot: the immutable copy RideStream publishes after each change</li>
+ * </ul>
+ */
+@State(Scope.Thread)
+public class RideFeedBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int rows;
+
+    private Ride[] rides;
+    private Ride[] copies;
+    private Ride[] updates;
+    private Ride[] reverts;
+    private RideFeed loadedFeed;
+    private boolean updated;
+
+    @Setup
+    public void setUp() {
+        rides = RideFixtures.rides(rows);
+        copies = RideFixtures.copies(rides);
+        updates = RideFixtures.updates(rides, 6);
+        reverts = new Ride[updates.length];
+        for (int i = 0; i < reverts.length; i++) {
+            reverts[i] = rides[i * 100];
+        }
+
+        loadedFeed = new RideFeed(RideFeeds.BY_DEPARTURE, RideFeeds.ALL);
+        for (Ride ride : rides) {
+            loadedFeed.put(ride);
+        }
+    }
+
+    @Benchmark
+    public int loadActiveRides() {
+        return load(new RideFeed(RideFeeds.BY_DEPARTURE, RideFeeds.ACTIVE));
+    }
+
+    @Benchmark
+    public int loadMyPosts() {
+        return load(new RideFeed(RideFeeds.BY_DEPARTURE, RideFeeds.ALL));
+    }
+
+    @Benchmark
+    public int loadOthersPosts() {
+        return load(new RideFeed(RideFeeds.BY_DEPARTURE,
+                ride -> RideFeeds.isPostedByOther(ride, RideFixtures.VIEWER)));
+    }
+
+    @Benchmark
+    public int redeliverUnchanged() {
+        for (Ride ride : copies) {
+            loadedFeed.put(ride);
+        }
+        return loadedFeed.getRides().size();
+    }
+
+    /**
+     * Alternates between applying the updates and reverting them, so every call moves rows.
+     */
+    @Benchmark
+    public int applyUpdates() {
+        Ride[] changes = updated ? reverts : updates;
+        updated = !updated;
+        for (Ride ride : changes) {
+            loadedFeed.put(ride);
+        }
+        return loadedFeed.getRides().size();
+    }
+
+    @Benchmark
+    public List<Ride> publishSnapshot() {
+        return Collections.unmodifiableList(new ArrayList<>(loadedFeed.getRides()));
+    }
+
+    private int load(RideFeed feed) {
+        for (Ride ride : rides) {
+            feed.put(ride);
+        }
+        return feed.getRides().size();
+    }
+}
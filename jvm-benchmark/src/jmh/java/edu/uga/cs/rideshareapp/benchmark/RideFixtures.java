@@ -0,0 +1,98 @@
+package edu.uga.cs.rideshareapp.benchmark;
+
+import edu.uga.cs.rideshareapp.Ride;
+import edu.uga.cs.rideshareapp.RideDates;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic rides for the benchmarks.
+ */
+final class RideFixtures {
+
+    /** The user whose screens the benchmarks load */
+    static final String VIEWER = "user-0";
+
+    static final long FIRST_DEPARTURE = 1745609400000L;
+    static final long DEPARTURE_STEP_MILLIS = 15 * 60 * 1000;
+
+    private static final int USERS = 500;
+    private static final String[] PLACES = {
+            "Athens", "Atlanta", "Augusta", "Macon", "Savannah", "Columbus", "Gainesville", "Dalton"
+    };
+
+    private RideFixtures() {}
+
+    /**
+     * Creates rides in key order, the order a query delivers them in. Rides are posted
+     * shortly before they depart, so departures mostly follow key order with some jitter.
+     * About a third are accepted, a tenth of those confirmed by both users, and one ride in
+     * fifty involves the viewer.
+     *
+     * @param count How many rides to create
+     * @return The rides, keys set
+     */
+    static Ride[] rides(int count) {
+        Random random = new Random(42);
+        Ride[] rides = new Ride[count];
+
+        for (int i = 0; i < count; i++) {
+            boolean offer = random.nextBoolean();
+            String poster = i % 50 == 0 ? VIEWER : "user-" + (1 + random.nextInt(USERS));
+            boolean accepted = random.nextInt(3) == 0;
+            String other = accepted ? "user-" + (1 + random.nextInt(USERS)) : null;
+            boolean bothConfirmed = accepted && random.nextInt(10) == 0;
+            long departure = FIRST_DEPARTURE
+                    + (i + random.nextInt(9) - 4) * DEPARTURE_STEP_MILLIS;
+
+            Ride ride = new Ride(
+                    offer ? "offer" : "request",
+                    offer ? poster : other,
+                    offer ? other : poster,
+                    PLACES[random.nextInt(PLACES.length)],
+                    PLACES[random.nextInt(PLACES.length)],
+                    RideDates.formatDateTime(departure),
+                    accepted,
+                    bothConfirmed,
+                    bothConfirmed);
+            ride.departureEpochMillis = departure;
+            ride.setKey(String.format(Locale.US, "ride-%08d", i));
+            rides[i] = ride;
+        }
+        return rides;
+    }
+
+    /**
+     * Creates changed versions of every hundredth ride: departure moved by a few slots and
+     * the driver's confirmation flipped, as when a ride is edited or confirmed.
+     *
+     * @param rides The rides to derive the updates from
+     * @param shift How many departure slots to move the rides by
+     * @return The updated rides
+     */
+    static Ride[] updates(Ride[] rides, int shift) {
+        Ride[] updates = new Ride[(rides.length + 99) / 100];
+        for (int i = 0; i < updates.length; i++) {
+            Ride updated = new Ride(rides[i * 100]);
+            updated.departureEpochMillis += shift * DEPARTURE_STEP_MILLIS;
+            updated.driverConfirmed = !updated.driverConfirmed;
+            updates[i] = updated;
+        }
+        return updates;
+    }
+
+    /**
+     * Copies rides without changing them, as a re-attached listener re-delivers them.
+     *
+     * @param rides The rides to copy
+     * @return Equal but distinct rides
+     */
+    static Ride[] copies(Ride[] rides) {
+        Ride[] copies = new Ride[rides.length];
+        for (int i = 0; i < rides.length; i++) {
+            copies[i] = new Ride(rides[i]);
+        }
+        return copies;
+    }
+}
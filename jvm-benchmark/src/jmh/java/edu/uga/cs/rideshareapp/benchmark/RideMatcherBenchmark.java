@@ -0,0 +1,139 @@
+package edu.uga.cs.rideshareapp.benchmark;
+
+import edu.uga.cs.rideshareapp.GeoHash;
+import edu.uga.cs.rideshareapp.Ride;
+import edu.uga.cs.rideshareapp.RideMatcher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Throughput of matching ride requests to offers, over 10k to 1M open offers spread over
+ * the Atlanta metro area and a week of departures:
+ * <ul>
+ *     <li>match: {@link RideMatcher} looking only at the cells and hours around a request</li>
+ *     <li>scanAll: the same filter over every offer, what matching without an index costs</li>
+ *     <li>churn: re-indexing offers as they are posted, edited and accepted</li>
+ * </ul>
+ */
+@State(Scope.Thread)
+public class RideMatcherBenchmark {
+
+    private static final double RADIUS_METERS = 3000;
+    private static final long WINDOW_MILLIS = 60 * 60 * 1000L;
+    private static final long WEEK_MILLIS = 7 * 24 * 60 * 60 * 1000L;
+    private static final int REQUESTS = 1024;
+    private static final int LIMIT = 10;
+
+    /** Busy places riders travel between, latitude and longitude */
+    private static final double[][] HOTSPOTS = {
+            { 33.7490, -84.3880 },  // Downtown
+            { 33.7816, -84.3830 },  // Midtown
+            { 33.8490, -84.3730 },  // Buckhead
+            { 33.6407, -84.4277 },  // Airport
+            { 33.7756, -84.3963 },  // Georgia Tech
+            { 33.7925, -84.3240 },  // Emory
+            { 33.9526, -84.5499 },  // Marietta
+            { 34.0232, -84.3616 },  // Roswell
+            { 33.7748, -84.2963 },  // Decatur
+            { 33.5801, -84.3397 },  // Morrow
+    };
+
+    /** Spread of places around a hotspot */
+    private static final double SPREAD_DEGREES = 0.04;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private Ride[] offers;
+    private Ride[] requests;
+    private Ride[] edits;
+    private int[] edited;
+    private RideMatcher matcher;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        offers = new Ride[rows];
+        matcher = new RideMatcher(RADIUS_METERS, WINDOW_MILLIS);
+        for (int i = 0; i < rows; i++) {
+            offers[i] = ride(random, "offer", "ride-" + i);
+            matcher.put(offers[i]);
+        }
+
+        requests = new Ride[REQUESTS];
+        edits = new Ride[REQUESTS];
+        edited = new int[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            requests[i] = ride(random, "request", "request-" + i);
+            edited[i] = random.nextInt(rows);
+            edits[i] = ride(random, "offer", offers[edited[i]].getKey());
+        }
+    }
+
+    @Benchmark
+    public List<RideMatcher.Match> match() {
+        return matcher.match(nextRequest(), LIMIT);
+    }
+
+    @Benchmark
+    public int scanAll() {
+        Ride request = nextRequest();
+        int found = 0;
+        for (Ride offer : offers) {
+            if (Math.abs(offer.departureEpochMillis - request.departureEpochMillis) <= WINDOW_MILLIS
+                    && GeoHash.distanceMeters(request.fromLat, request.fromLng,
+                            offer.fromLat, offer.fromLng) <= RADIUS_METERS
+                    && GeoHash.distanceMeters(request.toLat, request.toLng,
+                            offer.toLat, offer.toLng) <= RADIUS_METERS) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Replaces an offer with an edited copy, then takes it out as accepted and puts the
+     * original back, so the index stays the same size.
+     */
+    @Benchmark
+    public int churn() {
+        int i = next++ & (REQUESTS - 1);
+        matcher.put(edits[i]);
+        matcher.remove(edits[i].getKey());
+        matcher.put(offers[edited[i]]);
+        return matcher.size();
+    }
+
+    private Ride nextRequest() {
+        return requests[next++ & (REQUESTS - 1)];
+    }
+
+    /**
+     * Creates an open ride between places scattered around two random hotspots, departing
+     * some time in the week after {@link RideFixtures#FIRST_DEPARTURE}.
+     */
+    private static Ride ride(Random random, String rideType, String key) {
+        boolean offer = "offer".equals(rideType);
+        String poster = "user-" + random.nextInt(5000);
+        double[] from = HOTSPOTS[random.nextInt(HOTSPOTS.length)];
+        double[] to = HOTSPOTS[random.nextInt(HOTSPOTS.length)];
+
+        Ride ride = new Ride(rideType, offer ? poster : null, offer ? null : poster,
+                "From", "To", "", false, false, false);
+        ride.departureEpochMillis = RideFixtures.FIRST_DEPARTURE + (long) (random.nextDouble() * WEEK_MILLIS);
+        ride.fromLat = from[0] + random.nextGaussian() * SPREAD_DEGREES;
+        ride.fromLng = from[1] + random.nextGaussian() * SPREAD_DEGREES;
+        ride.toLat = to[0] + random.nextGaussian() * SPREAD_DEGREES;
+        ride.toLng = to[1] + random.nextGaussian() * SPREAD_DEGREES;
+        ride.setKey(key);
+        return ride;
+    }
+}
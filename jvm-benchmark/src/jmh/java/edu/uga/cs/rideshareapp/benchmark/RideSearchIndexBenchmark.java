@@ -0,0 +1,124 @@
+package edu.uga.cs.rideshareapp.benchmark;
+
+import edu.uga.cs.rideshareapp.Ride;
+import edu.uga.cs.rideshareapp.RideSearchIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Throughput of searching the marketplace by place as the user types, over 1k to 100k rides
+ * between a few hundred places around Georgia:
+ * <ul>
+ *     <li>search: {@link RideSearchIndex} answering one keystroke's query</li>
+ *     <li>scanAll: normalizing and matching every ride's places, what filtering the list
+ *         without an index costs per keystroke</li>
+ *     <li>churn: re-indexing rides as they are edited, the cost of keeping the index current</li>
+ * </ul>
+ */
+@State(Scope.Thread)
+public class RideSearchIndexBenchmark {
+
+    private static final String[] CITIES = {
+            "Athens", "Atlanta", "Augusta", "Macon", "Savannah", "Columbus", "Gainesville", "Dalton"
+    };
+    private static final String[] LANDMARKS = {
+            "Airport", "Downtown", "Mall", "Stadium", "Station", "University", "Hospital",
+            "Library", "Park", "Market", "Square", "Center", "Café", "Arena", "Harbor", "Plaza"
+    };
+
+    /** What a user types, one keystroke at a time, while looking for a few places */
+    private static final String[] QUERIES = {
+            "a", "at", "atl", "atla", "atlan", "atlanta", "atlanta a", "atlanta ai", "atlanta airport",
+            "s", "sa", "sav", "sava", "savannah", "savannah h", "savannah ha",
+            "c", "ca", "caf", "cafe", "cafe m", "cafe ma", "cafe mac",
+            "m", "ma", "mac", "macon", "macon s", "macon st", "macon sta"
+    };
+
+    private static final int EDITS = 1024;
+
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    private Ride[] rides;
+    private Ride[] edits;
+    private RideSearchIndex index;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        rides = new Ride[rows];
+        index = new RideSearchIndex();
+        for (int i = 0; i < rows; i++) {
+            rides[i] = ride(random, "ride-" + i);
+            index.put(rides[i]);
+        }
+
+        edits = new Ride[EDITS];
+        for (int i = 0; i < EDITS; i++) {
+            edits[i] = ride(random, rides[random.nextInt(rows)].getKey());
+        }
+    }
+
+    @Benchmark
+    public int search() {
+        Set<String> matches = index.search(QUERIES[next++ % QUERIES.length]);
+        return matches == null ? rows : matches.size();
+    }
+
+    @Benchmark
+    public int scanAll() {
+        String[] words = QUERIES[next++ % QUERIES.length].split(" ");
+        int found = 0;
+        for (Ride ride : rides) {
+            String places = normalize(ride.from) + " " + normalize(ride.to);
+            boolean matches = true;
+            for (String word : words) {
+                if (!places.startsWith(word) && !places.contains(" " + word)) {
+                    matches = false;
+                    break;
+                }
+            }
+            if (matches) found++;
+        }
+        return found;
+    }
+
+    /**
+     * Replaces a ride with an edited copy, then puts the original back, so the index stays
+     * the same.
+     */
+    @Benchmark
+    public int churn() {
+        Ride edit = edits[next++ & (EDITS - 1)];
+        index.put(edit);
+        index.put(rides[Integer.parseInt(edit.getKey().substring("ride-".length()))]);
+        return index.size();
+    }
+
+    private static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private static Ride ride(Random random, String key) {
+        Ride ride = new Ride("offer", "user-" + random.nextInt(5000), null,
+                place(random), place(random), "", false, false, false);
+        ride.setKey(key);
+        return ride;
+    }
+
+    private static String place(Random random) {
+        return CITIES[random.nextInt(CITIES.length)] + " " + LANDMARKS[random.nextInt(LANDMARKS.length)];
+    }
+}
@@ -0,0 +1,77 @@
+package edu.uga.cs.rideshareapp.loadgen;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Collects the latencies of one kind of operation and reports their percentiles.
+ * Every sample is kept, which a run of minutes at tens of operations per second easily
+ * affords, so the percentiles are exact. Thread-safe.
+ */
+final class LatencyRecorder {
+
+    static final String HEADER = String.format(Locale.US, "%-24s %7s %6s %8s %8s %8s %8s %8s",
+            "latency (ms)", "count", "errors", "p50", "p90", "p99", "p99.9", "max");
+
+    private final String name;
+    private long[] samples = new long[1024];
+    private int count;
+    private int errors;
+
+    LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records one completed operation.
+     *
+     * @param nanos Time from the start of the operation to its completion
+     */
+    synchronized void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    /**
+     * Records one failed operation, which has no latency.
+     */
+    synchronized void recordError() {
+        errors++;
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    /**
+     * Formats one report line with the count, errors and latency percentiles.
+     *
+     * @return The line, aligned with {@link #HEADER}
+     */
+    synchronized String report() {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return String.format(Locale.US, "%-24s %7d %6d %8.1f %8.1f %8.1f %8.1f %8.1f",
+                name, count, errors,
+                millis(percentile(sorted, 0.50)),
+                millis(percentile(sorted, 0.90)),
+                millis(percentile(sorted, 0.99)),
+                millis(percentile(sorted, 0.999)),
+                millis(count > 0 ? sorted[count - 1] : 0));
+    }
+
+    /**
+     * Nearest-rank percentile of sorted samples.
+     */
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,417 @@
+package edu.uga.cs.rideshareapp.loadgen;
+
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.Transaction;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import edu.uga.cs.rideshareapp.Ride;
+import edu.uga.cs.rideshareapp.RideCodec;
+import edu.uga.cs.rideshareapp.RideIndex;
+import edu.uga.cs.rideshareapp.RideQuery;
+
+/**
+ * One simulated device: its own connection to the database emulator, writing and reading
+ * exactly as the app's FirebaseRideRepository does. The writes use the same multi-path
+ * updates, accept update and confirmation transactions, and the screens attach the same
+ * queries, so contention and index use match production. Keep the two in sync.
+ *
+ * Each client authenticates as its own user through an auth override, so the database
+ * rules, such as the write-once archive, are enforced as they are for the app.
+ */
+final class LoadClient {
+
+    /** Points moved from the rider to the driver per ride, as in RideRepository */
+    private static final long RIDE_POINTS = 50;
+
+    /** Times an accept is read and written, as in FirebaseRideRepository */
+    private static final int ACCEPT_ATTEMPTS = 3;
+
+    /** The emulator accepts this token as an administrator; the auth override then applies */
+    static final GoogleCredentials EMULATOR_CREDENTIALS =
+            GoogleCredentials.create(new AccessToken("owner", new Date(Long.MAX_VALUE)));
+
+    /**
+     * Outcome of one accept, as reported to RidePostAdapter, plus how often it was written.
+     */
+    static final class AcceptOutcome {
+        final boolean accepted;
+        final int attempts;
+
+        AcceptOutcome(boolean accepted, int attempts) {
+            this.accepted = accepted;
+            this.attempts = attempts;
+        }
+    }
+
+    /**
+     * Receives what a simulated screen would show. Called on the client's event thread.
+     */
+    interface ScreenListener {
+        /** A ride appeared on the screen */
+        void onRideShown(String rideKey);
+
+        /** The screen's initial load is complete */
+        void onLoaded();
+
+        void onError(String message);
+    }
+
+    private final FirebaseApp app;
+    private final DatabaseReference rootRef;
+    private final DatabaseReference ridesRef;
+
+    /**
+     * Connects a client to the emulator.
+     *
+     * @param name    Unique client name, also the uid the client authenticates as
+     * @param options The emulator host and namespace
+     */
+    LoadClient(String name, LoadOptions options) {
+        Map<String, Object> auth = Collections.singletonMap("uid", name);
+        FirebaseOptions firebaseOptions = FirebaseOptions.builder()
+                .setCredentials(EMULATOR_CREDENTIALS)
+                .setDatabaseUrl("http://" + options.emulator + "?ns=" + options.namespace)
+                .setDatabaseAuthVariableOverride(auth)
+                .build();
+        app = FirebaseApp.initializeApp(firebaseOptions, name);
+        rootRef = FirebaseDatabase.getInstance(app).getReference();
+        ridesRef = rootRef.child(RideIndex.RIDES);
+    }
+
+    /**
+     * Returns a new ride key, generated locally as push() does.
+     */
+    String newRideKey() {
+        return ridesRef.push().getKey();
+    }
+
+    /**
+     * Posts a ride together with the poster's index entry and its copy in its day's
+     * partition, as RideFormActivity does.
+     */
+    CompletableFuture<Void> saveRide(String rideKey, String posterUid, Ride ride) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(RideIndex.ridePath(rideKey), RideCodec.encode(ride));
+        updates.put(RideIndex.userRidePath(posterUid, rideKey), true);
+        updates.put(RideIndex.openRidePath(ride.departureEpochMillis, rideKey), RideCodec.encodeOpenCopy(ride));
+        return update(rootRef, updates);
+    }
+
+    /**
+     * Accepts a ride with one multi-path update, read again and retried when the rules reject
+     * it, as RidePostAdapter does through FirebaseRideRepository.
+     */
+    CompletableFuture<AcceptOutcome> acceptRide(String rideKey, String uid) {
+        CompletableFuture<AcceptOutcome> result = new CompletableFuture<>();
+        tryAccept(rideKey, uid, ACCEPT_ATTEMPTS, 1, result);
+        return result;
+    }
+
+    /**
+     * Reads the ride and writes {@link RideIndex#acceptUpdates(Ride, String)}, as
+     * FirebaseRideRepository does.
+     *
+     * @param attempts How many more times to read and write
+     * @param attempt  This attempt's number, reported with the outcome
+     */
+    private void tryAccept(String rideKey, String uid, int attempts, int attempt,
+                           CompletableFuture<AcceptOutcome> result) {
+        readRide(rideKey).whenComplete((current, readError) -> {
+            if (readError != null) {
+                result.completeExceptionally(readError);
+                return;
+            }
+
+            if (current == null || current.accepted) {
+                String acceptedBy = current == null ? null
+                        : "offer".equals(current.rideType) ? current.riderId : current.driverId;
+                result.complete(new AcceptOutcome(uid.equals(acceptedBy), attempt));
+                return;
+            }
+
+            rootRef.updateChildren(RideIndex.acceptUpdates(current, uid), (error, ref) -> {
+                if (error == null) {
+                    result.complete(new AcceptOutcome(true, attempt));
+                } else if (attempts > 1) {
+                    tryAccept(rideKey, uid, attempts - 1, attempt + 1, result);
+                } else {
+                    result.completeExceptionally(error.toException());
+                }
+            });
+        });
+    }
+
+    private CompletableFuture<Ride> readRide(String rideKey) {
+        CompletableFuture<Ride> result = new CompletableFuture<>();
+        ridesRef.child(rideKey).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                result.complete(RideCodec.decode(snapshot));
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                result.completeExceptionally(error.toException());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Sets one user's confirmation flag in a transaction, rewriting the ride in the current
+     * schema, as FirebaseRideRepository does.
+     *
+     * @return The ride as committed, or null if it no longer exists
+     */
+    CompletableFuture<Ride> confirmRide(String rideKey, boolean asDriver) {
+        CompletableFuture<Ride> result = new CompletableFuture<>();
+        ridesRef.child(rideKey).runTransaction(new Transaction.Handler() {
+            @Override
+            public Transaction.Result doTransaction(MutableData currentData) {
+                Ride current = RideCodec.decode(rideKey, currentData.getValue());
+                if (current == null) return Transaction.success(currentData);
+                if (asDriver) {
+                    current.driverConfirmed = true;
+                } else {
+                    current.riderConfirmed = true;
+                }
+                currentData.setValue(RideCodec.encode(current));
+                return Transaction.success(currentData);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot currentData) {
+                if (error != null) {
+                    result.completeExceptionally(error.toException());
+                } else {
+                    result.complete(committed && currentData != null ? RideCodec.decode(currentData) : null);
+                }
+            }
+        }, false);
+        return result;
+    }
+
+    /**
+     * Archives the ride and clears it from both indexes in one update, then moves the points,
+     * as ActiveRideAdapter does once both users confirmed. The archive is write-once, so a
+     * second finalize of the same ride is rejected as a whole and moves no points.
+     *
+     * The app moves the points in the same update with ServerValue.increment(), which the
+     * Admin SDK lacks; a transaction per user's points stands in for it here.
+     */
+    CompletableFuture<Void> finalizeRide(Ride ride) {
+        String rideKey = ride.getKey();
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(RideIndex.completedRidePath(rideKey), RideCodec.encode(ride));
+        updates.put(RideIndex.ridePath(rideKey), null);
+        updates.put(RideIndex.userRidePath(ride.driverId, rideKey), null);
+        updates.put(RideIndex.userRidePath(ride.riderId, rideKey), null);
+        return update(rootRef, updates).thenCompose(archived -> CompletableFuture.allOf(
+                addPoints(ride.driverId, RIDE_POINTS),
+                addPoints(ride.riderId, -RIDE_POINTS)));
+    }
+
+    private CompletableFuture<Void> addPoints(String uid, long delta) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        rootRef.child(RideIndex.userPointsPath(uid)).runTransaction(new Transaction.Handler() {
+            @Override
+            public Transaction.Result doTransaction(MutableData currentData) {
+                Long points = currentData.getValue(Long.class);
+                currentData.setValue((points != null ? points : 0) + delta);
+                return Transaction.success(currentData);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot currentData) {
+                if (error != null) {
+                    result.completeExceptionally(error.toException());
+                } else {
+                    result.complete(null);
+                }
+            }
+        }, false);
+        return result;
+    }
+
+    /**
+     * Deletes every ride, index entry, partition, archived ride and user, for a clean run.
+     */
+    CompletableFuture<Void> clear() {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(RideIndex.RIDES, null);
+        updates.put(RideIndex.OPEN_RIDES, null);
+        updates.put(RideIndex.USER_RIDES, null);
+        updates.put(RideIndex.COMPLETED_RIDES, null);
+        updates.put(RideIndex.USERS, null);
+        return update(rootRef, updates);
+    }
+
+    /**
+     * Opens a screen's query the way FirebaseRideRepository serves it: a user's index with
+     * one listener per indexed ride for the dashboard, a child listener on the matching
+     * Firebase query otherwise.
+     *
+     * @param query    The query the screen's ViewModel subscribes to
+     * @param listener Receives the rides the screen shows
+     */
+    void watch(RideQuery query, ScreenListener listener) {
+        if (query.kind == RideQuery.Kind.USER_RIDES) {
+            watchUserRides(query.value, listener);
+            return;
+        }
+
+        Query firebaseQuery;
+        if (query.kind == RideQuery.Kind.POSTED_BY) {
+            firebaseQuery = ridesRef.orderByChild(RideCodec.FIELD_POSTER_STATUS_TYPE).equalTo(query.value);
+        } else if (query.kind == RideQuery.Kind.STATUS_TYPE_CELL) {
+            firebaseQuery = rootRef.child(RideIndex.OPEN_RIDES).child(query.day)
+                    .orderByChild(RideCodec.FIELD_STATUS_TYPE_CELL)
+                    .startAt(query.value).endAt(query.endAt());
+        } else {
+            Query window = ridesRef.orderByChild(RideCodec.FIELD_STATUS_TYPE_DEPARTURE);
+            window = query.startKey == null
+                    ? window.startAt(query.startAt)
+                    : window.startAt(query.startAt, query.startKey);
+            firebaseQuery = window.endAt(query.endAt()).limitToFirst(query.limit);
+        }
+
+        firebaseQuery.addChildEventListener(new ChildEventListener() {
+            @Override
+            public void onChildAdded(DataSnapshot snapshot, String previousChildName) {
+                listener.onRideShown(snapshot.getKey());
+            }
+
+            @Override
+            public void onChildChanged(DataSnapshot snapshot, String previousChildName) { }
+
+            @Override
+            public void onChildRemoved(DataSnapshot snapshot) { }
+
+            @Override
+            public void onChildMoved(DataSnapshot snapshot, String previousChildName) { }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                listener.onError(error.getMessage());
+            }
+        });
+        firebaseQuery.addListenerForSingleValueEvent(loadedListener(listener));
+    }
+
+    /**
+     * Closes the client's connection.
+     */
+    void close() {
+        app.delete();
+    }
+
+    private void watchUserRides(String uid, ScreenListener listener) {
+        DatabaseReference indexRef = rootRef.child(RideIndex.USER_RIDES).child(uid);
+
+        // Rides still to arrive for the initial load; events arrive on one thread per client
+        Set<String> pending = new HashSet<>();
+        boolean[] indexLoaded = new boolean[1];
+        Runnable markLoadedIfComplete = () -> {
+            if (indexLoaded[0] && pending.isEmpty()) {
+                indexLoaded[0] = false;   // Report the initial load only once
+                listener.onLoaded();
+            }
+        };
+
+        indexRef.addChildEventListener(new ChildEventListener() {
+            @Override
+            public void onChildAdded(DataSnapshot snapshot, String previousChildName) {
+                String rideKey = snapshot.getKey();
+                pending.add(rideKey);
+                ridesRef.child(rideKey).addValueEventListener(new ValueEventListener() {
+                    private boolean shown;
+
+                    @Override
+                    public void onDataChange(DataSnapshot rideSnapshot) {
+                        if (!shown && rideSnapshot.exists()) {
+                            shown = true;
+                            listener.onRideShown(rideKey);
+                        }
+                        if (pending.remove(rideKey)) markLoadedIfComplete.run();
+                    }
+
+                    @Override
+                    public void onCancelled(DatabaseError error) {
+                        listener.onError(error.getMessage());
+                    }
+                });
+            }
+
+            @Override
+            public void onChildChanged(DataSnapshot snapshot, String previousChildName) { }
+
+            @Override
+            public void onChildRemoved(DataSnapshot snapshot) { }
+
+            @Override
+            public void onChildMoved(DataSnapshot snapshot, String previousChildName) { }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                listener.onError(error.getMessage());
+            }
+        });
+
+        indexRef.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                indexLoaded[0] = true;
+                markLoadedIfComplete.run();
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                listener.onError(error.getMessage());
+            }
+        });
+    }
+
+    private static ValueEventListener loadedListener(ScreenListener listener) {
+        return new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                listener.onLoaded();
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                listener.onError(error.getMessage());
+            }
+        };
+    }
+
+    private static CompletableFuture<Void> update(DatabaseReference ref, Map<String, Object> updates) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        ref.updateChildren(updates, (error, written) -> {
+            if (error != null) {
+                result.completeExceptionally(error.toException());
+            } else {
+                result.complete(null);
+            }
+        });
+        return result;
+    }
+}
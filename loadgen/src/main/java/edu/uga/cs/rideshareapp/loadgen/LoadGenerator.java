@@ -0,0 +1,358 @@
+package edu.uga.cs.rideshareapp.loadgen;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import edu.uga.cs.rideshareapp.Ride;
+import edu.uga.cs.rideshareapp.RideDates;
+import edu.uga.cs.rideshareapp.RideQuery;
+
+/**
+ * Drives the rides tree on the Realtime Database emulator the way many app users would, to
+ * reproduce production contention locally. Start the emulator with
+ * {@code firebase emulators:start --only database}, then run
+ * {@code ./gradlew :loadgen:run --args='--users=200 --post-rate=20'}; see {@link LoadOptions}.
+ *
+ * Users are spread over a number of clients, each its own connection. Rides are posted at a
+ * fixed rate; some are raced for by several users at once, and the winner and the poster then
+ * both confirm, the second of them finalizing the ride as the dashboard does. Meanwhile some
+ * users keep the three list screens open on the same queries the app uses.
+ *
+ * The report gives latency percentiles of every write, of a posted ride reaching the screens
+ * watching it, and of the screens' initial loads, plus the conflict rates: accepts lost to
+ * another user, accept writes retried, finalizes rejected as duplicates and rides both users
+ * confirmed but neither finalized.
+ */
+public final class LoadGenerator {
+
+    private static final String[] PLACES = {
+            "Tate Center", "Ramsey Center", "Boyd Hall", "Science Library",
+            "Five Points", "Downtown Athens", "Atlanta Airport", "Stegeman Coliseum"
+    };
+
+    /** Departures are spread over the coming week, starting in an hour */
+    private static final long FIRST_DEPARTURE_MILLIS = 60 * 60 * 1000L;
+    private static final long DEPARTURE_SPREAD_MILLIS = 7 * 24 * 60 * 60 * 1000L;
+
+    /** How long in-flight operations may take to finish once the load stops */
+    private static final long DRAIN_TIMEOUT_MILLIS = 30_000;
+
+    private final LoadOptions options;
+    private final List<LoadClient> clients = new ArrayList<>();
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+
+    private final Map<String, LatencyRecorder> latencies = new LinkedHashMap<>();
+    private final LatencyRecorder postLatency = recorder("post");
+    private final LatencyRecorder acceptLatency = recorder("accept");
+    private final LatencyRecorder confirmLatency = recorder("confirm");
+    private final LatencyRecorder finalizeLatency = recorder("finalize");
+    private final LatencyRecorder myPostsVisible = recorder("post -> my posts");
+    private final LatencyRecorder othersVisible = recorder("post -> others' posts");
+    private final LatencyRecorder activeVisible = recorder("post -> dashboard");
+    private final LatencyRecorder activeLoad = recorder("load dashboard");
+    private final LatencyRecorder myPostsLoad = recorder("load my posts");
+    private final LatencyRecorder othersLoad = recorder("load others' posts");
+
+    /** When each ride posted during the run was written, to time its arrival on screens */
+    private final Map<String, Long> postedAt = new ConcurrentHashMap<>();
+
+    private final AtomicLong acceptAttempts = new AtomicLong();
+    private final AtomicLong acceptsLost = new AtomicLong();
+    private final AtomicLong acceptWrites = new AtomicLong();
+    private final AtomicLong ridesFinalized = new AtomicLong();
+    private final AtomicLong finalizesRejected = new AtomicLong();
+    private final AtomicLong ridesStranded = new AtomicLong();
+    private final AtomicLong screenErrors = new AtomicLong();
+
+    /** Operation chains still running */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private LoadGenerator(LoadOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadOptions options;
+        try {
+            options = LoadOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        new LoadGenerator(options).run();
+        System.exit(0);
+    }
+
+    private void run() throws InterruptedException {
+        for (int i = 0; i < options.clients; i++) {
+            clients.add(new LoadClient("load-client-" + i, options));
+        }
+
+        if (options.reset) {
+            clients.get(0).clear().join();
+        }
+        seed();
+        openScreens();
+
+        System.out.printf(Locale.US, "Posting %.1f rides/s for %d s from %d users on %d clients%n",
+                options.postRate, options.durationSeconds, options.users, options.clients);
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.postRate);
+        scheduler.scheduleAtFixedRate(this::postRide, 0, periodNanos, TimeUnit.NANOSECONDS);
+        Thread.sleep(TimeUnit.SECONDS.toMillis(options.durationSeconds));
+
+        // Stop posting, but let the accepts and confirmations already under way finish
+        scheduler.shutdown();
+        long drainDeadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MILLIS;
+        while (inFlight.get() > 0 && System.currentTimeMillis() < drainDeadline) {
+            Thread.sleep(100);
+        }
+
+        printReport();
+        for (LoadClient client : clients) {
+            client.close();
+        }
+    }
+
+    /**
+     * Writes the open rides present before the load starts, so the screens' queries run
+     * against a realistically sized tree.
+     */
+    private void seed() {
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < options.seedRides; i++) {
+            String poster = user(i % options.users);
+            Ride ride = newRide(poster, i % 2 == 0);
+            LoadClient client = clientOf(i % options.users);
+            writes.add(client.saveRide(client.newRideKey(), poster, ride));
+        }
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+        System.out.printf(Locale.US, "Seeded %d open rides%n", options.seedRides);
+    }
+
+    /**
+     * Opens the list screens: the dashboard, own posts and the marketplace, each for the first
+     * users, alternating between offers and requests.
+     */
+    private void openScreens() {
+        for (int i = 0; i < options.activeScreens; i++) {
+            openScreen(i, RideQuery.userRides(user(i)), activeLoad, activeVisible);
+        }
+        for (int i = 0; i < options.myPostsScreens; i++) {
+            String statusType = Ride.statusType(false, i % 2 == 0 ? "offer" : "request");
+            openScreen(i, RideQuery.postedBy(user(i), statusType), myPostsLoad, myPostsVisible);
+        }
+        for (int i = 0; i < options.othersScreens; i++) {
+            String statusType = Ride.statusType(false, i % 2 == 0 ? "offer" : "request");
+            String startAt = Ride.statusTypeDeparture(statusType, System.currentTimeMillis());
+            RideQuery query = RideQuery.statusTypeWindow(statusType, startAt, null, options.window);
+            openScreen(i, query, othersLoad, othersVisible);
+        }
+    }
+
+    private void openScreen(int userIndex, RideQuery query, LatencyRecorder load, LatencyRecorder visible) {
+        long start = System.nanoTime();
+        clientOf(userIndex).watch(query, new LoadClient.ScreenListener() {
+            @Override
+            public void onRideShown(String rideKey) {
+                Long posted = postedAt.get(rideKey);
+                if (posted != null) visible.record(System.nanoTime() - posted);
+            }
+
+            @Override
+            public void onLoaded() {
+                load.record(System.nanoTime() - start);
+            }
+
+            @Override
+            public void onError(String message) {
+                screenErrors.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Posts one ride from a random user and, for a share of them, starts the race to accept it.
+     */
+    private void postRide() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int posterIndex = random.nextInt(options.users);
+        String poster = user(posterIndex);
+        Ride ride = newRide(poster, random.nextBoolean());
+        LoadClient client = clientOf(posterIndex);
+        String rideKey = client.newRideKey();
+        ride.setKey(rideKey);
+
+        inFlight.incrementAndGet();
+        postedAt.put(rideKey, System.nanoTime());
+        timed(postLatency, () -> client.saveRide(rideKey, poster, ride)).whenComplete((ignored, error) -> {
+            if (error == null && random.nextDouble() < options.acceptRatio) {
+                inFlight.incrementAndGet();
+                scheduler.schedule(() -> raceToAccept(ride, posterIndex),
+                        options.acceptDelayMillis, TimeUnit.MILLISECONDS);
+            }
+            inFlight.decrementAndGet();
+        });
+    }
+
+    /**
+     * Has several users other than the poster accept the ride at the same moment. The winner
+     * and the poster then confirm it.
+     */
+    private void raceToAccept(Ride ride, int posterIndex) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Integer> acceptors = new ArrayList<>();
+        while (acceptors.size() < options.acceptors) {
+            int candidate = random.nextInt(options.users);
+            if (candidate != posterIndex && !acceptors.contains(candidate)) acceptors.add(candidate);
+        }
+
+        AtomicInteger remaining = new AtomicInteger(acceptors.size());
+        for (int acceptorIndex : acceptors) {
+            String uid = user(acceptorIndex);
+            acceptAttempts.incrementAndGet();
+            timed(acceptLatency, () -> clientOf(acceptorIndex).acceptRide(ride.getKey(), uid))
+                    .whenComplete((outcome, error) -> {
+                        if (outcome != null) {
+                            acceptWrites.addAndGet(outcome.attempts);
+                            if (outcome.accepted) {
+                                confirmBoth(ride, posterIndex, acceptorIndex);
+                            } else {
+                                acceptsLost.incrementAndGet();
+                            }
+                        }
+                        if (remaining.decrementAndGet() == 0) inFlight.decrementAndGet();
+                    });
+        }
+    }
+
+    /**
+     * Has both users of an accepted ride confirm it after a jittered delay. Like the dashboard,
+     * the user whose confirmation transaction commits the second flag finalizes the ride, so
+     * however close the confirmations, it is finalized once.
+     */
+    private void confirmBoth(Ride ride, int posterIndex, int acceptorIndex) {
+        boolean posterDrives = "offer".equals(ride.rideType);
+        AtomicInteger confirmations = new AtomicInteger(2);
+        AtomicInteger finalizes = new AtomicInteger();
+
+        inFlight.incrementAndGet();
+        confirm(ride.getKey(), posterIndex, posterDrives, confirmations, finalizes);
+        confirm(ride.getKey(), acceptorIndex, !posterDrives, confirmations, finalizes);
+    }
+
+    private void confirm(String rideKey, int userIndex, boolean asDriver,
+                         AtomicInteger confirmations, AtomicInteger finalizes) {
+        long delay = options.confirmDelayMillis
+                + ThreadLocalRandom.current().nextLong(options.confirmJitterMillis + 1);
+        LoadClient client = clientOf(userIndex);
+
+        scheduler.schedule(() ->
+                timed(confirmLatency, () -> client.confirmRide(rideKey, asDriver)).thenCompose(confirmed -> {
+                    if (confirmed == null || !confirmed.driverConfirmed || !confirmed.riderConfirmed) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+
+                    finalizes.incrementAndGet();
+                    return timed(finalizeLatency, () -> client.finalizeRide(confirmed)).handle((done, error) -> {
+                        if (error == null) {
+                            ridesFinalized.incrementAndGet();
+                        } else {
+                            finalizesRejected.incrementAndGet();
+                        }
+                        return null;
+                    });
+                }).whenComplete((ignored, error) -> {
+                    if (confirmations.decrementAndGet() == 0) {
+                        if (finalizes.get() == 0) ridesStranded.incrementAndGet();
+                        inFlight.decrementAndGet();
+                    }
+                }), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts an operation and records its latency, or an error if it fails.
+     */
+    private static <T> CompletableFuture<T> timed(LatencyRecorder recorder, Supplier<CompletableFuture<T>> operation) {
+        long start = System.nanoTime();
+        return operation.get().whenComplete((result, error) -> {
+            if (error != null) {
+                recorder.recordError();
+            } else {
+                recorder.record(System.nanoTime() - start);
+            }
+        });
+    }
+
+    private void printReport() {
+        System.out.println();
+        System.out.println(LatencyRecorder.HEADER);
+        for (LatencyRecorder recorder : latencies.values()) {
+            System.out.println(recorder.report());
+        }
+
+        long attempts = acceptAttempts.get();
+        long completedAccepts = acceptLatency.count();
+        System.out.println();
+        System.out.printf(Locale.US, "accepts lost to another user  %d of %d (%s)%n",
+                acceptsLost.get(), attempts, percent(acceptsLost.get(), attempts));
+        System.out.printf(Locale.US, "writes per accept             %.2f%n",
+                completedAccepts > 0 ? (double) acceptWrites.get() / completedAccepts : 0);
+        System.out.printf(Locale.US, "rides finalized               %d%n", ridesFinalized.get());
+        System.out.printf(Locale.US, "finalizes rejected (repeat)   %d (%s)%n",
+                finalizesRejected.get(), percent(finalizesRejected.get(), ridesFinalized.get() + finalizesRejected.get()));
+        System.out.printf(Locale.US, "rides confirmed, not final    %d%n", ridesStranded.get());
+        System.out.printf(Locale.US, "screen errors                 %d%n", screenErrors.get());
+        if (inFlight.get() > 0) {
+            System.out.printf(Locale.US, "unfinished after drain        %d%n", inFlight.get());
+        }
+    }
+
+    private Ride newRide(String poster, boolean offer) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long departure = System.currentTimeMillis() + FIRST_DEPARTURE_MILLIS
+                + random.nextLong(DEPARTURE_SPREAD_MILLIS);
+        Ride ride = new Ride(
+                offer ? "offer" : "request",
+                offer ? poster : null,
+                offer ? null : poster,
+                PLACES[random.nextInt(PLACES.length)],
+                PLACES[random.nextInt(PLACES.length)],
+                RideDates.formatDateTime(departure),
+                false, false, false);
+        ride.departureEpochMillis = departure;
+        ride.updateQueryKeys();
+        return ride;
+    }
+
+    private LatencyRecorder recorder(String name) {
+        LatencyRecorder recorder = new LatencyRecorder(name);
+        latencies.put(name, recorder);
+        return recorder;
+    }
+
+    private LoadClient clientOf(int userIndex) {
+        return clients.get(userIndex % clients.size());
+    }
+
+    private static String user(int index) {
+        return "load-user-" + index;
+    }
+
+    private static String percent(long part, long whole) {
+        return whole > 0 ? String.format(Locale.US, "%.1f%%", 100.0 * part / whole) : "-";
+    }
+}
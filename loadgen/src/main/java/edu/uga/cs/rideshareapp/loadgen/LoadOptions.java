@@ -0,0 +1,125 @@
+package edu.uga.cs.rideshareapp.loadgen;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options of the {@link LoadGenerator}, given as --name=value.
+ */
+final class LoadOptions {
+
+    static final String USAGE = String.join("\n",
+            "Usage: loadgen [--name=value ...]",
+            "  --emulator=localhost:9000   Realtime Database emulator host and port",
+            "  --namespace=rideshare-load  Database namespace on the emulator",
+            "  --clients=10                Database connections, i.e. simulated devices",
+            "  --users=100                 Users, spread over the clients",
+            "  --duration=60               Seconds of load, after seeding",
+            "  --seed-rides=500            Open rides written before the load starts",
+            "  --post-rate=10              Rides posted per second",
+            "  --accept-ratio=0.8          Share of posted rides that get accepted",
+            "  --acceptors=3               Users racing to accept each of those rides",
+            "  --accept-delay-ms=200       Delay between a post and the race to accept it",
+            "  --confirm-delay-ms=500      Delay between an accept and both confirmations",
+            "  --confirm-jitter-ms=200     Random spread of the two confirmations",
+            "  --active-screens=10         Users watching their dashboard (MainActivity)",
+            "  --my-posts-screens=10       Users watching their own posts (MyPostsActivity)",
+            "  --others-screens=10         Users watching the marketplace (OthersPostsActivity)",
+            "  --window=20                 Rides in a marketplace window, the app's page size",
+            "  --reset=true                Clear the rides tree before seeding");
+
+    final String emulator;
+    final String namespace;
+    final int clients;
+    final int users;
+    final int durationSeconds;
+    final int seedRides;
+    final double postRate;
+    final double acceptRatio;
+    final int acceptors;
+    final long acceptDelayMillis;
+    final long confirmDelayMillis;
+    final long confirmJitterMillis;
+    final int activeScreens;
+    final int myPostsScreens;
+    final int othersScreens;
+    final int window;
+    final boolean reset;
+
+    private LoadOptions(Map<String, String> values) {
+        emulator = string(values, "emulator", "localhost:9000");
+        namespace = string(values, "namespace", "rideshare-load");
+        clients = positive(values, "clients", 10);
+        users = positive(values, "users", 100);
+        durationSeconds = positive(values, "duration", 60);
+        seedRides = (int) number(values, "seed-rides", 500);
+        postRate = number(values, "post-rate", 10);
+        acceptRatio = number(values, "accept-ratio", 0.8);
+        acceptors = positive(values, "acceptors", 3);
+        acceptDelayMillis = (long) number(values, "accept-delay-ms", 200);
+        confirmDelayMillis = (long) number(values, "confirm-delay-ms", 500);
+        confirmJitterMillis = (long) number(values, "confirm-jitter-ms", 200);
+        activeScreens = (int) number(values, "active-screens", 10);
+        myPostsScreens = (int) number(values, "my-posts-screens", 10);
+        othersScreens = (int) number(values, "others-screens", 10);
+        window = positive(values, "window", 20);
+        reset = Boolean.parseBoolean(string(values, "reset", "true"));
+
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown option: --" + values.keySet().iterator().next());
+        }
+        if (postRate <= 0) {
+            throw new IllegalArgumentException("--post-rate must be positive");
+        }
+        if (acceptRatio < 0 || acceptRatio > 1) {
+            throw new IllegalArgumentException("--accept-ratio must be between 0 and 1");
+        }
+        if (acceptors >= users) {
+            throw new IllegalArgumentException("--acceptors must be less than --users");
+        }
+    }
+
+    /**
+     * Parses the command line.
+     *
+     * @param args Arguments of the form --name=value
+     * @return The options, with defaults for those not given
+     * @throws IllegalArgumentException If an argument is malformed, unknown or out of range
+     */
+    static LoadOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value: " + arg);
+            }
+            values.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return new LoadOptions(values);
+    }
+
+    // Each reader removes its option, so whatever is left over is unknown
+
+    private static String string(Map<String, String> values, String name, String absent) {
+        String value = values.remove(name);
+        return value != null ? value : absent;
+    }
+
+    private static double number(Map<String, String> values, String name, double absent) {
+        String value = values.remove(name);
+        if (value == null) return absent;
+        try {
+            double number = Double.parseDouble(value);
+            if (number < 0) throw new IllegalArgumentException("--" + name + " must not be negative");
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " is not a number: " + value);
+        }
+    }
+
+    private static int positive(Map<String, String> values, String name, int absent) {
+        int number = (int) number(values, name, absent);
+        if (number <= 0) throw new IllegalArgumentException("--" + name + " must be positive");
+        return number;
+    }
+}
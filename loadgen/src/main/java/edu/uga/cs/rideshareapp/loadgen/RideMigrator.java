@@ -0,0 +1,303 @@
+package edu.uga.cs.rideshareapp.loadgen;
+
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.Transaction;
+import com.google.firebase.database.ValueEventListener;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import edu.uga.cs.rideshareapp.Ride;
+import edu.uga.cs.rideshareapp.RideCodec;
+import edu.uga.cs.rideshareapp.RideDates;
+import edu.uga.cs.rideshareapp.RideIndex;
+
+/**
+ * Brings rides written by older versions of the app up to date. Run it once per database
+ * with {@code ./gradlew :loadgen:migrate --args='--dry-run=true'}, against the emulator, or
+ * against a real database with {@code --database-url=https://...} and application default
+ * credentials.
+ *
+ * First every ride stored in an older schema is rewritten in the current {@link RideCodec}
+ * schema, each in a transaction so a concurrent accept or confirmation is not overwritten,
+ * and the emails version 1 rides carried are moved to the users' profiles. Rides without a
+ * version sort first, so one query up to the previous version finds them all. Archived rides
+ * are write-once and are left as they are; the codec still reads them.
+ *
+ * Then rides written before the per-user ride index and the day partitions existed get their
+ * index entries, so they show on their driver's and rider's dashboards and, while open and
+ * upcoming, in the nearby feeds. Rides are read a page at a time and a marker is written
+ * last, so the backfill runs once.
+ *
+ * The app does neither: both read rides no client should download and write other users'
+ * entries, so the migrator connects as an administrator.
+ */
+public final class RideMigrator {
+
+    static final String USAGE = String.join("\n",
+            "Usage: migrate [--name=value ...]",
+            "  --emulator=localhost:9000   Realtime Database emulator host and port",
+            "  --namespace=rideshare-load  Database namespace on the emulator",
+            "  --database-url=             A real database instead of the emulator",
+            "  --dry-run=false             Only report what would be written");
+
+    /** Set once every ride written before the per-user index has been indexed */
+    static final String INDEX_BACKFILL_DONE = "migrations/rideIndexBackfill";
+
+    /** Rides read per query while backfilling */
+    private static final int PAGE_RIDES = 1000;
+
+    /** Paths written per multi-path update, so one update stays a reasonable size */
+    private static final int BATCH_PATHS = 500;
+
+    private final DatabaseReference rootRef;
+    private final boolean dryRun;
+    private final List<CompletableFuture<Void>> writes = new ArrayList<>();
+    private Map<String, Object> batch = new HashMap<>();
+
+    private RideMigrator(DatabaseReference rootRef, boolean dryRun) {
+        this.rootRef = rootRef;
+        this.dryRun = dryRun;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> values = new HashMap<>();
+        String emulator;
+        String namespace;
+        String databaseUrl;
+        boolean dryRun;
+        try {
+            for (String arg : args) {
+                int equals = arg.indexOf('=');
+                if (!arg.startsWith("--") || equals < 0) {
+                    throw new IllegalArgumentException("Expected --name=value: " + arg);
+                }
+                values.put(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+            emulator = values.getOrDefault("emulator", "localhost:9000");
+            namespace = values.getOrDefault("namespace", "rideshare-load");
+            databaseUrl = values.getOrDefault("database-url", "");
+            dryRun = Boolean.parseBoolean(values.getOrDefault("dry-run", "false"));
+            values.keySet().removeAll(List.of("emulator", "namespace", "database-url", "dry-run"));
+            if (!values.isEmpty()) {
+                throw new IllegalArgumentException("Unknown option: --" + values.keySet().iterator().next());
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        FirebaseOptions options = databaseUrl.isEmpty()
+                ? FirebaseOptions.builder()
+                        .setCredentials(LoadClient.EMULATOR_CREDENTIALS)
+                        .setDatabaseUrl("http://" + emulator + "?ns=" + namespace)
+                        .build()
+                : FirebaseOptions.builder()
+                        .setCredentials(GoogleCredentials.getApplicationDefault())
+                        .setDatabaseUrl(databaseUrl)
+                        .build();
+        FirebaseApp app = FirebaseApp.initializeApp(options, "ride-migrator");
+        DatabaseReference rootRef = FirebaseDatabase.getInstance(app).getReference();
+
+        RideMigrator migrator = new RideMigrator(rootRef, dryRun);
+        migrator.migrateRides();
+        migrator.backfillRideIndexes();
+        app.delete();
+        System.exit(0);
+    }
+
+    /**
+     * Rewrites every ride stored in an older schema in the current schema, and moves the
+     * emails of version 1 rides to the users' profiles.
+     */
+    private void migrateRides() {
+        Query outdated = rootRef.child(RideIndex.RIDES)
+                .orderByChild(RideCodec.FIELD_VERSION)
+                .endAt(RideCodec.VERSION - 1);
+
+        int rides = 0;
+        List<CompletableFuture<Boolean>> migrations = new ArrayList<>();
+        for (DataSnapshot rideSnapshot : read(outdated).join().getChildren()) {
+            collectEmail(rideSnapshot, "driverId", "driverEmail");
+            collectEmail(rideSnapshot, "riderId", "riderEmail");
+            if (!dryRun) migrations.add(migrateRide(rideSnapshot.getRef()));
+            rides++;
+        }
+        flush();
+
+        int skipped = 0;
+        for (CompletableFuture<Boolean> migration : migrations) {
+            if (!migration.join()) skipped++;
+        }
+        awaitWrites();
+        System.out.printf(Locale.US, "%s %d rides to schema version %d%s%n",
+                dryRun ? "Would migrate" : "Migrated", rides - skipped, RideCodec.VERSION,
+                skipped > 0 ? ", skipped " + skipped + " unreadable" : "");
+    }
+
+    /**
+     * Adds the index entries of every ride, unless a previous run already did.
+     */
+    private void backfillRideIndexes() {
+        if (read(rootRef.child(INDEX_BACKFILL_DONE)).join().exists()) {
+            System.out.println("Ride indexes already backfilled");
+            return;
+        }
+
+        long today = System.currentTimeMillis() / RideDates.DAY_MILLIS * RideDates.DAY_MILLIS;
+        int rides = 0;
+        String lastKey = null;
+        while (true) {
+            Query page = rootRef.child(RideIndex.RIDES).orderByKey();
+            if (lastKey != null) page = page.startAt(lastKey);
+            page = page.limitToFirst(PAGE_RIDES + (lastKey != null ? 1 : 0));
+
+            int read = 0;
+            for (DataSnapshot rideSnapshot : read(page).join().getChildren()) {
+                if (rideSnapshot.getKey().equals(lastKey)) continue;
+                lastKey = rideSnapshot.getKey();
+                read++;
+
+                // Decoding handles rides not migrated to the current schema
+                Ride ride = RideCodec.decode(rideSnapshot);
+                if (ride == null) continue;
+                indexUpdates(ride, today);
+                rides++;
+            }
+            if (read < PAGE_RIDES) break;
+        }
+
+        // The marker goes last, so an interrupted run is simply run again
+        flush();
+        awaitWrites();
+        write(INDEX_BACKFILL_DONE, true);
+        flush();
+        awaitWrites();
+        System.out.printf(Locale.US, "%s the index entries of %d rides%n",
+                dryRun ? "Would write" : "Wrote", rides);
+    }
+
+    /**
+     * Adds the index entries of one ride. Past days' partitions are not filled, since the
+     * sweeper would only delete them.
+     *
+     * @param today Start of today (UTC) in epoch millis
+     */
+    private void indexUpdates(Ride ride, long today) {
+        if (ride.driverId != null) write(RideIndex.userRidePath(ride.driverId, ride.getKey()), true);
+        if (ride.riderId != null) write(RideIndex.userRidePath(ride.riderId, ride.getKey()), true);
+        if (!ride.accepted && ride.departureEpochMillis >= today) {
+            write(RideIndex.openRidePath(ride.departureEpochMillis, ride.getKey()), RideCodec.encodeOpenCopy(ride));
+        }
+    }
+
+    /**
+     * Rewrites one ride in the current schema, unless it was upgraded or deleted meanwhile.
+     *
+     * @return Completes with false if the ride could not be read
+     */
+    private static CompletableFuture<Boolean> migrateRide(DatabaseReference rideRef) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        rideRef.runTransaction(new Transaction.Handler() {
+            private boolean unreadable;
+
+            @Override
+            public Transaction.Result doTransaction(MutableData currentData) {
+                Object value = currentData.getValue();
+                if (value == null || RideCodec.version(value) >= RideCodec.VERSION) {
+                    return Transaction.success(currentData);
+                }
+
+                Ride ride = RideCodec.decode(rideRef.getKey(), value);
+                unreadable = ride == null;
+                if (unreadable) return Transaction.abort();
+
+                currentData.setValue(RideCodec.encode(ride));
+                return Transaction.success(currentData);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot currentData) {
+                if (error != null) {
+                    result.completeExceptionally(error.toException());
+                } else {
+                    result.complete(!unreadable);
+                }
+            }
+        }, false);
+        return result;
+    }
+
+    /**
+     * Adds a user's email from a version 1 ride to the profile updates.
+     */
+    private void collectEmail(DataSnapshot rideSnapshot, String uidField, String emailField) {
+        Object uid = rideSnapshot.child(uidField).getValue();
+        Object email = rideSnapshot.child(emailField).getValue();
+        if (uid instanceof String && email instanceof String) {
+            write(RideIndex.userEmailPath((String) uid), email);
+        }
+    }
+
+    /**
+     * Adds a path to the current batch, writing the batch once it is full.
+     */
+    private void write(String path, Object value) {
+        batch.put(path, value);
+        if (batch.size() >= BATCH_PATHS) flush();
+    }
+
+    private void flush() {
+        if (batch.isEmpty()) return;
+        if (!dryRun) writes.add(update(batch));
+        batch = new HashMap<>();
+    }
+
+    private void awaitWrites() {
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+        writes.clear();
+    }
+
+    private CompletableFuture<Void> update(Map<String, Object> updates) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        rootRef.updateChildren(updates, (error, written) -> {
+            if (error != null) {
+                result.completeExceptionally(error.toException());
+            } else {
+                result.complete(null);
+            }
+        });
+        return result;
+    }
+
+    private static CompletableFuture<DataSnapshot> read(Query query) {
+        CompletableFuture<DataSnapshot> result = new CompletableFuture<>();
+        query.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                result.complete(snapshot);
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                result.completeExceptionally(error.toException());
+            }
+        });
+        return result;
+    }
+}
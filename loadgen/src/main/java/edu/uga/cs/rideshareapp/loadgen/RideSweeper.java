@@ -0,0 +1,216 @@
+package edu.uga.cs.rideshareapp.loadgen;
+
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import edu.uga.cs.rideshareapp.Ride;
+import edu.uga.cs.rideshareapp.RideCodec;
+import edu.uga.cs.rideshareapp.RideDates;
+import edu.uga.cs.rideshareapp.RideIndex;
+
+/**
+ * Deletes the open rides whose departure has passed, which nothing else ever removes. Run it
+ * against the emulator with
+ * {@code ./gradlew :loadgen:sweep --args='--grace-days=1 --dry-run=true'}.
+ *
+ * Rides departing before the start of today (UTC) less the grace days are found through the
+ * statusTypeDeparture index and deleted together with their poster's index entry and their
+ * openRides copy. Partitions of the days before that are then deleted whole, taking any copy
+ * whose ride was removed some other way. Accepted rides are left alone; they leave the tree
+ * when both users confirm. Their copies in the partitions kept are deleted, in case an app
+ * older than the single accept update never got to remove them.
+ *
+ * The sweeper connects as an administrator, since it deletes other users' rides.
+ */
+public final class RideSweeper {
+
+    static final String USAGE = String.join("\n",
+            "Usage: sweep [--name=value ...]",
+            "  --emulator=localhost:9000   Realtime Database emulator host and port",
+            "  --namespace=rideshare-load  Database namespace on the emulator",
+            "  --grace-days=1              Days a past ride is kept before it is deleted",
+            "  --dry-run=false             Only report what would be deleted");
+
+    /** Paths deleted per multi-path update, so one update stays a reasonable size */
+    private static final int BATCH_PATHS = 500;
+
+    private final DatabaseReference rootRef;
+    private final boolean dryRun;
+    private final List<CompletableFuture<Void>> writes = new ArrayList<>();
+    private Map<String, Object> batch = new HashMap<>();
+
+    private RideSweeper(DatabaseReference rootRef, boolean dryRun) {
+        this.rootRef = rootRef;
+        this.dryRun = dryRun;
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        String emulator;
+        String namespace;
+        int graceDays;
+        boolean dryRun;
+        try {
+            for (String arg : args) {
+                int equals = arg.indexOf('=');
+                if (!arg.startsWith("--") || equals < 0) {
+                    throw new IllegalArgumentException("Expected --name=value: " + arg);
+                }
+                values.put(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+            emulator = values.getOrDefault("emulator", "localhost:9000");
+            namespace = values.getOrDefault("namespace", "rideshare-load");
+            graceDays = Integer.parseInt(values.getOrDefault("grace-days", "1"));
+            dryRun = Boolean.parseBoolean(values.getOrDefault("dry-run", "false"));
+            values.keySet().removeAll(List.of("emulator", "namespace", "grace-days", "dry-run"));
+            if (!values.isEmpty()) {
+                throw new IllegalArgumentException("Unknown option: --" + values.keySet().iterator().next());
+            }
+            if (graceDays < 0) {
+                throw new IllegalArgumentException("--grace-days must not be negative");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        FirebaseOptions options = FirebaseOptions.builder()
+                .setCredentials(LoadClient.EMULATOR_CREDENTIALS)
+                .setDatabaseUrl("http://" + emulator + "?ns=" + namespace)
+                .build();
+        FirebaseApp app = FirebaseApp.initializeApp(options, "ride-sweeper");
+        DatabaseReference rootRef = FirebaseDatabase.getInstance(app).getReference();
+
+        // Keep whole days, so a ride is never deleted on the day it departs
+        long today = System.currentTimeMillis() / RideDates.DAY_MILLIS * RideDates.DAY_MILLIS;
+        long cutoffMillis = today - graceDays * RideDates.DAY_MILLIS;
+
+        new RideSweeper(rootRef, dryRun).sweep(cutoffMillis);
+        app.delete();
+        System.exit(0);
+    }
+
+    /**
+     * Deletes the open rides departing before a time, then the partitions of the days before it.
+     *
+     * @param cutoffMillis Start of the first day kept, in epoch millis
+     */
+    private void sweep(long cutoffMillis) {
+        System.out.println((dryRun ? "Would delete" : "Deleting") + " open rides departing before "
+                + RideDates.dayKey(cutoffMillis));
+
+        int rides = 0;
+        for (String rideType : new String[] { "offer", "request" }) {
+            String statusType = Ride.statusType(false, rideType);
+            Query expired = rootRef.child(RideIndex.RIDES)
+                    .orderByChild(RideCodec.FIELD_STATUS_TYPE_DEPARTURE)
+                    .startAt(Ride.statusTypeDeparture(statusType, 0))
+                    .endAt(Ride.statusTypeDeparture(statusType, cutoffMillis - 1));
+
+            for (DataSnapshot child : read(expired).join().getChildren()) {
+                Ride ride = RideCodec.decode(child);
+                if (ride == null) continue;
+                String poster = "offer".equals(rideType) ? ride.driverId : ride.riderId;
+                delete(RideIndex.ridePath(child.getKey()));
+                if (poster != null) delete(RideIndex.userRidePath(poster, child.getKey()));
+                delete(RideIndex.openRidePath(ride.departureEpochMillis, child.getKey()));
+                rides++;
+            }
+        }
+
+        int partitions = 0;
+        Query pastDays = rootRef.child(RideIndex.OPEN_RIDES).orderByKey()
+                .endAt(RideDates.dayKey(cutoffMillis - 1));
+        for (DataSnapshot day : read(pastDays).join().getChildren()) {
+            delete(RideIndex.OPEN_RIDES + "/" + day.getKey());
+            partitions++;
+        }
+
+        Set<String> accepted = new HashSet<>();
+        for (String rideType : new String[] { "offer", "request" }) {
+            String statusType = Ride.statusType(true, rideType);
+            Query upcoming = rootRef.child(RideIndex.RIDES)
+                    .orderByChild(RideCodec.FIELD_STATUS_TYPE_DEPARTURE)
+                    .startAt(Ride.statusTypeDeparture(statusType, cutoffMillis))
+                    .endAt(Ride.statusTypeDeparture(statusType, Long.MAX_VALUE));
+            for (DataSnapshot child : read(upcoming).join().getChildren()) {
+                accepted.add(child.getKey());
+            }
+        }
+
+        int copies = 0;
+        Query keptDays = rootRef.child(RideIndex.OPEN_RIDES).orderByKey()
+                .startAt(RideDates.dayKey(cutoffMillis));
+        for (DataSnapshot day : read(keptDays).join().getChildren()) {
+            for (DataSnapshot copy : day.getChildren()) {
+                if (!accepted.contains(copy.getKey())) continue;
+                delete(RideIndex.OPEN_RIDES + "/" + day.getKey() + "/" + copy.getKey());
+                copies++;
+            }
+        }
+
+        flush();
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+        System.out.printf(Locale.US, "%s %d rides, %d day partitions and %d copies of accepted rides%n",
+                dryRun ? "Would delete" : "Deleted", rides, partitions, copies);
+    }
+
+    /**
+     * Adds a path to the current batch, writing the batch once it is full.
+     */
+    private void delete(String path) {
+        batch.put(path, null);
+        if (batch.size() >= BATCH_PATHS) flush();
+    }
+
+    private void flush() {
+        if (batch.isEmpty()) return;
+        if (!dryRun) writes.add(update(batch));
+        batch = new HashMap<>();
+    }
+
+    private CompletableFuture<Void> update(Map<String, Object> updates) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        rootRef.updateChildren(updates, (error, written) -> {
+            if (error != null) {
+                result.completeExceptionally(error.toException());
+            } else {
+                result.complete(null);
+            }
+        });
+        return result;
+    }
+
+    private static CompletableFuture<DataSnapshot> read(Query query) {
+        CompletableFuture<DataSnapshot> result = new CompletableFuture<>();
+        query.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                result.complete(snapshot);
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                result.completeExceptionally(error.toException());
+            }
+        });
+        return result;
+    }
+}
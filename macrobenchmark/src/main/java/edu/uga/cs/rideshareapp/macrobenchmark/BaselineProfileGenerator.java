@@ -0,0 +1,77 @@
+package edu.uga.cs.rideshareapp.macrobenchmark;
+
+import android.content.Intent;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * Records the Baseline Profile shipped in app/src/main/baseline-prof.txt: a cold start through
+ * LoginActivity to the dashboard, then scrolling the active rides and the others' posts
+ * marketplace, the same journeys {@link StartupBenchmark} and {@link RideListScrollBenchmark}
+ * measure.
+ *
+ * Needs an API 33+ device or a rooted API 28+ one, such as the module's pixel6Api34 managed
+ * emulator. Run it, then copy its output into the app with
+ * ./gradlew :macrobenchmark:updateBaselineProfile
+ */
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+
+    private static final String PACKAGE_NAME = "edu.uga.cs.rideshareapp";
+    private static final int MAX_ITERATIONS = 15;
+    private static final int STABLE_ITERATIONS = 3;
+    private static final int FLINGS = 3;
+    private static final long LIST_TIMEOUT_MILLIS = 5000;
+
+    @Rule
+    public BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        baselineProfileRule.collect(
+                PACKAGE_NAME,
+                MAX_ITERATIONS,
+                STABLE_ITERATIONS,
+                null,
+                false,
+                false,
+                className -> true,
+                scope -> {
+                    scope.pressHome();
+                    scope.startActivityAndWait();
+                    flingList(scope, "activeRidesRecyclerView");
+
+                    Intent intent = new Intent();
+                    intent.setClassName(PACKAGE_NAME, PACKAGE_NAME + ".OthersPostsActivity");
+                    scope.startActivityAndWait(intent);
+                    flingList(scope, "othersPostsRecyclerView");
+                    return Unit.INSTANCE;
+                });
+    }
+
+    private static void flingList(MacrobenchmarkScope scope, String listId) {
+        UiDevice device = scope.getDevice();
+        UiObject2 list = device.wait(Until.findObject(By.res(PACKAGE_NAME, listId)), LIST_TIMEOUT_MILLIS);
+        list.setGestureMargin(device.getDisplayWidth() / 5);
+
+        for (int i = 0; i < FLINGS; i++) {
+            list.fling(Direction.DOWN);
+            device.waitForIdle();
+        }
+        list.fling(Direction.UP);
+        device.waitForIdle();
+    }
+}
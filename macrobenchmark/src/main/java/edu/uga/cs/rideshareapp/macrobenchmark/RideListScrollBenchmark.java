@@ -0,0 +1,107 @@
+package edu.uga.cs.rideshareapp.macrobenchmark;
+
+import android.content.Intent;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.benchmark.macro.Metric;
+import androidx.benchmark.macro.TraceSectionMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+
+import kotlin.Unit;
+
+/**
+ * Flings through the dashboard's active rides and the others' posts marketplace on the
+ * benchmark build's seeded dataset.
+ *
+ * Frame timing shows whether fast flings drop frames, and the summed "RV OnBindView" trace
+ * section (emitted by RecyclerView around every onBindViewHolder) shows the cost of binding
+ * rows, which should stay flat now that binding only copies prepared row state; what binding
+ * allocates is counted by the app's RideRowBindAllocationTest. The app is compiled with its
+ * shipped Baseline Profile only, as it runs after a Play install.
+ *
+ * Run with: ./gradlew :macrobenchmark:connectedBenchmarkAndroidTest
+ */
+@RunWith(AndroidJUnit4.class)
+public class RideListScrollBenchmark {
+
+    private static final String PACKAGE_NAME = "edu.uga.cs.rideshareapp";
+    private static final int ITERATIONS = 10;
+    private static final int FLINGS = 5;
+    private static final long LIST_TIMEOUT_MILLIS = 5000;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Test
+    public void scrollActiveRides() {
+        scroll(PACKAGE_NAME + ".MainActivity", "activeRidesRecyclerView");
+    }
+
+    @Test
+    public void scrollOthersPosts() {
+        scroll(PACKAGE_NAME + ".OthersPostsActivity", "othersPostsRecyclerView");
+    }
+
+    /**
+     * Opens an activity and flings its ride list down and back up.
+     *
+     * @param activityName Fully qualified name of the activity to open
+     * @param listId       Resource id of the RecyclerView to fling
+     */
+    private void scroll(String activityName, String listId) {
+        List<Metric> metrics = Arrays.asList(
+                new FrameTimingMetric(),
+                new TraceSectionMetric("RV OnBindView", TraceSectionMetric.Mode.Sum));
+
+        benchmarkRule.measureRepeated(
+                PACKAGE_NAME,
+                metrics,
+                new CompilationMode.Partial(BaselineProfileMode.Require),
+                null,
+                ITERATIONS,
+                scope -> {
+                    Intent intent = new Intent();
+                    intent.setClassName(PACKAGE_NAME, activityName);
+                    scope.pressHome();
+                    scope.startActivityAndWait(intent);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    flingList(scope, listId);
+                    return Unit.INSTANCE;
+                });
+    }
+
+    private static void flingList(MacrobenchmarkScope scope, String listId) {
+        UiDevice device = scope.getDevice();
+        UiObject2 list = device.wait(Until.findObject(By.res(PACKAGE_NAME, listId)), LIST_TIMEOUT_MILLIS);
+
+        // Keep gestures away from the system navigation areas
+        list.setGestureMargin(device.getDisplayWidth() / 5);
+
+        for (int i = 0; i < FLINGS; i++) {
+            list.fling(Direction.DOWN);
+            device.waitForIdle();
+        }
+        for (int i = 0; i < FLINGS; i++) {
+            list.fling(Direction.UP);
+            device.waitForIdle();
+        }
+    }
+}
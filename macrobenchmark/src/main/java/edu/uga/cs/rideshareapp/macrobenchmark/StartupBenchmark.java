@@ -0,0 +1,75 @@
+package edu.uga.cs.rideshareapp.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Until;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Cold starts the app from the launcher on the benchmark build's seeded dataset. The benchmark
+ * user is signed in, so LoginActivity forwards straight to the dashboard, which reports itself
+ * fully drawn once its active rides are on screen.
+ *
+ * Startup is measured without any AOT compilation and with only the shipped Baseline Profile;
+ * the second run fails if the profile was not installed, so a missing profile cannot pass as
+ * a slow start. Until BaselineProfileGenerator's output is committed to the app, it fails.
+ *
+ * Run with: ./gradlew :macrobenchmark:connectedBenchmarkAndroidTest
+ */
+@RunWith(AndroidJUnit4.class)
+public class StartupBenchmark {
+
+    private static final String PACKAGE_NAME = "edu.uga.cs.rideshareapp";
+    private static final int ITERATIONS = 10;
+    private static final long LIST_TIMEOUT_MILLIS = 5000;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Test
+    public void startupWithoutCompilation() {
+        startup(new CompilationMode.None());
+    }
+
+    @Test
+    public void startupWithBaselineProfile() {
+        startup(new CompilationMode.Partial(BaselineProfileMode.Require));
+    }
+
+    /**
+     * Cold starts the launcher activity and waits for the dashboard's ride list.
+     *
+     * @param compilationMode How the app is compiled before measuring
+     */
+    private void startup(CompilationMode compilationMode) {
+        benchmarkRule.measureRepeated(
+                PACKAGE_NAME,
+                Collections.singletonList(new StartupTimingMetric()),
+                compilationMode,
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    scope.getDevice().wait(
+                            Until.hasObject(By.res(PACKAGE_NAME, "activeRidesRecyclerView")),
+                            LIST_TIMEOUT_MILLIS);
+                    return Unit.INSTANCE;
+                });
+    }
+}